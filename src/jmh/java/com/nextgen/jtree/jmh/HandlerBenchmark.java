@@ -0,0 +1,52 @@
+package com.nextgen.jtree.jmh;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import com.nextgen.jtree.Node;
+
+/**
+ * Benchmarks of structure changes handlers dispatch: adding and removing a leaf with a number of
+ * handlers subscribed to the whole tree.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class HandlerBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class Handlers {
+    @Param({"0", "1", "8"})
+    public int handlers;
+
+    private Blackhole blackhole;
+
+    @Setup(Level.Iteration)
+    public void subscribe(final TreeState state, final Blackhole blackhole) {
+      this.blackhole = blackhole;
+      for (int i = 0; i < handlers; i++) {
+        state.tree.addStructureChangesHandler(
+            (changedNode, cause, event) -> this.blackhole.consume(cause));
+      }
+    }
+  }
+
+  @Benchmark
+  public boolean dispatch(final TreeState state, final Handlers handlers) {
+    final Node<Integer> parent = state.pick();
+    return parent.removeNode(parent.addNode(-1));
+  }
+}
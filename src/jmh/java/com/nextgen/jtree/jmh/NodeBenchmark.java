@@ -0,0 +1,52 @@
+package com.nextgen.jtree.jmh;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import com.nextgen.jtree.JTreeManager;
+import com.nextgen.jtree.Node;
+
+/**
+ * Benchmarks of structural modifications and bookkeeping of a single {@link Node}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class NodeBenchmark {
+
+  /**
+   * Adds a leaf under uniformly picked node; the tree grows within an iteration.
+   */
+  @Benchmark
+  public Node<Integer> addNode(final TreeState state) {
+    return state.pick().addNode(-1);
+  }
+
+  /**
+   * Adds a leaf under uniformly picked node and removes it right away, which keeps the tree
+   * unchanged. Cost of {@code removeNode} is the difference to {@link #addNode}.
+   */
+  @Benchmark
+  public boolean addAndRemoveNode(final TreeState state) {
+    final Node<Integer> parent = state.pick();
+    return parent.removeNode(parent.addNode(-1));
+  }
+
+  @Benchmark
+  public int getSubtreeLength(final TreeState state) {
+    return state.pick().getSubtreeLength();
+  }
+
+  @Benchmark
+  public void defineMaxChildrenLimitForNode(final TreeState state, final Blackhole blackhole) {
+    blackhole.consume(JTreeManager.defineMaxChildrenLimitForNode(state.pick(), Integer.MAX_VALUE));
+  }
+}
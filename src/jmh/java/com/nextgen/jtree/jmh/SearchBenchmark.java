@@ -0,0 +1,35 @@
+package com.nextgen.jtree.jmh;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import com.nextgen.jtree.Node;
+
+/**
+ * Benchmarks of full tree searches matching one node in a hundred.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class SearchBenchmark {
+  private static final Predicate<Integer> FILTER = d -> d % 100 == 0;
+
+  @Benchmark
+  public Set<Integer> findData(final TreeState state) {
+    return state.tree.findData(FILTER);
+  }
+
+  @Benchmark
+  public Set<Node<Integer>> findNodes(final TreeState state) {
+    return state.tree.findNodes(FILTER);
+  }
+}
@@ -0,0 +1,93 @@
+package com.nextgen.jtree.jmh;
+
+import java.util.Random;
+import com.nextgen.jtree.JTree;
+import com.nextgen.jtree.Node;
+import com.nextgen.jtree.SubtreeBuilder;
+
+/**
+ * Shapes of benchmarked trees. Trees are assembled detached by {@link SubtreeBuilder} and attached
+ * under the root at once, so even ten million nodes deep chain is built in linear time.
+ */
+public enum TreeShape {
+  /**
+   * Every node is the only child of the previous one.
+   */
+  CHAIN {
+    @Override
+    int parentOf(final int node, final Random random) {
+      return node - 1;
+    }
+  },
+  /**
+   * All nodes are children of a single node.
+   */
+  FAN_OUT {
+    @Override
+    int parentOf(final int node, final Random random) {
+      return SubtreeBuilder.ROOT;
+    }
+  },
+  /**
+   * Complete tree with {@link #BRANCHING} children per node.
+   */
+  BALANCED {
+    @Override
+    int parentOf(final int node, final Random random) {
+      return (node - 1) / BRANCHING;
+    }
+  },
+  /**
+   * Every node is a child of uniformly chosen earlier node.
+   */
+  RANDOM {
+    @Override
+    int parentOf(final int node, final Random random) {
+      return random.nextInt(node);
+    }
+  };
+
+  /**
+   * Number of children per node of {@link #BALANCED} tree.
+   */
+  public static final int BRANCHING = 4;
+
+  /**
+   * Seed making {@link #RANDOM} trees reproducible.
+   */
+  private static final long SEED = 42;
+
+  abstract int parentOf(int node, Random random);
+
+  /**
+   * Builds tree of {@code size} nodes with data equal to insertion number of the node, the root
+   * being {@code 0}. Insertion order is pre-order only for {@link #CHAIN} and {@link #FAN_OUT}.
+   *
+   * @param size number of nodes
+   * @return built tree
+   */
+  public JTree<Integer> build(final int size) {
+    final JTree<Integer> tree = JTree.treeWithRoot(0);
+    if (size > 1) {
+      final Random random = new Random(SEED);
+      final SubtreeBuilder<Integer> builder = SubtreeBuilder.withRoot(1, size - 1);
+      for (int i = 1; i < size - 1; i++) {
+        builder.addNode(parentOf(i, random), i + 1);
+      }
+      builder.attachTo(tree.getRoot());
+    }
+
+    return tree;
+  }
+
+  /**
+   * Gets all nodes of {@code tree} in depth-first order.
+   *
+   * @param tree tree to collect nodes of
+   * @return nodes of the tree
+   */
+  @SuppressWarnings("unchecked")
+  public static Node<Integer>[] nodes(final JTree<Integer> tree) {
+    return tree.stream().toArray(Node[]::new);
+  }
+}
@@ -0,0 +1,47 @@
+package com.nextgen.jtree.jmh;
+
+import java.util.Random;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import com.nextgen.jtree.JTree;
+import com.nextgen.jtree.Node;
+
+/**
+ * Benchmarked tree of parameterized shape and size together with nodes to pick operation targets
+ * from.
+ */
+@State(Scope.Benchmark)
+public class TreeState {
+  @Param({"CHAIN", "FAN_OUT", "BALANCED", "RANDOM"})
+  public TreeShape shape;
+
+  @Param({"1000", "100000", "10000000"})
+  public int size;
+
+  public JTree<Integer> tree;
+  public Node<Integer>[] nodes;
+
+  private final Random random = new Random(7);
+
+  /**
+   * Builds the tree anew before every iteration, so benchmarks growing the tree do not skew later
+   * iterations.
+   */
+  @Setup(Level.Iteration)
+  public void build() {
+    tree = shape.build(size);
+    nodes = TreeShape.nodes(tree);
+  }
+
+  /**
+   * Picks node of the tree uniformly.
+   *
+   * @return picked node
+   */
+  public Node<Integer> pick() {
+    return nodes[random.nextInt(nodes.length)];
+  }
+}
@@ -0,0 +1,186 @@
+package com.nextgen.jtree;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Base of trees kept as {@link CompactTopology}: navigation, removal and validation of node
+ * indices are shared, subclasses add only an array of payload indexed the same way as the
+ * topology and accessors of the payload.
+ */
+abstract class AbstractCompactTree {
+  private static final int ROOT = 0;
+
+  final CompactTopology topology;
+
+  AbstractCompactTree(final CompactTopology topology) {
+    this.topology = topology;
+  }
+
+  /**
+   * Removes node with {@code node} index together with its whole subtree.
+   * 
+   * @param node index of node to remove
+   * @return number of removed nodes
+   * @throws IllegalArgumentException if {@code node} is the root or is not an index of a node of
+   *         the tree
+   */
+  public int removeNode(final int node) {
+    verifyNode(node);
+    if (node == ROOT) {
+      throw new IllegalArgumentException();
+    }
+
+    final int[] released = topology.release(node);
+    clear(released);
+
+    return released.length;
+  }
+
+  /**
+   * Gets number of nodes in the tree.
+   * 
+   * @return number of nodes including the root
+   */
+  public int size() {
+    return topology.size();
+  }
+
+  /**
+   * Identifies whether {@code node} is an index of a node of the tree.
+   * 
+   * @param node node index
+   * @return {@code true} if there is such node, otherwise returns {@code false}
+   */
+  public boolean contains(final int node) {
+    return topology.isLive(node);
+  }
+
+  /**
+   * Gets index of parent of node with {@code node} index.
+   * 
+   * @param node node index
+   * @return parent index or {@code NO_NODE} for the root
+   * @throws IllegalArgumentException if {@code node} is not an index of a node of the tree
+   */
+  public int getParent(final int node) {
+    verifyNode(node);
+
+    return topology.parent(node);
+  }
+
+  /**
+   * Gets index of the first child of node with {@code node} index.
+   * 
+   * @param node node index
+   * @return first child index or {@code NO_NODE} for a leaf
+   * @throws IllegalArgumentException if {@code node} is not an index of a node of the tree
+   */
+  public int getFirstChild(final int node) {
+    verifyNode(node);
+
+    return topology.firstChild(node);
+  }
+
+  /**
+   * Gets index of the next sibling of node with {@code node} index.
+   * 
+   * @param node node index
+   * @return next sibling index or {@code NO_NODE} for the last child
+   * @throws IllegalArgumentException if {@code node} is not an index of a node of the tree
+   */
+  public int getNextSibling(final int node) {
+    verifyNode(node);
+
+    return topology.nextSibling(node);
+  }
+
+  /**
+   * Gets number of all descendants of node with {@code node} index.
+   * 
+   * @param node node index
+   * @return full subtree length
+   * @throws IllegalArgumentException if {@code node} is not an index of a node of the tree
+   */
+  public int getSubtreeLength(final int node) {
+    verifyNode(node);
+
+    return topology.subtreeLength(node);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s: [size: %s]", getClass().getName(), topology.size());
+  }
+
+  /**
+   * Allocates the root.
+   * 
+   * @return index of the root
+   * @throws IllegalStateException if root already initialized
+   */
+  int allocateRoot() {
+    if (topology.size() > 0) {
+      throw new IllegalStateException("Root is already initialized");
+    }
+
+    return topology.allocate(CompactTopology.NO_NODE);
+  }
+
+  /**
+   * Allocates node as a child of node with {@code parent} index.
+   * 
+   * @param parent index of parent node
+   * @return index of allocated node
+   * @throws IllegalArgumentException if {@code parent} is not an index of a node of the tree
+   */
+  int allocate(final int parent) {
+    verifyNode(parent);
+
+    return topology.allocate(parent);
+  }
+
+  /**
+   * Clears payload of released nodes, nothing by default.
+   * 
+   * @param nodes indices of released nodes
+   */
+  void clear(final int[] nodes) {}
+
+  /**
+   * Collects indices of live nodes accepted by {@code matches}.
+   * 
+   * @param matches predicate on node indices
+   * @return indices of accepted nodes in ascending order
+   */
+  int[] scan(final IntPredicate matches) {
+    final int end = topology.end();
+    int[] found = new int[16];
+    int count = 0;
+    for (int i = 0; i < end; i++) {
+      if (topology.isLive(i) && matches.test(i)) {
+        if (count == found.length) {
+          found = Arrays.copyOf(found, count + (count >> 1));
+        }
+        found[count++] = i;
+      }
+    }
+
+    return Arrays.copyOf(found, count);
+  }
+
+  void verifyNode(final int node) {
+    if (!topology.isLive(node)) {
+      throw new IllegalArgumentException();
+    }
+  }
+
+  void verifySearch(final Object filter) {
+    if (filter == null) {
+      throw new IllegalArgumentException();
+    }
+    if (topology.size() == 0) {
+      throw new IllegalStateException("Tree is empty.");
+    }
+  }
+}
@@ -0,0 +1,248 @@
+package com.nextgen.jtree;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index answering ancestry queries on a {@link JTree} in logarithmic time by binary lifting: every
+ * node is indexed with its depth and its ancestors at distances of powers of two. The index is
+ * built once and then kept up to date as a structure changes handler of the tree: added nodes are
+ * indexed from the already indexed parent and removed nodes are dropped, so modification of the
+ * tree costs time proportional to the number of added or removed nodes times logarithm of their
+ * depth and never a rebuild.
+ * 
+ * Queries never block and may run concurrently with modifications of a concurrent tree; they
+ * reflect every modification whose handlers completed before the query started.
+ * 
+ * @param <T> data type to be hold in nodes
+ */
+public final class AncestryIndex<T> implements JTreeStructureChangesEventHandler<T> {
+  private final JTree<T> tree;
+  private final Map<Node<T>, Entry<T>> entries = new ConcurrentHashMap<>();
+
+  /**
+   * Depth of an indexed node with its ancestors at distances of {@code 1, 2, 4, ...} up to the
+   * depth.
+   */
+  private static final class Entry<T> {
+    private final int depth;
+    private final Node<T>[] jumps;
+
+    private Entry(final int depth, final Node<T>[] jumps) {
+      this.depth = depth;
+      this.jumps = jumps;
+    }
+  }
+
+  private AncestryIndex(final JTree<T> tree) {
+    this.tree = tree;
+  }
+
+  /**
+   * Builds index of all nodes of {@code tree} and subscribes it to modifications of the tree.
+   * 
+   * @param tree tree to index
+   * @param <T> data type to be hold in nodes
+   * @return index of {@code tree}
+   * @throws IllegalArgumentException if {@code tree} is {@code null}
+   * @throws IllegalStateException if tree is empty
+   */
+  public static <T> AncestryIndex<T> of(final JTree<T> tree) {
+    if (tree == null) {
+      throw new IllegalArgumentException();
+    }
+
+    final AncestryIndex<T> index = new AncestryIndex<>(tree);
+    synchronized (index) {
+      tree.addStructureChangesHandler(index);
+      index.indexSubtree(tree.getRoot());
+    }
+
+    return index;
+  }
+
+  /**
+   * Unsubscribes index from modifications of the tree, after which index is no longer updated.
+   */
+  public void close() {
+    tree.removeStructureChangesHandler(this);
+  }
+
+  /**
+   * Gets number of edges between {@code node} and the root of the tree.
+   * 
+   * @param node node of the tree
+   * @return depth of the node, {@code 0} for the root
+   * @throws IllegalArgumentException if {@code node} is not a node of the tree
+   */
+  public int depth(final Node<T> node) {
+    return entry(node).depth;
+  }
+
+  /**
+   * Identifies whether {@code ancestor} is a proper ancestor of {@code node}.
+   * 
+   * @param ancestor presumed ancestor
+   * @param node presumed descendant
+   * @return {@code true} if {@code ancestor} lies on the path from {@code node} to the root,
+   *         excluding {@code node} itself, otherwise returns {@code false}
+   * @throws IllegalArgumentException if either node is not a node of the tree
+   */
+  public boolean isAncestor(final Node<T> ancestor, final Node<T> node) {
+    final Entry<T> ancestorEntry = entry(ancestor);
+    final Entry<T> nodeEntry = entry(node);
+    if (ancestorEntry.depth >= nodeEntry.depth) {
+      return false;
+    }
+
+    return lift(node, nodeEntry, nodeEntry.depth - ancestorEntry.depth) == ancestor;
+  }
+
+  /**
+   * Gets ancestor of {@code node} at distance {@code k}.
+   * 
+   * @param node node of the tree
+   * @param k distance to the ancestor, {@code 0} for {@code node} itself
+   * @return ancestor at distance {@code k} or {@code null} if {@code k} exceeds depth of
+   *         {@code node}
+   * @throws IllegalArgumentException if {@code node} is not a node of the tree or {@code k} is
+   *         negative
+   */
+  public Node<T> kthAncestor(final Node<T> node, final int k) {
+    if (k < 0) {
+      throw new IllegalArgumentException();
+    }
+
+    final Entry<T> nodeEntry = entry(node);
+    if (k > nodeEntry.depth) {
+      return null;
+    }
+
+    return lift(node, nodeEntry, k);
+  }
+
+  /**
+   * Gets the deepest node being both {@code a} or its ancestor and {@code b} or its ancestor.
+   * 
+   * @param a node of the tree
+   * @param b node of the tree
+   * @return lowest common ancestor
+   * @throws IllegalArgumentException if either node is not a node of the tree
+   */
+  public Node<T> lowestCommonAncestor(final Node<T> a, final Node<T> b) {
+    Node<T> deeper = a;
+    Node<T> other = b;
+    Entry<T> deeperEntry = entry(a);
+    Entry<T> otherEntry = entry(b);
+    if (deeperEntry.depth < otherEntry.depth) {
+      deeper = b;
+      other = a;
+      final Entry<T> swap = deeperEntry;
+      deeperEntry = otherEntry;
+      otherEntry = swap;
+    }
+
+    deeper = lift(deeper, deeperEntry, deeperEntry.depth - otherEntry.depth);
+    if (deeper == other) {
+      return deeper;
+    }
+
+    // both nodes are at the same depth now, jump as high as they still differ
+    Entry<T> deeperAt = entry(deeper);
+    Entry<T> otherAt = otherEntry;
+    for (int j = deeperAt.jumps.length - 1; j >= 0; j--) {
+      if (j < deeperAt.jumps.length && deeperAt.jumps[j] != otherAt.jumps[j]) {
+        deeper = deeperAt.jumps[j];
+        other = otherAt.jumps[j];
+        deeperAt = entry(deeper);
+        otherAt = entry(other);
+      }
+    }
+
+    return deeperAt.jumps[0];
+  }
+
+  /**
+   * Indexes added nodes or drops removed ones.
+   */
+  @Override
+  public synchronized void handle(final Node<T> changedNode, final Node<T> cause,
+      final TreeStructureChangeEvent event) {
+    if (event == TreeStructureChangeEvent.ADD_NODE) {
+      if (entries.containsKey(changedNode) && cause.getParent() == changedNode) {
+        indexSubtree(cause);
+      }
+    } else if (event == TreeStructureChangeEvent.REMOVE_NODE) {
+      dropSubtree(cause);
+    }
+  }
+
+  private Entry<T> entry(final Node<T> node) {
+    final Entry<T> entry = node == null ? null : entries.get(node);
+    if (entry == null) {
+      throw new IllegalArgumentException();
+    }
+
+    return entry;
+  }
+
+  private Node<T> lift(final Node<T> node, final Entry<T> nodeEntry, final int distance) {
+    Node<T> current = node;
+    Entry<T> currentEntry = nodeEntry;
+    for (int j = 0; distance >> j != 0; j++) {
+      if ((distance >> j & 1) != 0) {
+        current = currentEntry.jumps[j];
+        currentEntry = entry(current);
+      }
+    }
+
+    return current;
+  }
+
+  /**
+   * Indexes {@code top} and all its descendants, parent of {@code top} must already be indexed.
+   */
+  @SuppressWarnings("unchecked")
+  private void indexSubtree(final Node<T> top) {
+    final Deque<Node<T>> pending = new ArrayDeque<>();
+    pending.push(top);
+    while (!pending.isEmpty()) {
+      final Node<T> node = pending.pop();
+      final Node<T> parent = node.getParent();
+
+      final Entry<T> entry;
+      if (parent == null) {
+        entry = new Entry<>(0, new Node[0]);
+      } else {
+        final Entry<T> parentEntry = entries.get(parent);
+        final int depth = parentEntry.depth + 1;
+        final Node<T>[] jumps = new Node[32 - Integer.numberOfLeadingZeros(depth)];
+        jumps[0] = parent;
+        for (int j = 1; j < jumps.length; j++) {
+          jumps[j] = entries.get(jumps[j - 1]).jumps[j - 1];
+        }
+        entry = new Entry<>(depth, jumps);
+      }
+      entries.put(node, entry);
+
+      for (Node<T> child : node.children()) {
+        pending.push(child);
+      }
+    }
+  }
+
+  private void dropSubtree(final Node<T> top) {
+    final Deque<Node<T>> pending = new ArrayDeque<>();
+    pending.push(top);
+    while (!pending.isEmpty()) {
+      final Node<T> node = pending.pop();
+      if (entries.remove(node) != null) {
+        for (Node<T> child : node.children()) {
+          pending.push(child);
+        }
+      }
+    }
+  }
+}
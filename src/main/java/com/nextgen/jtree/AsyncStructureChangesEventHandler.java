@@ -0,0 +1,357 @@
+package com.nextgen.jtree;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * {@link JTreeStructureChangesEventHandler} which takes events off the thread modifying the tree.
+ * Events are put on a bounded queue and delivered to the subscriber on a configurable
+ * {@code Executor}, e.g. a virtual-thread-per-task executor on JDKs providing one.
+ * 
+ * At most one delivery task per handler runs at a time, so the subscriber observes events in the
+ * order they happened regardless of executor used. Events are drained from the queue in batches
+ * of at most {@code maxBatchSize} events and, if coalescing is enabled, adding of a node followed
+ * by its removal within one batch is delivered as no event at all, together with all changes
+ * inside its subtree made meanwhile. Whether a change lay inside such subtree is decided by
+ * ancestry captured when the change is queued, not by where the nodes are at delivery. When the
+ * queue is full the thread modifying the tree blocks
+ * until the subscriber catches up.
+ * 
+ * Subscriber must not modify a tree it is subscribed to through the same handler, since with a
+ * full queue such modification waits for itself.
+ * 
+ * @param <T> data type to be hold in {@code Node}
+ */
+public final class AsyncStructureChangesEventHandler<T>
+    implements JTreeStructureChangesEventHandler<T> {
+  private final Consumer<List<StructureChange<T>>> subscriber;
+  private final Executor executor;
+  private final BlockingQueue<QueuedChange<T>> queue;
+  private final int maxBatchSize;
+  private final boolean coalescing;
+
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+  // latest not yet delivered addition of each node, guarded by itself
+  private final Map<Node<T>, QueuedChange<T>> pendingAdditions = new IdentityHashMap<>();
+
+  /**
+   * Queued change with not yet delivered additions of its nodes and their ancestors at the time
+   * of the change.
+   */
+  private static final class QueuedChange<T> {
+    private final StructureChange<T> change;
+    private final List<QueuedChange<T>> changedNodeAdditions;
+    private final List<QueuedChange<T>> formerParentAdditions;
+    private boolean cancelled;
+
+    private QueuedChange(final StructureChange<T> change,
+        final List<QueuedChange<T>> changedNodeAdditions,
+        final List<QueuedChange<T>> formerParentAdditions) {
+      this.change = change;
+      this.changedNodeAdditions = changedNodeAdditions;
+      this.formerParentAdditions = formerParentAdditions;
+    }
+  }
+
+  private AsyncStructureChangesEventHandler(final Consumer<List<StructureChange<T>>> subscriber,
+      final Executor executor, final int capacity, final int maxBatchSize,
+      final boolean coalescing) {
+    if (subscriber == null || executor == null || capacity <= 0 || maxBatchSize <= 0) {
+      throw new IllegalArgumentException();
+    }
+
+    this.subscriber = subscriber;
+    this.executor = executor;
+    this.queue = new ArrayBlockingQueue<>(capacity);
+    this.maxBatchSize = maxBatchSize;
+    this.coalescing = coalescing;
+  }
+
+  /**
+   * Creates handler delivering every event to {@code handler} on {@code executor}.
+   * 
+   * @param handler handler to deliver events to
+   * @param executor executor to deliver events on
+   * @param capacity maximum number of not yet delivered events
+   * @param <T> data type to be hold in {@code Node}
+   * @return asynchronous handler
+   * @throws IllegalArgumentException if {@code handler} or {@code executor} is {@code null} or
+   *         {@code capacity} is not positive
+   */
+  public static <T> AsyncStructureChangesEventHandler<T> async(
+      final JTreeStructureChangesEventHandler<T> handler, final Executor executor,
+      final int capacity) {
+    return async(handler, executor, capacity, capacity, false);
+  }
+
+  /**
+   * Creates handler delivering events to {@code handler} on {@code executor} optionally
+   * coalescing events which cancel each other. Exception thrown by {@code handler} does not stop
+   * delivery of the rest of the batch; the first one is rethrown to the executor afterwards with
+   * the others suppressed.
+   * 
+   * @param handler handler to deliver events to
+   * @param executor executor to deliver events on
+   * @param capacity maximum number of not yet delivered events
+   * @param maxBatchSize maximum number of events taken from the queue at once
+   * @param coalescing whether adding of a node followed by its removal within one batch must be
+   *        skipped
+   * @param <T> data type to be hold in {@code Node}
+   * @return asynchronous handler
+   * @throws IllegalArgumentException if {@code handler} or {@code executor} is {@code null} or
+   *         {@code capacity} or {@code maxBatchSize} is not positive
+   */
+  public static <T> AsyncStructureChangesEventHandler<T> async(
+      final JTreeStructureChangesEventHandler<T> handler, final Executor executor,
+      final int capacity, final int maxBatchSize, final boolean coalescing) {
+    if (handler == null) {
+      throw new IllegalArgumentException();
+    }
+
+    return new AsyncStructureChangesEventHandler<>(batch -> {
+      RuntimeException failure = null;
+      for (StructureChange<T> c : batch) {
+        try {
+          if (c.getEvent() == TreeStructureChangeEvent.MOVE_NODE) {
+            handler.handleMove(c.getFormerParent(), c.getChangedNode(), c.getCause());
+          } else {
+            handler.handle(c.getChangedNode(), c.getCause(), c.getEvent());
+          }
+        } catch (RuntimeException e) {
+          if (failure == null) {
+            failure = e;
+          } else {
+            failure.addSuppressed(e);
+          }
+        }
+      }
+
+      if (failure != null) {
+        throw failure;
+      }
+    }, executor, capacity, maxBatchSize, coalescing);
+  }
+
+  /**
+   * Creates handler delivering events to {@code subscriber} in batches on {@code executor}.
+   * 
+   * @param subscriber consumer of event batches, batch is never empty
+   * @param executor executor to deliver events on
+   * @param capacity maximum number of not yet delivered events
+   * @param maxBatchSize maximum number of events in a batch
+   * @param coalescing whether adding of a node followed by its removal within one batch must be
+   *        skipped
+   * @param <T> data type to be hold in {@code Node}
+   * @return asynchronous handler
+   * @throws IllegalArgumentException if {@code subscriber} or {@code executor} is {@code null} or
+   *         {@code capacity} or {@code maxBatchSize} is not positive
+   */
+  public static <T> AsyncStructureChangesEventHandler<T> batching(
+      final Consumer<List<StructureChange<T>>> subscriber, final Executor executor,
+      final int capacity, final int maxBatchSize, final boolean coalescing) {
+    return new AsyncStructureChangesEventHandler<>(subscriber, executor, capacity, maxBatchSize,
+        coalescing);
+  }
+
+  /**
+   * Queues event for delivery blocking while the queue is full.
+   * 
+   * @throws IllegalStateException if interrupted while waiting for space in the queue
+   */
+  @Override
+  public void handle(final Node<T> changedNode, final Node<T> cause,
+      final TreeStructureChangeEvent event) {
+    final StructureChange<T> change = new StructureChange<>(changedNode, cause, event);
+    if (!coalescing) {
+      enqueue(new QueuedChange<>(change, Collections.emptyList(), Collections.emptyList()));
+      return;
+    }
+
+    final QueuedChange<T> queued;
+    synchronized (pendingAdditions) {
+      queued = new QueuedChange<>(change, additionsAbove(changedNode), Collections.emptyList());
+      if (event == TreeStructureChangeEvent.ADD_NODE) {
+        pendingAdditions.put(cause, queued);
+      }
+    }
+    enqueue(queued);
+  }
+
+  /**
+   * Queues move as a single event blocking while the queue is full.
+   * 
+   * @throws IllegalStateException if interrupted while waiting for space in the queue
+   */
+  @Override
+  public void handleMove(final Node<T> oldParent, final Node<T> newParent, final Node<T> cause) {
+    final StructureChange<T> change = new StructureChange<>(oldParent, newParent, cause);
+    if (!coalescing) {
+      enqueue(new QueuedChange<>(change, Collections.emptyList(), Collections.emptyList()));
+      return;
+    }
+
+    final QueuedChange<T> queued;
+    synchronized (pendingAdditions) {
+      queued = new QueuedChange<>(change, additionsAbove(newParent), additionsAbove(oldParent));
+    }
+    enqueue(queued);
+  }
+
+  /**
+   * Collects not yet delivered additions of {@code node} and its ancestors, must be called while
+   * holding {@code pendingAdditions}.
+   */
+  private List<QueuedChange<T>> additionsAbove(final Node<T> node) {
+    List<QueuedChange<T>> found = Collections.emptyList();
+    if (pendingAdditions.isEmpty()) {
+      return found;
+    }
+
+    for (Node<T> current = node; current != null; current = current.getParent()) {
+      final QueuedChange<T> added = pendingAdditions.get(current);
+      if (added != null) {
+        if (found.isEmpty()) {
+          found = new ArrayList<>(2);
+        }
+        found.add(added);
+      }
+    }
+
+    return found;
+  }
+
+  private void enqueue(final QueuedChange<T> queued) {
+    try {
+      queue.put(queued);
+    } catch (InterruptedException e) {
+      forget(queued);
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for event queue.", e);
+    }
+
+    schedule();
+  }
+
+  private void forget(final QueuedChange<T> queued) {
+    if (coalescing && queued.change.getEvent() == TreeStructureChangeEvent.ADD_NODE) {
+      synchronized (pendingAdditions) {
+        pendingAdditions.remove(queued.change.getCause(), queued);
+      }
+    }
+  }
+
+  /**
+   * Gets number of events waiting for delivery.
+   * 
+   * @return number of queued events
+   */
+  public int getQueuedEvents() {
+    return queue.size();
+  }
+
+  private void schedule() {
+    if (!scheduled.compareAndSet(false, true)) {
+      return;
+    }
+
+    try {
+      executor.execute(this::deliver);
+    } catch (RejectedExecutionException e) {
+      scheduled.set(false);
+      throw e;
+    }
+  }
+
+  private void deliver() {
+    try {
+      List<QueuedChange<T>> batch = new ArrayList<>(Math.min(maxBatchSize, queue.size()));
+      while (queue.drainTo(batch, maxBatchSize) > 0) {
+        final List<StructureChange<T>> delivered;
+        if (coalescing) {
+          delivered = coalesce(batch);
+          for (QueuedChange<T> queued : batch) {
+            forget(queued);
+          }
+        } else {
+          delivered = new ArrayList<>(batch.size());
+          for (QueuedChange<T> queued : batch) {
+            delivered.add(queued.change);
+          }
+        }
+        if (!delivered.isEmpty()) {
+          subscriber.accept(delivered);
+        }
+        batch = new ArrayList<>(Math.min(maxBatchSize, queue.size()));
+      }
+    } finally {
+      scheduled.set(false);
+      if (!queue.isEmpty()) {
+        schedule();
+      }
+    }
+  }
+
+  private static <T> List<StructureChange<T>> coalesce(final List<QueuedChange<T>> batch) {
+    final Map<Node<T>, QueuedChange<T>> added = new IdentityHashMap<>();
+
+    int remaining = batch.size();
+    for (QueuedChange<T> queued : batch) {
+      final StructureChange<T> change = queued.change;
+      if (change.getEvent() == TreeStructureChangeEvent.ADD_NODE) {
+        added.put(change.getCause(), queued);
+      } else if (change.getEvent() == TreeStructureChangeEvent.REMOVE_NODE) {
+        final QueuedChange<T> addition = added.remove(change.getCause());
+        if (addition != null && addition.change.getChangedNode() == change.getChangedNode()) {
+          addition.cancelled = true;
+          queued.cancelled = true;
+          remaining -= 2;
+        }
+      } else {
+        // moves in between must still follow the addition, so it is not cancelled any more
+        added.remove(change.getCause());
+      }
+    }
+
+    // changes inside a cancelled branch made while it was attached concern nodes the subscriber
+    // is never told of
+    final List<StructureChange<T>> coalesced = new ArrayList<>(remaining);
+    for (QueuedChange<T> queued : batch) {
+      final StructureChange<T> change = queued.change;
+      if (queued.cancelled || isInsideCancelled(queued.changedNodeAdditions)) {
+        continue;
+      }
+
+      if (isInsideCancelled(queued.formerParentAdditions)) {
+        coalesced.add(new StructureChange<>(change.getChangedNode(), change.getCause(),
+            TreeStructureChangeEvent.ADD_NODE));
+      } else {
+        coalesced.add(change);
+      }
+    }
+
+    return coalesced;
+  }
+
+  /**
+   * Identifies whether any of additions a node was under at the time of its change is cancelled,
+   * the matching removal then follows the change since the addition was the latest one.
+   */
+  private static <T> boolean isInsideCancelled(final List<QueuedChange<T>> additions) {
+    for (QueuedChange<T> addition : additions) {
+      if (addition.cancelled) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+}
@@ -0,0 +1,195 @@
+package com.nextgen.jtree;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+
+/**
+ * Secondary index of a {@link JTree} mapping keys extracted from data to {@link Node}s holding the
+ * data, so nodes with a given key are looked up in constant time instead of scanning the whole
+ * tree. Sorted index additionally answers range lookups in logarithmic time.
+ * 
+ * Index is created by {@link JTree#createIndex(String, Function)} or
+ * {@link JTree#createSortedIndex(String, Function, Comparator)} and then kept up to date as a
+ * structure changes handler of the tree: added nodes are indexed and removed nodes are dropped.
+ * Nodes with {@code null} key are not indexed. Lookups never block and may run concurrently with
+ * modifications of a concurrent tree; they reflect every modification whose handlers completed
+ * before the lookup started.
+ * 
+ * @param <T> data type to be hold in nodes
+ * @param <K> key type
+ */
+public final class AttributeIndex<T, K> implements JTreeStructureChangesEventHandler<T> {
+  private final String name;
+  private final Function<T, K> keyExtractor;
+  private final Map<K, Set<Node<T>>> entries;
+  private final NavigableMap<K, Set<Node<T>>> sortedEntries;
+
+  private AttributeIndex(final String name, final Function<T, K> keyExtractor,
+      final NavigableMap<K, Set<Node<T>>> sortedEntries) {
+    this.name = name;
+    this.keyExtractor = keyExtractor;
+    this.sortedEntries = sortedEntries;
+    this.entries = sortedEntries == null ? new ConcurrentHashMap<>() : sortedEntries;
+  }
+
+  /**
+   * Creates hash index of all nodes under {@code root}.
+   */
+  static <T, K> AttributeIndex<T, K> hashIndex(final String name,
+      final Function<T, K> keyExtractor, final Node<T> root) {
+    final AttributeIndex<T, K> index = new AttributeIndex<>(name, keyExtractor, null);
+    index.subscribe(root);
+
+    return index;
+  }
+
+  /**
+   * Creates sorted index of all nodes under {@code root}, keys are ordered by {@code comparator}
+   * or naturally if it is {@code null}.
+   */
+  static <T, K> AttributeIndex<T, K> sortedIndex(final String name,
+      final Function<T, K> keyExtractor, final Comparator<? super K> comparator,
+      final Node<T> root) {
+    final AttributeIndex<T, K> index =
+        new AttributeIndex<>(name, keyExtractor, new ConcurrentSkipListMap<>(comparator));
+    index.subscribe(root);
+
+    return index;
+  }
+
+  /**
+   * Gets name the index is registered with in its tree.
+   * 
+   * @return name of the index
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Identifies whether index supports range lookups.
+   * 
+   * @return {@code true} if index is sorted, otherwise returns {@code false}
+   */
+  public boolean isSorted() {
+    return sortedEntries != null;
+  }
+
+  /**
+   * Gets nodes with data mapped to {@code key}.
+   * 
+   * @param key key to look up
+   * @return unmodifiable {@code Set} of found nodes if any
+   * @throws IllegalArgumentException if {@code key} is {@code null}
+   */
+  public Set<Node<T>> get(final K key) {
+    if (key == null) {
+      throw new IllegalArgumentException();
+    }
+
+    final Set<Node<T>> nodes = entries.get(key);
+    return nodes == null ? Collections.emptySet() : Collections.unmodifiableSet(nodes);
+  }
+
+  /**
+   * Gets nodes with data mapped to keys between {@code from} and {@code to}.
+   * 
+   * @param from low end of keys
+   * @param fromInclusive {@code true} if the low end is included
+   * @param to high end of keys
+   * @param toInclusive {@code true} if the high end is included
+   * @return found nodes if any
+   * @throws IllegalArgumentException if {@code from} or {@code to} is {@code null} or
+   *         {@code from} is greater than {@code to}
+   * @throws IllegalStateException if index is not sorted
+   */
+  public Set<Node<T>> range(final K from, final boolean fromInclusive, final K to,
+      final boolean toInclusive) {
+    if (from == null || to == null) {
+      throw new IllegalArgumentException();
+    }
+    if (sortedEntries == null) {
+      throw new IllegalStateException("Index is not sorted.");
+    }
+
+    final Set<Node<T>> found = new HashSet<>();
+    for (Set<Node<T>> nodes : sortedEntries.subMap(from, fromInclusive, to, toInclusive)
+        .values()) {
+      found.addAll(nodes);
+    }
+
+    return found;
+  }
+
+  /**
+   * Indexes added nodes or drops removed ones.
+   */
+  @Override
+  public synchronized void handle(final Node<T> changedNode, final Node<T> cause,
+      final TreeStructureChangeEvent event) {
+    if (event == TreeStructureChangeEvent.ADD_NODE) {
+      if (cause.getParent() == changedNode) {
+        indexSubtree(cause);
+      }
+    } else if (event == TreeStructureChangeEvent.REMOVE_NODE) {
+      dropSubtree(cause);
+    }
+  }
+
+  /**
+   * Keeps entries of moved nodes, their keys do not depend on position in the tree.
+   */
+  @Override
+  public void handleMove(final Node<T> oldParent, final Node<T> newParent, final Node<T> cause) {
+    // moved nodes stay in the tree under the same keys
+  }
+
+  private synchronized void subscribe(final Node<T> root) {
+    root.addStructureChangesHandler(this, true);
+    indexSubtree(root);
+  }
+
+  private void indexSubtree(final Node<T> top) {
+    final Deque<Node<T>> pending = new ArrayDeque<>();
+    pending.push(top);
+    while (!pending.isEmpty()) {
+      final Node<T> node = pending.pop();
+      final K key = keyExtractor.apply(node.getData());
+      if (key != null) {
+        entries.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(node);
+      }
+
+      for (Node<T> child : node.children()) {
+        pending.push(child);
+      }
+    }
+  }
+
+  private void dropSubtree(final Node<T> top) {
+    final Deque<Node<T>> pending = new ArrayDeque<>();
+    pending.push(top);
+    while (!pending.isEmpty()) {
+      final Node<T> node = pending.pop();
+      final K key = keyExtractor.apply(node.getData());
+      if (key != null) {
+        entries.computeIfPresent(key, (k, nodes) -> {
+          nodes.remove(node);
+          return nodes.isEmpty() ? null : nodes;
+        });
+      }
+
+      for (Node<T> child : node.children()) {
+        pending.push(child);
+      }
+    }
+  }
+}
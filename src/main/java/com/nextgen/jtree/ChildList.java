@@ -0,0 +1,283 @@
+package com.nextgen.jtree;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Child container of {@link Node} keeping children in insertion order. Children are appended to
+ * an array and every child remembers its slot in it, so removal of a known child only clears its
+ * slot and takes constant time. Cleared slots are squeezed out once they outnumber children, which
+ * keeps both memory and amortized removal cost linear in the number of children.
+ * 
+ * Positional access to an array with cleared slots builds a binary indexed tree counting present
+ * children, so it takes logarithmic time. The counts are kept up to date until the next
+ * compaction, which makes every modification made meanwhile logarithmic as well.
+ * 
+ * Container of a concurrent node serializes modifications on itself. Compaction and growth always
+ * publish a new array, so iteration works on the array and bounds seen at its start and is weakly
+ * consistent: it never fails and reflects modifications completed before it started. Membership
+ * checks pair a child's slot with the array, so they are serialized as well.
+ *
+ * @param <T> data type to be hold in nodes
+ */
+final class ChildList<T> extends AbstractSet<Node<T>> {
+  private static final int MIN_TOMBSTONES_TO_COMPACT = 16;
+
+  private final boolean concurrent;
+
+  private volatile Node<T>[] slots;
+  private volatile int end;
+  private volatile int size;
+  private int tombstones;
+
+  // binary indexed tree of present children per slot, 1-based, null until positional access
+  private int[] counts;
+
+  @SuppressWarnings("unchecked")
+  ChildList(final boolean concurrent, final int expectedChildren) {
+    this.concurrent = concurrent;
+    this.slots = new Node[Math.max(4, expectedChildren)];
+  }
+
+  @Override
+  public boolean add(final Node<T> child) {
+    return concurrent ? appendConcurrently(child) : append(child);
+  }
+
+  @Override
+  public boolean remove(final Object child) {
+    if (!(child instanceof Node)) {
+      return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    final Node<T> node = (Node<T>) child;
+    return concurrent ? clearConcurrently(node) : clear(node);
+  }
+
+  @Override
+  public boolean contains(final Object child) {
+    if (!(child instanceof Node)) {
+      return false;
+    }
+
+    final Node<?> node = (Node<?>) child;
+    return concurrent ? containsConcurrently(node) : containsChild(node);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Iterator<Node<T>> iterator() {
+    // end first: array published later holds no children beyond it
+    final int last = end;
+    final Node<T>[] current = slots;
+    final int bound = Math.min(last, current.length);
+
+    return new Iterator<Node<T>>() {
+      private int next = advance(0);
+
+      @Override
+      public boolean hasNext() {
+        return next < bound;
+      }
+
+      @Override
+      public Node<T> next() {
+        if (next >= bound) {
+          throw new NoSuchElementException();
+        }
+
+        final Node<T> node = current[next];
+        next = advance(next + 1);
+
+        return node;
+      }
+
+      private int advance(final int from) {
+        int i = from;
+        while (i < bound && current[i] == null) {
+          i++;
+        }
+
+        return i;
+      }
+    };
+  }
+
+  /**
+   * Gets child at {@code index} in insertion order.
+   * 
+   * @param index position of child among present children
+   * @return child node
+   * @throws IndexOutOfBoundsException if there is no child at {@code index}
+   */
+  Node<T> get(final int index) {
+    return concurrent ? getConcurrently(index) : getChild(index);
+  }
+
+  /**
+   * Gets position of {@code child} in insertion order.
+   * 
+   * @param child child node
+   * @return position of child among present children or {@code -1} if it is not a child
+   */
+  int indexOf(final Node<T> child) {
+    return concurrent ? indexOfConcurrently(child) : indexOfChild(child);
+  }
+
+  private boolean append(final Node<T> child) {
+    if (end == slots.length) {
+      rebuild(tombstones > slots.length >> 1 ? slots.length : slots.length + (slots.length >> 1));
+    }
+
+    child.slot = end;
+    slots[end] = child;
+    if (counts != null) {
+      count(end, 1);
+    }
+    end++;
+    size++;
+
+    return true;
+  }
+
+  private synchronized boolean appendConcurrently(final Node<T> child) {
+    return append(child);
+  }
+
+  private boolean containsChild(final Node<?> child) {
+    final int slot = child.slot;
+    return slot < end && slots[slot] == child;
+  }
+
+  // compaction renumbers slots before it publishes the array, so slot and array are read together
+  private synchronized boolean containsConcurrently(final Node<?> child) {
+    return containsChild(child);
+  }
+
+  private boolean clear(final Node<T> child) {
+    final int slot = child.slot;
+    if (slot >= end || slots[slot] != child) {
+      return false;
+    }
+
+    slots[slot] = null;
+    if (counts != null) {
+      count(slot, -1);
+    }
+    size--;
+    tombstones++;
+    if (tombstones >= MIN_TOMBSTONES_TO_COMPACT && tombstones > size) {
+      rebuild(slots.length);
+    }
+
+    return true;
+  }
+
+  private synchronized boolean clearConcurrently(final Node<T> child) {
+    return clear(child);
+  }
+
+  private Node<T> getChild(final int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException(String.valueOf(index));
+    }
+    if (tombstones == 0) {
+      return slots[index];
+    }
+    if (counts == null) {
+      countAll();
+    }
+
+    // descend the tree to the slot preceded by exactly index present children
+    int slot = 0;
+    int remaining = index + 1;
+    for (int step = Integer.highestOneBit(slots.length); step > 0; step >>= 1) {
+      if (slot + step <= slots.length && counts[slot + step] < remaining) {
+        slot += step;
+        remaining -= counts[slot];
+      }
+    }
+
+    return slots[slot];
+  }
+
+  private synchronized Node<T> getConcurrently(final int index) {
+    return getChild(index);
+  }
+
+  private int indexOfChild(final Node<T> child) {
+    if (!containsChild(child)) {
+      return -1;
+    }
+    if (tombstones == 0) {
+      return child.slot;
+    }
+    if (counts == null) {
+      countAll();
+    }
+
+    int index = 0;
+    for (int i = child.slot; i > 0; i -= i & -i) {
+      index += counts[i];
+    }
+
+    return index;
+  }
+
+  private synchronized int indexOfConcurrently(final Node<T> child) {
+    return indexOfChild(child);
+  }
+
+  /**
+   * Builds binary indexed tree of present children in linear time.
+   */
+  private void countAll() {
+    final int[] built = new int[slots.length + 1];
+    for (int i = 1; i <= slots.length; i++) {
+      if (i <= end && slots[i - 1] != null) {
+        built[i]++;
+      }
+      final int parent = i + (i & -i);
+      if (parent <= slots.length) {
+        built[parent] += built[i];
+      }
+    }
+
+    counts = built;
+  }
+
+  private void count(final int slot, final int delta) {
+    for (int i = slot + 1; i <= slots.length; i += i & -i) {
+      counts[i] += delta;
+    }
+  }
+
+  /**
+   * Moves present children to the front of a new array of {@code capacity} slots.
+   */
+  @SuppressWarnings("unchecked")
+  private void rebuild(final int capacity) {
+    final Node<T>[] current = slots;
+    final Node<T>[] rebuilt = new Node[Math.max(capacity, size + 1)];
+
+    int count = 0;
+    for (int i = 0; i < end; i++) {
+      final Node<T> child = current[i];
+      if (child != null) {
+        child.slot = count;
+        rebuilt[count++] = child;
+      }
+    }
+
+    slots = rebuilt;
+    end = count;
+    tombstones = 0;
+    counts = null;
+  }
+}
@@ -0,0 +1,314 @@
+package com.nextgen.jtree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+
+/**
+ * Represents tree container for very large trees of data of arbitrary type {@code T}. Unlike
+ * {@link JTree}, nodes are not objects: a node is an {@code int} index and the tree is kept in
+ * parallel arrays of parent, first child, next sibling and subtree length indices plus an array of
+ * data, which takes about twenty bytes per node on top of the data itself. Searches scan the data
+ * array front to back instead of chasing pointers.
+ * 
+ * {@code CompactJTree} is not safe for concurrent modification. Index of a removed node may be
+ * reused by nodes added later.
+ * 
+ * @param <T> data type to be hold in nodes
+ */
+public final class CompactJTree<T> extends AbstractCompactTree
+    implements TreeSearcheable<T, CompactNode<T>> {
+  /**
+   * Index standing for absence of a node.
+   */
+  public static final int NO_NODE = CompactTopology.NO_NODE;
+
+  /**
+   * Index of the tree root.
+   */
+  public static final int ROOT = 0;
+
+  private Object[] data;
+
+  private CompactJTree(final int expectedSize) {
+    this(new CompactTopology(expectedSize));
+  }
+
+  private CompactJTree(final CompactTopology topology) {
+    super(topology);
+    data = new Object[topology.capacity()];
+  }
+
+  /**
+   * Creates empty {@code CompactJTree} without root initialized.
+   * 
+   * @param <T> data type to be hold in tree
+   * @return {@code CompactJTree} tree
+   */
+  public static <T> CompactJTree<T> emptyTree() {
+    return new CompactJTree<>(16);
+  }
+
+  /**
+   * Creates {@code CompactJTree} with root already populated with {@code data} and room for
+   * {@code expectedSize} nodes including root.
+   * 
+   * @param data data to be hold in tree root
+   * @param expectedSize expected number of nodes
+   * @param <T> data type to be hold in tree
+   * @return {@code CompactJTree} with root
+   * @throws IllegalArgumentException if {@code data} is null or {@code expectedSize} is negative
+   */
+  public static <T> CompactJTree<T> treeWithRoot(final T data, final int expectedSize) {
+    if (data == null || expectedSize < 0) {
+      throw new IllegalArgumentException();
+    }
+
+    final CompactJTree<T> tree = new CompactJTree<>(expectedSize);
+    tree.addRoot(data);
+
+    return tree;
+  }
+
+  /**
+   * Creates {@code CompactJTree} holding the same data as {@code tree} at the moment of the call.
+   * Order of children in created tree is the iteration order of children in {@code tree}, node
+   * indices follow breadth-first order of {@code tree}.
+   * 
+   * @param tree tree to copy
+   * @param <T> data type to be hold in tree
+   * @return {@code CompactJTree} holding data of {@code tree}
+   * @throws IllegalArgumentException if {@code tree} is null
+   */
+  public static <T> CompactJTree<T> copyOf(final JTree<T> tree) {
+    if (tree == null) {
+      throw new IllegalArgumentException();
+    }
+
+    final Node<T> root = tree.getRoot();
+    if (root == null) {
+      return emptyTree();
+    }
+
+    // nodes in breadth-first order with indices of their parents, parents precede their children;
+    // children of every node are read once, so copied structure is consistent even if the tree
+    // is modified concurrently
+    final List<Node<T>> nodes = new ArrayList<>(1 + root.getSubtreeLength());
+    int[] parents = new int[1 + root.getSubtreeLength()];
+    nodes.add(root);
+    parents[0] = NO_NODE;
+    for (int i = 0; i < nodes.size(); i++) {
+      for (Node<T> child : nodes.get(i).children()) {
+        if (nodes.size() == parents.length) {
+          parents = Arrays.copyOf(parents, parents.length * 2);
+        }
+        parents[nodes.size()] = i;
+        nodes.add(child);
+      }
+    }
+
+    final CompactJTree<T> copy = new CompactJTree<>(CompactTopology.of(parents, nodes.size()));
+    for (int i = 0; i < nodes.size(); i++) {
+      copy.data[i] = nodes.get(i).getData();
+    }
+
+    return copy;
+  }
+
+  /**
+   * Adds root to {@code CompactJTree} populating it with specified {@code data}.
+   * 
+   * @param data data to be hold in tree root
+   * @return {@link #ROOT}
+   * @throws IllegalArgumentException if {@code data} is null
+   * @throws IllegalStateException if root already initialized
+   */
+  public int addRoot(final T data) {
+    if (data == null) {
+      throw new IllegalArgumentException();
+    }
+
+    return store(allocateRoot(), data);
+  }
+
+  /**
+   * Adds node populated with {@code data} as a child of node with {@code parent} index.
+   * 
+   * @param parent index of parent node
+   * @param data data to be hold in added node
+   * @return index of added node
+   * @throws IllegalArgumentException if {@code data} is null or {@code parent} is not an index of
+   *         a node of the tree
+   */
+  public int addNode(final int parent, final T data) {
+    if (data == null) {
+      throw new IllegalArgumentException();
+    }
+
+    return store(allocate(parent), data);
+  }
+
+  /**
+   * Gets data hold in node with {@code node} index.
+   * 
+   * @param node node index
+   * @return data of the node
+   * @throws IllegalArgumentException if {@code node} is not an index of a node of the tree
+   */
+  @SuppressWarnings("unchecked")
+  public T getData(final int node) {
+    verifyNode(node);
+
+    return (T) data[node];
+  }
+
+  /**
+   * Gets {@link CompactNode} view of node with {@code node} index.
+   * 
+   * @param node node index
+   * @return view of the node
+   * @throws IllegalArgumentException if {@code node} is not an index of a node of the tree
+   */
+  public CompactNode<T> getNode(final int node) {
+    verifyNode(node);
+
+    return new CompactNode<>(this, node);
+  }
+
+  @Override
+  public Set<T> findData(final Predicate<T> filter) {
+    verifySearch(filter);
+
+    final Set<T> result = new HashSet<>();
+    scanData(filter, 0, topology.end(), result);
+
+    return result;
+  }
+
+  @Override
+  public Set<CompactNode<T>> findNodes(final Predicate<T> filter) {
+    verifySearch(filter);
+
+    final Set<CompactNode<T>> result = new HashSet<>();
+    scanNodes(filter, 0, topology.end(), result);
+
+    return result;
+  }
+
+  /**
+   * @throws IllegalArgumentException if {@code pool} is {@code null}
+   */
+  @Override
+  public Set<T> findDataParallel(final Predicate<T> filter, final ForkJoinPool pool) {
+    if (pool == null) {
+      throw new IllegalArgumentException();
+    }
+    verifySearch(filter);
+
+    return pool.invoke(new RangeSearch<T, Set<T>>((from, to, collector) -> scanData(filter, from,
+        to, collector), HashSet::new, 0, topology.end()));
+  }
+
+  /**
+   * @throws IllegalArgumentException if {@code pool} is {@code null}
+   */
+  @Override
+  public Set<CompactNode<T>> findNodesParallel(final Predicate<T> filter,
+      final ForkJoinPool pool) {
+    if (pool == null) {
+      throw new IllegalArgumentException();
+    }
+    verifySearch(filter);
+
+    return pool.invoke(new RangeSearch<CompactNode<T>, Set<CompactNode<T>>>(
+        (from, to, collector) -> scanNodes(filter, from, to, collector), HashSet::new, 0,
+        topology.end()));
+  }
+
+  /**
+   * @throws IllegalArgumentException if {@code comparator} is {@code null} or {@code k} is
+   *         negative
+   */
+  @Override
+  public List<T> findTopK(final Predicate<T> filter, final Comparator<? super T> comparator,
+      final int k) {
+    verifyTopK(comparator, k);
+    verifySearch(filter);
+
+    final TopK<T> result = new TopK<>(comparator, k);
+    scanData(filter, 0, topology.end(), result);
+
+    return result.toList();
+  }
+
+  /**
+   * @throws IllegalArgumentException if {@code comparator} or {@code pool} is {@code null} or
+   *         {@code k} is negative
+   */
+  @Override
+  public List<T> findTopKParallel(final Predicate<T> filter,
+      final Comparator<? super T> comparator, final int k, final ForkJoinPool pool) {
+    if (pool == null) {
+      throw new IllegalArgumentException();
+    }
+    verifyTopK(comparator, k);
+    verifySearch(filter);
+
+    return pool.invoke(new RangeSearch<T, TopK<T>>(
+        (from, to, collector) -> scanData(filter, from, to, collector),
+        () -> new TopK<>(comparator, k), 0, topology.end())).toList();
+  }
+
+  @Override
+  void clear(final int[] nodes) {
+    for (int index : nodes) {
+      data[index] = null;
+    }
+  }
+
+  private int store(final int node, final T value) {
+    if (data.length < topology.capacity()) {
+      data = Arrays.copyOf(data, topology.capacity());
+    }
+    data[node] = value;
+
+    return node;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void scanData(final Predicate<T> filter, final int from, final int to,
+      final Collection<? super T> collector) {
+    final Object[] values = data;
+    for (int i = from; i < to; i++) {
+      // slots of removed nodes hold null, so no topology lookup is needed while scanning
+      final T value = (T) values[i];
+      if (value != null && filter.test(value)) {
+        collector.add(value);
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void scanNodes(final Predicate<T> filter, final int from, final int to,
+      final Collection<? super CompactNode<T>> collector) {
+    final Object[] values = data;
+    for (int i = from; i < to; i++) {
+      final T value = (T) values[i];
+      if (value != null && filter.test(value)) {
+        collector.add(new CompactNode<>(this, i));
+      }
+    }
+  }
+
+  private void verifyTopK(final Comparator<?> comparator, final int k) {
+    if (comparator == null || k < 0) {
+      throw new IllegalArgumentException();
+    }
+  }
+}
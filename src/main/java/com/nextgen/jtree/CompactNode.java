@@ -0,0 +1,63 @@
+package com.nextgen.jtree;
+
+/**
+ * Represents lightweight view of a node of {@link CompactJTree}. View holds nothing but the tree
+ * and index of the node, it is created on demand and reads the tree on every call. Views are equal
+ * if they point at the same index of the same tree.
+ * 
+ * View of removed node is stale: its methods throw {@code IllegalArgumentException}, or describe
+ * another node if the index has been reused since.
+ * 
+ * @param <T> data type to be hold in node
+ */
+public final class CompactNode<T> implements TreeNode<T> {
+  private final CompactJTree<T> tree;
+  private final int index;
+
+  CompactNode(final CompactJTree<T> tree, final int index) {
+    this.tree = tree;
+    this.index = index;
+  }
+
+  /**
+   * Gets index of the node in its tree.
+   * 
+   * @return node index
+   */
+  public int getIndex() {
+    return index;
+  }
+
+  @Override
+  public T getData() {
+    return tree.getData(index);
+  }
+
+  @Override
+  public int getSubtreeLength() {
+    return tree.getSubtreeLength(index);
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof CompactNode)) {
+      return false;
+    }
+
+    final CompactNode<?> other = (CompactNode<?>) obj;
+    return tree == other.tree && index == other.index;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * System.identityHashCode(tree) + index;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s: [index: %s]", getClass().getName(), index);
+  }
+}
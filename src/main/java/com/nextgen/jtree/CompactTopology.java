@@ -0,0 +1,212 @@
+package com.nextgen.jtree;
+
+import java.util.Arrays;
+
+/**
+ * Shape of an array-backed tree kept as struct-of-arrays: node is an index and its parent, first
+ * child, next sibling and subtree length are elements of parallel {@code int} arrays, so a node
+ * costs sixteen bytes of topology regardless of payload. Payload is kept by the owning tree in an
+ * array of its choice indexed the same way, the owner grows it to {@link #capacity()} after every
+ * allocation.
+ * 
+ * Slots of removed nodes are marked with negative subtree length and chained through their next
+ * sibling element into a free list reused by subsequent allocations. The first allocated node gets
+ * index {@code 0}; owners never release their root, so it stays at that index.
+ */
+final class CompactTopology {
+  /**
+   * Index standing for absence of a node.
+   */
+  static final int NO_NODE = -1;
+
+  private static final int FREE = -1;
+
+  private int[] parents;
+  private int[] firstChildren;
+  private int[] nextSiblings;
+  private int[] subtreeLengths;
+
+  private int end;
+  private int size;
+  private int freeHead = NO_NODE;
+
+  CompactTopology(final int expectedSize) {
+    final int capacity = Math.max(1, expectedSize);
+    parents = new int[capacity];
+    firstChildren = new int[capacity];
+    nextSiblings = new int[capacity];
+    subtreeLengths = new int[capacity];
+  }
+
+  /**
+   * Creates topology of a whole tree at once in linear time: node {@code i} gets index {@code i}
+   * and becomes the last child of {@code parents[i]} so far. Node {@code 0} is the root, every
+   * other parent must precede its children.
+   * 
+   * @param parents parent index of every node, {@link #NO_NODE} for the root
+   * @param size number of nodes
+   * @return created topology
+   */
+  static CompactTopology of(final int[] parents, final int size) {
+    final CompactTopology topology = new CompactTopology(size);
+    System.arraycopy(parents, 0, topology.parents, 0, size);
+    Arrays.fill(topology.firstChildren, 0, size, NO_NODE);
+    topology.nextSiblings[0] = NO_NODE;
+
+    // last to first: children are prepended in reverse order and descendants are accounted
+    // before their ancestors
+    for (int node = size - 1; node > 0; node--) {
+      final int parent = parents[node];
+      topology.nextSiblings[node] = topology.firstChildren[parent];
+      topology.firstChildren[parent] = node;
+      topology.subtreeLengths[parent] += 1 + topology.subtreeLengths[node];
+    }
+    topology.end = size;
+    topology.size = size;
+
+    return topology;
+  }
+
+  /**
+   * Gets number of live nodes.
+   * 
+   * @return number of live nodes
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Gets upper bound (exclusive) of indices ever allocated, every live node has smaller index.
+   * 
+   * @return index high-water mark
+   */
+  int end() {
+    return end;
+  }
+
+  /**
+   * Gets number of slots payload arrays must provide.
+   * 
+   * @return slots count
+   */
+  int capacity() {
+    return parents.length;
+  }
+
+  /**
+   * Identifies whether {@code node} is an index of a live node.
+   * 
+   * @param node node index
+   * @return {@code true} if node is live, otherwise returns {@code false}
+   */
+  boolean isLive(final int node) {
+    return node >= 0 && node < end && subtreeLengths[node] != FREE;
+  }
+
+  int parent(final int node) {
+    return parents[node];
+  }
+
+  int firstChild(final int node) {
+    return firstChildren[node];
+  }
+
+  int nextSibling(final int node) {
+    return nextSiblings[node];
+  }
+
+  int subtreeLength(final int node) {
+    return subtreeLengths[node];
+  }
+
+  /**
+   * Allocates node as the first child of {@code parent} or as the root if {@code parent} is
+   * {@link #NO_NODE}, and accounts it in subtree lengths of all ancestors.
+   * 
+   * @param parent index of live parent node or {@link #NO_NODE}
+   * @return index of allocated node
+   */
+  int allocate(final int parent) {
+    final int node;
+    if (freeHead != NO_NODE) {
+      node = freeHead;
+      freeHead = nextSiblings[node];
+    } else {
+      if (end == parents.length) {
+        grow();
+      }
+      node = end++;
+    }
+
+    parents[node] = parent;
+    firstChildren[node] = NO_NODE;
+    subtreeLengths[node] = 0;
+    if (parent == NO_NODE) {
+      nextSiblings[node] = NO_NODE;
+    } else {
+      nextSiblings[node] = firstChildren[parent];
+      firstChildren[parent] = node;
+      for (int a = parent; a != NO_NODE; a = parents[a]) {
+        subtreeLengths[a]++;
+      }
+    }
+    size++;
+
+    return node;
+  }
+
+  /**
+   * Releases {@code node} with its whole subtree and updates subtree lengths of all ancestors.
+   * 
+   * @param node index of live node
+   * @return indices of released nodes, {@code node} first
+   */
+  int[] release(final int node) {
+    final int parent = parents[node];
+    final int released = 1 + subtreeLengths[node];
+
+    if (parent != NO_NODE) {
+      if (firstChildren[parent] == node) {
+        firstChildren[parent] = nextSiblings[node];
+      } else {
+        int sibling = firstChildren[parent];
+        while (nextSiblings[sibling] != node) {
+          sibling = nextSiblings[sibling];
+        }
+        nextSiblings[sibling] = nextSiblings[node];
+      }
+      for (int a = parent; a != NO_NODE; a = parents[a]) {
+        subtreeLengths[a] -= released;
+      }
+    }
+
+    // released nodes double as the work queue: children are appended behind their parent
+    final int[] nodes = new int[released];
+    nodes[0] = node;
+    int tail = 1;
+    for (int head = 0; head < released; head++) {
+      final int current = nodes[head];
+      for (int c = firstChildren[current]; c != NO_NODE; c = nextSiblings[c]) {
+        nodes[tail++] = c;
+      }
+
+      subtreeLengths[current] = FREE;
+      parents[current] = NO_NODE;
+      firstChildren[current] = NO_NODE;
+      nextSiblings[current] = freeHead;
+      freeHead = current;
+    }
+    size -= released;
+
+    return nodes;
+  }
+
+  private void grow() {
+    final int capacity = parents.length + (parents.length >> 1) + 1;
+    parents = Arrays.copyOf(parents, capacity);
+    firstChildren = Arrays.copyOf(firstChildren, capacity);
+    nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+    subtreeLengths = Arrays.copyOf(subtreeLengths, capacity);
+  }
+}
@@ -0,0 +1,147 @@
+package com.nextgen.jtree;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Represents tree container specialized for {@code int} data. Stored the same way as
+ * {@link CompactJTree}, but data is kept in an {@code int} array, so a node takes twenty bytes in
+ * total, and searches take {@code IntPredicate} and return primitive arrays, so no value is ever
+ * boxed.
+ * 
+ * {@code IntJTree} is not safe for concurrent modification. Index of a removed node may be reused
+ * by nodes added later.
+ */
+public final class IntJTree extends AbstractCompactTree {
+  /**
+   * Index standing for absence of a node.
+   */
+  public static final int NO_NODE = CompactTopology.NO_NODE;
+
+  /**
+   * Index of the tree root.
+   */
+  public static final int ROOT = 0;
+
+  private int[] data;
+
+  private IntJTree(final int expectedSize) {
+    super(new CompactTopology(expectedSize));
+    data = new int[topology.capacity()];
+  }
+
+  /**
+   * Creates empty {@code IntJTree} without root initialized.
+   * 
+   * @return {@code IntJTree} tree
+   */
+  public static IntJTree emptyTree() {
+    return new IntJTree(16);
+  }
+
+  /**
+   * Creates {@code IntJTree} with root already populated with {@code data} and room for
+   * {@code expectedSize} nodes including root.
+   * 
+   * @param data data to be hold in tree root
+   * @param expectedSize expected number of nodes
+   * @return {@code IntJTree} with root
+   * @throws IllegalArgumentException if {@code expectedSize} is negative
+   */
+  public static IntJTree treeWithRoot(final int data, final int expectedSize) {
+    if (expectedSize < 0) {
+      throw new IllegalArgumentException();
+    }
+
+    final IntJTree tree = new IntJTree(expectedSize);
+    tree.addRoot(data);
+
+    return tree;
+  }
+
+  /**
+   * Adds root to {@code IntJTree} populating it with specified {@code data}.
+   * 
+   * @param data data to be hold in tree root
+   * @return {@link #ROOT}
+   * @throws IllegalStateException if root already initialized
+   */
+  public int addRoot(final int data) {
+    return store(allocateRoot(), data);
+  }
+
+  /**
+   * Adds node populated with {@code data} as a child of node with {@code parent} index.
+   * 
+   * @param parent index of parent node
+   * @param data data to be hold in added node
+   * @return index of added node
+   * @throws IllegalArgumentException if {@code parent} is not an index of a node of the tree
+   */
+  public int addNode(final int parent, final int data) {
+    return store(allocate(parent), data);
+  }
+
+  /**
+   * Gets data hold in node with {@code node} index.
+   * 
+   * @param node node index
+   * @return data of the node
+   * @throws IllegalArgumentException if {@code node} is not an index of a node of the tree
+   */
+  public int getData(final int node) {
+    verifyNode(node);
+
+    return data[node];
+  }
+
+  /**
+   * Searches the tree for data satisfying conditions provided in {@code filter}.
+   * 
+   * @param filter conditional predicate to search for
+   * @return distinct found data in ascending order
+   * @throws IllegalArgumentException if {@code filter} is {@code null}
+   * @throws IllegalStateException if tree is empty
+   */
+  public int[] findData(final IntPredicate filter) {
+    final int[] nodes = findNodes(filter);
+    final int[] found = new int[nodes.length];
+    for (int i = 0; i < nodes.length; i++) {
+      found[i] = data[nodes[i]];
+    }
+    Arrays.sort(found);
+
+    int distinct = 0;
+    for (int i = 0; i < found.length; i++) {
+      if (i == 0 || found[i] != found[distinct - 1]) {
+        found[distinct++] = found[i];
+      }
+    }
+
+    return distinct == found.length ? found : Arrays.copyOf(found, distinct);
+  }
+
+  /**
+   * Searches the tree for nodes with data satisfying conditions provided in {@code filter}.
+   * 
+   * @param filter conditional predicate to search for
+   * @return indices of found nodes in ascending order
+   * @throws IllegalArgumentException if {@code filter} is {@code null}
+   * @throws IllegalStateException if tree is empty
+   */
+  public int[] findNodes(final IntPredicate filter) {
+    verifySearch(filter);
+
+    final int[] values = data;
+    return scan(node -> filter.test(values[node]));
+  }
+
+  private int store(final int node, final int value) {
+    if (data.length < topology.capacity()) {
+      data = Arrays.copyOf(data, topology.capacity());
+    }
+    data[node] = value;
+
+    return node;
+  }
+}
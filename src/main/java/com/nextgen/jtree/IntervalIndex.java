@@ -0,0 +1,289 @@
+package com.nextgen.jtree;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index labeling every node of a {@link JTree} with a nested interval: the interval of a node
+ * encloses intervals of all its descendants and only them, so whether a node lies in a subtree is
+ * answered by comparing two pairs of numbers. Additionally the index keeps all nodes in a flat
+ * array in pre-order, in which every subtree is a contiguous range, so a subtree is scanned
+ * without walking the tree.
+ * 
+ * Intervals are numbered with gaps. Added branch takes a share of the gap left in the interval of
+ * its parent proportional to its size; only when the gap is exhausted the nearest ancestor whose
+ * interval is sparse enough is renumbered. Renumbering packs the subtree into half of the interval,
+ * keeps room behind children of every node proportional to their number and hands the other half
+ * over to the parent which ran out of room, so both wide parents and deep chains absorb many
+ * additions between renumberings. Removal leaves the gap behind. The flat array is rebuilt lazily
+ * by the first scan following a modification.
+ * 
+ * Index is kept up to date as a structure changes handler of the tree. All methods are
+ * synchronized.
+ * 
+ * @param <T> data type to be hold in nodes
+ */
+public final class IntervalIndex<T> implements JTreeStructureChangesEventHandler<T> {
+  /**
+   * Right bound of the root interval.
+   */
+  static final long ROOT_RIGHT = 1L << 62;
+
+  /**
+   * Number of steps a numbered node takes: its bounds, room behind its children and one more step
+   * of room on behalf of each node as a child.
+   */
+  private static final long STEPS_PER_NODE = 4;
+
+  /**
+   * Number of numbers per step a renumbered interval must provide.
+   */
+  private static final long DENSITY = 32;
+
+  private final JTree<T> tree;
+  private final Map<Node<T>, Label> labels = new HashMap<>();
+
+  private Node<T>[] flat;
+  private boolean stale = true;
+
+  /**
+   * Interval of a node together with the highest number used inside it and position of the node
+   * in the flat array.
+   */
+  private static final class Label {
+    private long left;
+    private long right;
+    private long tail;
+    private int position;
+  }
+
+  private IntervalIndex(final JTree<T> tree) {
+    this.tree = tree;
+  }
+
+  /**
+   * Labels all nodes of {@code tree} and subscribes index to modifications of the tree.
+   * 
+   * @param tree tree to index
+   * @param <T> data type to be hold in nodes
+   * @return index of {@code tree}
+   * @throws IllegalArgumentException if {@code tree} is {@code null}
+   * @throws IllegalStateException if tree is empty
+   */
+  public static <T> IntervalIndex<T> of(final JTree<T> tree) {
+    if (tree == null) {
+      throw new IllegalArgumentException();
+    }
+
+    final IntervalIndex<T> index = new IntervalIndex<>(tree);
+    synchronized (index) {
+      tree.addStructureChangesHandler(index);
+
+      final Label root = new Label();
+      root.left = 0;
+      root.right = ROOT_RIGHT;
+      index.labels.put(tree.getRoot(), root);
+      index.renumber(tree.getRoot(), root, tree.getRoot());
+    }
+
+    return index;
+  }
+
+  /**
+   * Unsubscribes index from modifications of the tree, after which index is no longer updated.
+   */
+  public void close() {
+    tree.removeStructureChangesHandler(this);
+  }
+
+  /**
+   * Identifies whether {@code node} is {@code top} or one of its descendants.
+   * 
+   * @param node presumed descendant
+   * @param top root of the subtree
+   * @return {@code true} if {@code node} lies in subtree of {@code top}, otherwise returns
+   *         {@code false}
+   * @throws IllegalArgumentException if either node is not a node of the tree
+   */
+  public synchronized boolean isInSubtree(final Node<T> node, final Node<T> top) {
+    final Label nodeLabel = label(node);
+    final Label topLabel = label(top);
+
+    return topLabel.left <= nodeLabel.left && nodeLabel.right <= topLabel.right;
+  }
+
+  /**
+   * Gets {@code top} and all its descendants in pre-order as unmodifiable {@code List}. The list
+   * reflects the tree at the moment of the call and is not affected by later modifications.
+   * 
+   * @param top root of the subtree
+   * @return nodes of the subtree
+   * @throws IllegalArgumentException if {@code top} is not a node of the tree
+   */
+  public synchronized List<Node<T>> subtree(final Node<T> top) {
+    final Label topLabel = label(top);
+    if (stale) {
+      flatten();
+    }
+
+    final int from = topLabel.position;
+    return Collections.unmodifiableList(
+        Arrays.asList(flat).subList(from, from + 1 + top.getSubtreeLength()));
+  }
+
+  /**
+   * Labels added branch or drops labels of removed one.
+   */
+  @Override
+  public synchronized void handle(final Node<T> changedNode, final Node<T> cause,
+      final TreeStructureChangeEvent event) {
+    stale = true;
+
+    if (event == TreeStructureChangeEvent.ADD_NODE) {
+      final Label parent = labels.get(changedNode);
+      if (parent != null && cause.getParent() == changedNode) {
+        place(changedNode, parent, cause);
+      }
+    } else if (event == TreeStructureChangeEvent.REMOVE_NODE) {
+      drop(cause);
+    }
+  }
+
+  private Label label(final Node<T> node) {
+    final Label label = node == null ? null : labels.get(node);
+    if (label == null) {
+      throw new IllegalArgumentException();
+    }
+
+    return label;
+  }
+
+  /**
+   * Numbers {@code branch} just added to {@code parent} in a share of the gap left in the interval
+   * of the parent proportional to the size of the branch, or renumbers nearest sparse enough
+   * ancestor if the gap is too small.
+   */
+  private void place(final Node<T> parent, final Label parentLabel, final Node<T> branch) {
+    final long branchLength = 1L + branch.getSubtreeLength();
+    final long shares = 2 + parent.getSubtreeLength() / branchLength;
+    final long steps = STEPS_PER_NODE * branchLength;
+    final long step = (parentLabel.right - parentLabel.tail) / shares / (steps + 1);
+    if (step > 0) {
+      parentLabel.tail = number(branch, parentLabel.tail, step, null, 0);
+      return;
+    }
+
+    Node<T> ancestor = parent;
+    Label ancestorLabel = parentLabel;
+    while (ancestorLabel.right - ancestorLabel.left
+        < DENSITY * STEPS_PER_NODE * (1 + (long) ancestor.getSubtreeLength())) {
+      ancestor = ancestor.getParent();
+      ancestorLabel = labels.get(ancestor);
+    }
+    renumber(ancestor, ancestorLabel, parent);
+  }
+
+  /**
+   * Renumbers all descendants of {@code top} evenly inside one half of its interval and leaves the
+   * other half as room behind children of {@code hot}, the node running out of room.
+   */
+  private void renumber(final Node<T> top, final Label topLabel, final Node<T> hot) {
+    final long half = (topLabel.right - topLabel.left) / 2;
+    final long steps = STEPS_PER_NODE * top.getSubtreeLength();
+    final long step = half / (steps + 1);
+
+    long last = topLabel.left;
+    for (Node<T> child : top.children()) {
+      last = number(child, last, step, hot, half);
+    }
+    topLabel.tail = last;
+  }
+
+  /**
+   * Numbers {@code top} and its descendants in pre-order with numbers {@code step} apart starting
+   * after {@code last}, leaving room of two steps plus one step per child behind children of every
+   * node and additional room of {@code extra} behind children of {@code hot}.
+   * 
+   * @return the last used number
+   */
+  private long number(final Node<T> top, final long last, final long step, final Node<T> hot,
+      final long extra) {
+    long current = last;
+
+    // nodes entered but not left yet, each followed by iterator over its remaining children
+    final Deque<Node<T>> open = new ArrayDeque<>();
+    final Deque<Iterator<Node<T>>> remaining = new ArrayDeque<>();
+
+    current += step;
+    open.push(top);
+    remaining.push(top.children().iterator());
+    labelOf(top).left = current;
+    while (!open.isEmpty()) {
+      if (remaining.peek().hasNext()) {
+        final Node<T> child = remaining.peek().next();
+        current += step;
+        labelOf(child).left = current;
+        open.push(child);
+        remaining.push(child.children().iterator());
+      } else {
+        final Node<T> node = open.pop();
+        final Label label = labels.get(node);
+        remaining.pop();
+        label.tail = current;
+        current += step * (2 + node.getChildCount());
+        if (node == hot) {
+          current += extra;
+        }
+        label.right = current;
+      }
+    }
+
+    return current;
+  }
+
+  private Label labelOf(final Node<T> node) {
+    return labels.computeIfAbsent(node, n -> new Label());
+  }
+
+  private void drop(final Node<T> top) {
+    final Deque<Node<T>> pending = new ArrayDeque<>();
+    pending.push(top);
+    while (!pending.isEmpty()) {
+      final Node<T> node = pending.pop();
+      if (labels.remove(node) != null) {
+        for (Node<T> child : node.children()) {
+          pending.push(child);
+        }
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void flatten() {
+    final Node<T> root = tree.getRoot();
+    final Node<T>[] nodes = new Node[1 + root.getSubtreeLength()];
+
+    final Deque<Node<T>> pending = new ArrayDeque<>();
+    pending.push(root);
+    int position = 0;
+    while (!pending.isEmpty()) {
+      final Node<T> node = pending.pop();
+      labels.get(node).position = position;
+      nodes[position++] = node;
+
+      // push children in reverse so they are visited in their own order
+      for (int i = node.getChildCount() - 1; i >= 0; i--) {
+        pending.push(node.getChild(i));
+      }
+    }
+
+    flat = nodes;
+    stale = false;
+  }
+}
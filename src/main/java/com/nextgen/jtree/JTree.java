@@ -1,21 +1,41 @@
 package com.nextgen.jtree;
 
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * Represents tree container for keeping data of arbitrary type {@code T}. Holds tree root and
  * allows to start tree building.
  * 
+ * Tree created by {@link #concurrentEmptyTree()} or {@link #concurrentTreeWithRoot(Object)} is
+ * safe for use by several threads without external locking: nodes may be added and removed under
+ * different parents at once and searches never block. Searches, streams and subtree lengths are
+ * weakly consistent: they reflect every modification completed before they started and may or may
+ * not reflect modifications made while they run, and never throw
+ * {@code ConcurrentModificationException}.
+ * 
  * @param <T> data type to be hold in nodes
  */
 public final class JTree<T> {
-  private Node<T> root;
+  private final boolean concurrent;
+  private volatile Node<T> root;
+  private final Map<String, AttributeIndex<T, ?>> indexes = new ConcurrentHashMap<>();
 
-  private JTree() {}
+  private JTree(final boolean concurrent) {
+    this.concurrent = concurrent;
+  }
 
-  private JTree(final T data) {
-    root = new Node<T>(data);
+  private JTree(final T data, final boolean concurrent) {
+    this(concurrent);
+    root = new Node<T>(data, concurrent);
   }
 
   /**
@@ -25,7 +45,17 @@ public final class JTree<T> {
    * @return {@code JTree} tree
    */
   public static <T> JTree<T> emptyTree() {
-    return new JTree<T>();
+    return new JTree<T>(false);
+  }
+
+  /**
+   * Creates empty {@code JTree} safe for concurrent modification without root initialized.
+   * 
+   * @param <T> data type to be hold in tree
+   * @return concurrent {@code JTree} tree
+   */
+  public static <T> JTree<T> concurrentEmptyTree() {
+    return new JTree<T>(true);
   }
 
   /**
@@ -41,7 +71,60 @@ public final class JTree<T> {
       throw new IllegalArgumentException();
     }
 
-    return new JTree<T>(data);
+    return new JTree<T>(data, false);
+  }
+
+  /**
+   * Creates {@code JTree} safe for concurrent modification with root already populated with
+   * {@code data}.
+   * 
+   * @param data data to be hold in tree root
+   * @param <T> data type to be hold in tree
+   * @return concurrent {@code JTree} with root
+   * @throws IllegalArgumentException if {@code data} is null
+   */
+  public static <T> JTree<T> concurrentTreeWithRoot(final T data) {
+    if (data == null) {
+      throw new IllegalArgumentException();
+    }
+
+    return new JTree<T>(data, true);
+  }
+
+  /**
+   * Creates {@code JTree} with root already populated with {@code data} which may hold at most
+   * {@code capacity} nodes below the root.
+   * 
+   * @param data data to be hold in tree root
+   * @param capacity maximum number of nodes below the root
+   * @param <T> data type to be hold in tree
+   * @return bounded {@code JTree} with root
+   * @throws IllegalArgumentException if {@code data} is null or {@code capacity} is negative
+   * @see Node#setSubtreeCapacity(int)
+   */
+  public static <T> JTree<T> boundedTreeWithRoot(final T data, final int capacity) {
+    if (data == null || capacity < 0) {
+      throw new IllegalArgumentException();
+    }
+
+    final JTree<T> tree = new JTree<T>(data, false);
+    tree.root.setSubtreeCapacity(capacity);
+
+    return tree;
+  }
+
+  /**
+   * Creates {@code JTree} around already built detached {@code root} adopting its concurrency mode.
+   * 
+   * @param root root of the tree
+   * @param <T> data type to be hold in tree
+   * @return {@code JTree} with {@code root}
+   */
+  static <T> JTree<T> treeOf(final Node<T> root) {
+    final JTree<T> tree = new JTree<T>(root.isConcurrent());
+    tree.root = root;
+
+    return tree;
   }
 
   /**
@@ -51,7 +134,7 @@ public final class JTree<T> {
    * @throws IllegalArgumentException if {@code data} is null
    * @throws IllegalStateException if root already initialized
    */
-  public void addRoot(final T data) {
+  public synchronized void addRoot(final T data) {
     if (data == null) {
       throw new IllegalArgumentException();
     }
@@ -59,7 +142,27 @@ public final class JTree<T> {
       throw new IllegalStateException("Root is already initialized");
     }
 
-    root = new Node<T>(data);
+    root = new Node<T>(data, concurrent);
+  }
+
+  /**
+   * Creates detached {@link Node} populated with {@code data} which may be added to this tree.
+   * 
+   * @param data data to be hold in node
+   * @return detached node of the same concurrency mode as the tree
+   * @throws IllegalArgumentException if {@code data} is null
+   */
+  public Node<T> createNode(final T data) {
+    return new Node<T>(data, concurrent);
+  }
+
+  /**
+   * Identifies whether tree is safe for concurrent modification.
+   * 
+   * @return {@code true} if tree is created in concurrent mode, otherwise returns {@code false}
+   */
+  public boolean isConcurrent() {
+    return concurrent;
   }
 
   /**
@@ -71,6 +174,69 @@ public final class JTree<T> {
     return root;
   }
 
+  /**
+   * Subscribes {@code structureChangeHandler} to structural modifications anywhere in the tree.
+   * 
+   * @param structureChangeHandler event handler
+   * @throws IllegalArgumentException if {@code structureChangeHandler} is {@code null}
+   * @throws IllegalStateException if root is {@code null}
+   */
+  public void addStructureChangesHandler(
+      final JTreeStructureChangesEventHandler<T> structureChangeHandler) {
+    if (structureChangeHandler == null) {
+      throw new IllegalArgumentException();
+    }
+    if (root == null) {
+      throw new IllegalStateException("Tree is empty.");
+    }
+
+    root.addStructureChangesHandler(structureChangeHandler, true);
+  }
+
+  /**
+   * Unsubscribes {@code structureChangeHandler} previously subscribed to the whole tree.
+   * 
+   * @param structureChangeHandler event handler
+   * @throws IllegalStateException if root is {@code null}
+   */
+  public void removeStructureChangesHandler(
+      final JTreeStructureChangesEventHandler<T> structureChangeHandler) {
+    if (root == null) {
+      throw new IllegalStateException("Tree is empty.");
+    }
+
+    root.removeStructureChangesHandler(structureChangeHandler, true);
+  }
+
+  /**
+   * Gets lazy depth-first {@code Stream} of all {@link Node}s of the tree.
+   * 
+   * @return stream of tree nodes
+   * @throws IllegalStateException if root is {@code null}
+   */
+  public Stream<Node<T>> stream() {
+    return stream(TraversalOrder.DEPTH_FIRST);
+  }
+
+  /**
+   * Gets lazy {@code Stream} of all {@link Node}s of the tree visited in {@code order}.
+   * 
+   * @param order traversal order
+   * @return stream of tree nodes
+   * @throws IllegalArgumentException if {@code order} is {@code null}
+   * @throws IllegalStateException if root is {@code null}
+   */
+  public Stream<Node<T>> stream(final TraversalOrder order) {
+    if (order == null) {
+      throw new IllegalArgumentException();
+    }
+    if (root == null) {
+      throw new IllegalStateException("Tree is empty.");
+    }
+
+    return root.stream(order);
+  }
+
   /**
    * Searches the tree for data satisfying conditions provided in {@code filter}.
    * 
@@ -106,4 +272,256 @@ public final class JTree<T> {
 
     return root.findNodes(filter);
   }
+
+  /**
+   * Searches the tree for data satisfying conditions provided in {@code filter} using workers of
+   * {@code pool}.
+   * 
+   * @param filter conditional predicate to search for, must be safe for concurrent use
+   * @param pool pool to run search in
+   * @return found data if any
+   * @throws IllegalArgumentException if {@code filter} or {@code pool} is {@code null}
+   * @throws IllegalStateException if root is {@code null}
+   */
+  public Set<T> findDataParallel(final Predicate<T> filter, final ForkJoinPool pool) {
+    if (filter == null || pool == null) {
+      throw new IllegalArgumentException();
+    }
+    if (root == null) {
+      throw new IllegalStateException("Tree is empty.");
+    }
+
+    return root.findDataParallel(filter, pool);
+  }
+
+  /**
+   * Searches the tree for {@link Node}s with data satisfying conditions provided in {@code filter}
+   * using workers of {@code pool}.
+   * 
+   * @param filter conditional predicate to search for, must be safe for concurrent use
+   * @param pool pool to run search in
+   * @return found {@code Node}s with data if any
+   * @throws IllegalArgumentException if {@code filter} or {@code pool} is {@code null}
+   * @throws IllegalStateException if root is {@code null}
+   */
+  public Set<Node<T>> findNodesParallel(final Predicate<T> filter, final ForkJoinPool pool) {
+    if (filter == null || pool == null) {
+      throw new IllegalArgumentException();
+    }
+    if (root == null) {
+      throw new IllegalStateException("Tree is empty.");
+    }
+
+    return root.findNodesParallel(filter, pool);
+  }
+
+  /**
+   * Searches the tree for data of {@code k} greatest according to {@code comparator} nodes with
+   * data satisfying {@code filter}, keeping at most {@code k} matches in memory.
+   * 
+   * @param filter conditional predicate to search for
+   * @param comparator order of data
+   * @param k maximum number of found data
+   * @return found data if any from the greatest to the least
+   * @throws IllegalArgumentException if {@code filter} or {@code comparator} is {@code null} or
+   *         {@code k} is negative
+   * @throws IllegalStateException if root is {@code null}
+   */
+  public List<T> findTopK(final Predicate<T> filter, final Comparator<? super T> comparator,
+      final int k) {
+    if (filter == null || comparator == null) {
+      throw new IllegalArgumentException();
+    }
+    if (root == null) {
+      throw new IllegalStateException("Tree is empty.");
+    }
+
+    return root.findTopK(filter, comparator, k);
+  }
+
+  /**
+   * Searches the tree for data of {@code k} greatest according to {@code comparator} nodes with
+   * data satisfying {@code filter} using workers of {@code pool}, each keeping at most {@code k}
+   * matches in memory.
+   * 
+   * @param filter conditional predicate to search for, must be safe for concurrent use
+   * @param comparator order of data, must be safe for concurrent use
+   * @param k maximum number of found data
+   * @param pool pool to run search in
+   * @return found data if any from the greatest to the least
+   * @throws IllegalArgumentException if {@code filter}, {@code comparator} or {@code pool} is
+   *         {@code null} or {@code k} is negative
+   * @throws IllegalStateException if root is {@code null}
+   */
+  public List<T> findTopKParallel(final Predicate<T> filter,
+      final Comparator<? super T> comparator, final int k, final ForkJoinPool pool) {
+    if (filter == null || comparator == null || pool == null) {
+      throw new IllegalArgumentException();
+    }
+    if (root == null) {
+      throw new IllegalStateException("Tree is empty.");
+    }
+
+    return root.findTopKParallel(filter, comparator, k, pool);
+  }
+
+  /**
+   * Walks the tree depth-first in pre-order following decisions of {@code visitor}.
+   * 
+   * @param visitor callback deciding how the walk proceeds
+   * @return {@code true} if the walk was terminated by {@code visitor}, otherwise returns
+   *         {@code false}
+   * @throws IllegalArgumentException if {@code visitor} is {@code null}
+   * @throws IllegalStateException if root is {@code null}
+   * @see Node#walk(NodeVisitor)
+   */
+  public boolean walk(final NodeVisitor<T> visitor) {
+    if (visitor == null) {
+      throw new IllegalArgumentException();
+    }
+    if (root == null) {
+      throw new IllegalStateException("Tree is empty.");
+    }
+
+    return root.walk(visitor);
+  }
+
+  /**
+   * Searches the tree for data satisfying {@code filter} visiting only descendants of nodes with
+   * data satisfying {@code descend} and at most {@code maxDepth} edges below the root.
+   * 
+   * @param filter conditional predicate to search for
+   * @param descend predicate deciding whether descendants of a node are visited
+   * @param maxDepth maximum depth of visited nodes, {@code 0} for the root only
+   * @param limit maximum number of found data
+   * @return found data if any in order of visiting
+   * @throws IllegalArgumentException if {@code filter} or {@code descend} is {@code null} or
+   *         {@code maxDepth} or {@code limit} is negative
+   * @throws IllegalStateException if root is {@code null}
+   */
+  public Set<T> findData(final Predicate<T> filter, final Predicate<T> descend,
+      final int maxDepth, final int limit) {
+    if (filter == null || descend == null) {
+      throw new IllegalArgumentException();
+    }
+    if (root == null) {
+      throw new IllegalStateException("Tree is empty.");
+    }
+
+    return root.findData(filter, descend, maxDepth, limit);
+  }
+
+  /**
+   * Searches the tree for {@link Node}s with data satisfying {@code filter} visiting only
+   * descendants of nodes with data satisfying {@code descend} and at most {@code maxDepth} edges
+   * below the root.
+   * 
+   * @param filter conditional predicate to search for
+   * @param descend predicate deciding whether descendants of a node are visited
+   * @param maxDepth maximum depth of visited nodes, {@code 0} for the root only
+   * @param limit maximum number of found nodes
+   * @return found {@code Node}s if any in order of visiting
+   * @throws IllegalArgumentException if {@code filter} or {@code descend} is {@code null} or
+   *         {@code maxDepth} or {@code limit} is negative
+   * @throws IllegalStateException if root is {@code null}
+   */
+  public Set<Node<T>> findNodes(final Predicate<T> filter, final Predicate<T> descend,
+      final int maxDepth, final int limit) {
+    if (filter == null || descend == null) {
+      throw new IllegalArgumentException();
+    }
+    if (root == null) {
+      throw new IllegalStateException("Tree is empty.");
+    }
+
+    return root.findNodes(filter, descend, maxDepth, limit);
+  }
+
+  /**
+   * Creates hash {@link AttributeIndex} of all nodes by keys extracted from their data and
+   * registers it under {@code name}. The index is kept up to date on modifications of the tree.
+   * 
+   * @param name unique name of the index
+   * @param keyExtractor function extracting key from data, must be consistent for equal data
+   * @param <K> key type
+   * @return created index
+   * @throws IllegalArgumentException if {@code name} or {@code keyExtractor} is {@code null} or
+   *         index named {@code name} already exists
+   * @throws IllegalStateException if root is {@code null}
+   */
+  public <K> AttributeIndex<T, K> createIndex(final String name,
+      final Function<T, K> keyExtractor) {
+    if (name == null || keyExtractor == null) {
+      throw new IllegalArgumentException();
+    }
+
+    return registerIndex(name, () -> AttributeIndex.hashIndex(name, keyExtractor, root));
+  }
+
+  /**
+   * Creates sorted {@link AttributeIndex} of all nodes by keys extracted from their data and
+   * registers it under {@code name}. Besides exact lookups sorted index supports range lookups.
+   * The index is kept up to date on modifications of the tree.
+   * 
+   * @param name unique name of the index
+   * @param keyExtractor function extracting key from data, must be consistent for equal data
+   * @param comparator order of keys or {@code null} for natural order
+   * @param <K> key type
+   * @return created index
+   * @throws IllegalArgumentException if {@code name} or {@code keyExtractor} is {@code null} or
+   *         index named {@code name} already exists
+   * @throws IllegalStateException if root is {@code null}
+   */
+  public <K> AttributeIndex<T, K> createSortedIndex(final String name,
+      final Function<T, K> keyExtractor, final Comparator<? super K> comparator) {
+    if (name == null || keyExtractor == null) {
+      throw new IllegalArgumentException();
+    }
+
+    return registerIndex(name,
+        () -> AttributeIndex.sortedIndex(name, keyExtractor, comparator, root));
+  }
+
+  /**
+   * Gets index previously created under {@code name}.
+   * 
+   * @param name name of the index
+   * @param <K> key type
+   * @return index or {@code null} if there is no index named {@code name}
+   */
+  @SuppressWarnings("unchecked")
+  public <K> AttributeIndex<T, K> getIndex(final String name) {
+    return name == null ? null : (AttributeIndex<T, K>) indexes.get(name);
+  }
+
+  /**
+   * Drops index previously created under {@code name}, after which the index is no longer updated.
+   * 
+   * @param name name of the index
+   * @return {@code true} if index existed, otherwise returns {@code false}
+   */
+  public boolean dropIndex(final String name) {
+    final AttributeIndex<T, ?> index = name == null ? null : indexes.remove(name);
+    if (index == null) {
+      return false;
+    }
+    root.removeStructureChangesHandler(index, true);
+
+    return true;
+  }
+
+  private synchronized <K> AttributeIndex<T, K> registerIndex(final String name,
+      final Supplier<AttributeIndex<T, K>> factory) {
+    if (root == null) {
+      throw new IllegalStateException("Tree is empty.");
+    }
+    if (indexes.containsKey(name)) {
+      throw new IllegalArgumentException();
+    }
+
+    final AttributeIndex<T, K> index = factory.get();
+    indexes.put(name, index);
+
+    return index;
+  }
 }
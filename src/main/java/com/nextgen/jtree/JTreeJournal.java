@@ -0,0 +1,495 @@
+package com.nextgen.jtree;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * {@link JTreeStructureChangesEventHandler} keeping a {@link JTree} durable in a directory as a
+ * snapshot written by {@link JTreeSerializer} plus an append-only journal of every structural
+ * modification made since the snapshot was taken.
+ * 
+ * Journal records are checksummed and collected in memory; they are written and synced to disk as
+ * a single group once {@code syncBatchSize} records are collected or {@link #sync()} is called, so
+ * up to {@code syncBatchSize - 1} most recent modifications may be lost on crash. Opening the
+ * directory again loads the snapshot and replays the journal on top of it; torn record at the end
+ * of the journal is discarded. {@link #compact()} folds the journal into a new snapshot.
+ * 
+ * Nodes are identified in the journal by numbers assigned in the order they are written, which
+ * costs an identity map entry per node. Modification of a node already removed from the tree by
+ * another thread is not recorded, neither is addition of a node already written as a part of a
+ * branch added concurrently above it. Compaction must not run concurrently with modifications.
+ * 
+ * @param <T> data type to be hold in {@code Node}
+ */
+public final class JTreeJournal<T> implements JTreeStructureChangesEventHandler<T>, Closeable {
+  static final String SNAPSHOT = "snapshot";
+  static final String JOURNAL = "journal";
+
+  private static final String TEMPORARY_SUFFIX = ".tmp";
+
+  private static final int MAGIC = 0x4A54524A;
+  private static final int FORMAT_VERSION = 1;
+  private static final int HEADER_LENGTH = 16;
+
+  private static final byte ADD_RECORD = 1;
+  private static final byte REMOVE_RECORD = 2;
+  private static final byte MOVE_RECORD = 3;
+
+  private final Path directory;
+  private final PayloadCodec<T> codec;
+  private final int syncBatchSize;
+  private final Map<Node<T>, Long> ids = new IdentityHashMap<>();
+  private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+
+  private JTree<T> tree;
+  private FileChannel journal;
+  private long generation;
+  private long nextId;
+  private int pendingRecords;
+  private boolean closed;
+
+  private JTreeJournal(final Path directory, final PayloadCodec<T> codec,
+      final int syncBatchSize) {
+    this.directory = directory;
+    this.codec = codec;
+    this.syncBatchSize = syncBatchSize;
+  }
+
+  /**
+   * Opens journaled tree kept in {@code directory}. If the directory holds no snapshot, tree
+   * created by {@code initialTree} is written as the first one, otherwise the tree is recovered
+   * from the snapshot and the journal. Journal is subscribed to the returned tree.
+   * 
+   * @param directory existing directory to keep snapshot and journal in
+   * @param codec converter of data to bytes and back
+   * @param initialTree factory of tree to start with, tree must have a root
+   * @param syncBatchSize number of records written and synced to disk at once
+   * @param <T> data type to be hold in tree
+   * @return opened journal
+   * @throws IllegalArgumentException if any argument is {@code null}, {@code syncBatchSize} is not
+   *         positive or initial tree has no root
+   * @throws IOException if snapshot or journal cannot be read or written
+   */
+  public static <T> JTreeJournal<T> open(final Path directory, final PayloadCodec<T> codec,
+      final Supplier<JTree<T>> initialTree, final int syncBatchSize) throws IOException {
+    if (directory == null || codec == null || initialTree == null || syncBatchSize <= 0) {
+      throw new IllegalArgumentException();
+    }
+
+    final JTreeJournal<T> journal = new JTreeJournal<>(directory, codec, syncBatchSize);
+    if (Files.exists(directory.resolve(SNAPSHOT))) {
+      journal.recover();
+    } else {
+      final JTree<T> tree = initialTree.get();
+      if (tree == null || tree.getRoot() == null) {
+        throw new IllegalArgumentException();
+      }
+      journal.tree = tree;
+      journal.checkpoint(0);
+    }
+    journal.tree.addStructureChangesHandler(journal);
+
+    return journal;
+  }
+
+  /**
+   * Gets journaled tree.
+   * 
+   * @return journaled tree
+   */
+  public JTree<T> getTree() {
+    return tree;
+  }
+
+  /**
+   * Gets number of bytes written to the journal since the last snapshot, including records not
+   * yet synced.
+   * 
+   * @return journal length in bytes
+   * @throws IllegalStateException if journal is closed
+   */
+  public synchronized long getJournalLength() {
+    verifyOpen();
+
+    try {
+      return journal.size() - HEADER_LENGTH + pending.size();
+    } catch (IOException e) {
+      throw new IllegalStateException("Cannot read journal.", e);
+    }
+  }
+
+  /**
+   * Records {@code event} and writes collected records to disk if there are enough of them.
+   * 
+   * @throws IllegalStateException if journal is closed or cannot be written
+   */
+  @Override
+  public synchronized void handle(final Node<T> changedNode, final Node<T> cause,
+      final TreeStructureChangeEvent event) {
+    verifyOpen();
+
+    try {
+      if (event == TreeStructureChangeEvent.ADD_NODE) {
+        // cause already written as a part of a branch added concurrently above it
+        final Long parent = ids.get(changedNode);
+        if (parent == null || ids.containsKey(cause)) {
+          return;
+        }
+
+        final ByteArrayOutputStream record = new ByteArrayOutputStream();
+        writeVarLong(record, parent);
+        JTreeSerializer.writeNodes(cause, record, codec, node -> ids.put(node, nextId++));
+        append(ADD_RECORD, record);
+      } else if (event == TreeStructureChangeEvent.REMOVE_NODE) {
+        final Long node = ids.get(cause);
+        if (node == null) {
+          return;
+        }
+
+        forget(cause);
+        final ByteArrayOutputStream record = new ByteArrayOutputStream();
+        writeVarLong(record, node);
+        append(REMOVE_RECORD, record);
+      }
+
+      if (pendingRecords >= syncBatchSize) {
+        flush();
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Cannot write journal.", e);
+    }
+  }
+
+  /**
+   * Records move of {@code cause} as a single record keeping identifiers of moved nodes.
+   * 
+   * @throws IllegalStateException if journal is closed or cannot be written
+   */
+  @Override
+  public synchronized void handleMove(final Node<T> oldParent, final Node<T> newParent,
+      final Node<T> cause) {
+    verifyOpen();
+
+    final Long node = ids.get(cause);
+    final Long parent = ids.get(newParent);
+    if (node == null || parent == null) {
+      return;
+    }
+
+    try {
+      final ByteArrayOutputStream record = new ByteArrayOutputStream();
+      writeVarLong(record, node);
+      writeVarLong(record, parent);
+      append(MOVE_RECORD, record);
+
+      if (pendingRecords >= syncBatchSize) {
+        flush();
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Cannot write journal.", e);
+    }
+  }
+
+  /**
+   * Writes all collected records to disk and waits until they are synced.
+   * 
+   * @throws IllegalStateException if journal is closed or cannot be written
+   */
+  public synchronized void sync() {
+    verifyOpen();
+
+    try {
+      flush();
+    } catch (IOException e) {
+      throw new IllegalStateException("Cannot write journal.", e);
+    }
+  }
+
+  /**
+   * Writes the whole tree as a new snapshot and starts an empty journal. Tree must not be
+   * modified until compaction completes.
+   * 
+   * @throws IOException if snapshot or journal cannot be written
+   * @throws IllegalStateException if journal is closed
+   */
+  public synchronized void compact() throws IOException {
+    verifyOpen();
+
+    flush();
+    checkpoint(generation + 1);
+  }
+
+  /**
+   * Writes all collected records to disk, unsubscribes from the tree and closes the journal.
+   * 
+   * @throws IOException if journal cannot be written or closed
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    if (closed) {
+      return;
+    }
+
+    try {
+      flush();
+    } finally {
+      closed = true;
+      tree.removeStructureChangesHandler(this);
+      journal.close();
+    }
+  }
+
+  private void append(final byte type, final ByteArrayOutputStream record) throws IOException {
+    final byte[] body = record.toByteArray();
+
+    final CRC32 checksum = new CRC32();
+    checksum.update(type);
+    checksum.update(body);
+
+    final DataOutputStream out = new DataOutputStream(pending);
+    out.writeInt(1 + body.length);
+    out.writeByte(type);
+    out.write(body);
+    out.writeInt((int) checksum.getValue());
+
+    pendingRecords++;
+  }
+
+  private void flush() throws IOException {
+    if (pendingRecords == 0) {
+      return;
+    }
+
+    final ByteBuffer buffer = ByteBuffer.wrap(pending.toByteArray());
+    while (buffer.hasRemaining()) {
+      journal.write(buffer);
+    }
+    journal.force(false);
+
+    pending.reset();
+    pendingRecords = 0;
+  }
+
+  private void forget(final Node<T> removed) {
+    final Deque<Node<T>> forgotten = new ArrayDeque<>();
+    forgotten.push(removed);
+    while (!forgotten.isEmpty()) {
+      final Node<T> node = forgotten.pop();
+      ids.remove(node);
+      for (Node<T> child : node.children()) {
+        forgotten.push(child);
+      }
+    }
+  }
+
+  /**
+   * Replaces snapshot with current tree numbering its nodes anew and starts empty journal of
+   * {@code nextGeneration}. Snapshot is replaced before the journal, so a crash in between leaves
+   * a journal of previous generation which is then ignored.
+   */
+  private void checkpoint(final long nextGeneration) throws IOException {
+    ids.clear();
+    nextId = 0;
+
+    final Path snapshot = directory.resolve(SNAPSHOT);
+    final Path snapshotTemporary = directory.resolve(SNAPSHOT + TEMPORARY_SUFFIX);
+    try (FileChannel channel = FileChannel.open(snapshotTemporary, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      final DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+      out.writeLong(nextGeneration);
+      JTreeSerializer.write(tree, out, codec, node -> ids.put(node, nextId++));
+      out.flush();
+      channel.force(true);
+    }
+    Files.move(snapshotTemporary, snapshot, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+
+    if (journal != null) {
+      journal.close();
+    }
+    final Path journalTemporary = directory.resolve(JOURNAL + TEMPORARY_SUFFIX);
+    try (FileChannel channel = FileChannel.open(journalTemporary, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      final ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+      header.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(nextGeneration).flip();
+      while (header.hasRemaining()) {
+        channel.write(header);
+      }
+      channel.force(true);
+    }
+    Files.move(journalTemporary, directory.resolve(JOURNAL), StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+
+    generation = nextGeneration;
+    journal = FileChannel.open(directory.resolve(JOURNAL), StandardOpenOption.WRITE,
+        StandardOpenOption.APPEND);
+  }
+
+  private void recover() throws IOException {
+    final Map<Long, Node<T>> nodes = new HashMap<>();
+    try (InputStream in = Files.newInputStream(directory.resolve(SNAPSHOT))) {
+      final DataInputStream source = new DataInputStream(in);
+      generation = source.readLong();
+      tree = JTreeSerializer.read(source, codec, this::register);
+    }
+    if (tree.getRoot() == null) {
+      throw new IOException("Snapshot holds empty tree.");
+    }
+    for (Map.Entry<Node<T>, Long> entry : ids.entrySet()) {
+      nodes.put(entry.getValue(), entry.getKey());
+    }
+
+    final Path journalFile = directory.resolve(JOURNAL);
+    if (!Files.exists(journalFile) || !hasCurrentHeader(journalFile)) {
+      // journal is missing or predates the snapshot, the snapshot alone is the latest state
+      checkpoint(generation);
+      return;
+    }
+
+    journal = FileChannel.open(journalFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    final DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Channels.newInputStream(journal.position(HEADER_LENGTH))));
+    final long size = journal.size();
+    long valid = HEADER_LENGTH;
+    while (true) {
+      final byte[] record = readRecord(in, size - valid);
+      if (record == null) {
+        break;
+      }
+      replay(record, nodes);
+      valid += 8 + record.length;
+    }
+
+    // drop torn tail left by a crash in the middle of a write
+    journal.truncate(valid);
+    journal.close();
+    journal = FileChannel.open(journalFile, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+  }
+
+  private boolean hasCurrentHeader(final Path journalFile) throws IOException {
+    try (DataInputStream in = new DataInputStream(Files.newInputStream(journalFile))) {
+      return in.readInt() == MAGIC && in.readInt() == FORMAT_VERSION
+          && in.readLong() == generation;
+    } catch (EOFException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Reads record type and body, returns {@code null} if the journal ends or the record is torn.
+   * Record claiming more than {@code remaining} journal bytes has a damaged length and is torn.
+   */
+  private static byte[] readRecord(final DataInputStream in, final long remaining)
+      throws IOException {
+    try {
+      final int length = in.readInt();
+      if (length <= 0 || length > remaining - 8) {
+        return null;
+      }
+
+      final byte[] record = new byte[length];
+      in.readFully(record);
+      final int expected = in.readInt();
+
+      final CRC32 checksum = new CRC32();
+      checksum.update(record);
+
+      return (int) checksum.getValue() == expected ? record : null;
+    } catch (EOFException e) {
+      return null;
+    }
+  }
+
+  private void replay(final byte[] record, final Map<Long, Node<T>> nodes) throws IOException {
+    final InputStream in = new ByteArrayInputStream(record, 1, record.length - 1);
+    final Node<T> node = nodes.get(readVarLong(in));
+    if (node == null) {
+      throw new IOException("Malformed journal.");
+    }
+
+    if (record[0] == ADD_RECORD) {
+      node.addNode(JTreeSerializer.readNodes(in, codec, tree.isConcurrent(), n -> {
+        nodes.put(nextId, n);
+        register(n);
+      }));
+    } else if (record[0] == REMOVE_RECORD && node.getParent() != null) {
+      final Deque<Node<T>> removed = new ArrayDeque<>();
+      removed.push(node);
+      while (!removed.isEmpty()) {
+        final Node<T> current = removed.pop();
+        nodes.remove(ids.remove(current));
+        for (Node<T> child : current.children()) {
+          removed.push(child);
+        }
+      }
+      node.getParent().removeNode(node);
+    } else if (record[0] == MOVE_RECORD && node.getParent() != null) {
+      final Node<T> parent = nodes.get(readVarLong(in));
+      if (parent == null) {
+        throw new IOException("Malformed journal.");
+      }
+      node.moveTo(parent);
+    } else {
+      throw new IOException("Malformed journal.");
+    }
+  }
+
+  private void register(final Node<T> node) {
+    ids.put(node, nextId++);
+  }
+
+  private static void writeVarLong(final OutputStream out, final long value) throws IOException {
+    long rest = value;
+    while ((rest & ~0x7FL) != 0) {
+      out.write((int) (rest & 0x7F) | 0x80);
+      rest >>>= 7;
+    }
+    out.write((int) rest);
+  }
+
+  private static long readVarLong(final InputStream in) throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      final int b = in.read();
+      if (b < 0) {
+        throw new EOFException();
+      }
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+
+    throw new IOException("Malformed journal.");
+  }
+
+  private void verifyOpen() {
+    if (closed) {
+      throw new IllegalStateException("Journal is closed.");
+    }
+  }
+}
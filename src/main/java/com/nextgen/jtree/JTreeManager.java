@@ -22,16 +22,51 @@ public final class JTreeManager {
       throw new IllegalArgumentException();
     }
 
-    int limit = maxAllowedChildren - node.getSubtreeLength();
+    Node<T> current = node;
+    while (true) {
+      final int limit = maxAllowedChildren - current.getSubtreeLength();
 
-    if (limit <= 0) {
-      return 0;
+      if (limit <= 0) {
+        return 0;
+      }
+
+      if (current.getParent() == null) {
+        return limit;
+      }
+
+      current = current.getParent();
+    }
+  }
+
+  /**
+   * Calculates number of nodes which may still be added to {@code node} with respect to subtree
+   * capacities of {@code node} and all its ancestors.
+   * 
+   * @param node to be populated with child nodes
+   * @param <T> data type to be hold in {@code node}
+   * @return child nodes limit for {@code node} or {@link Node#UNBOUNDED} if neither {@code node}
+   *         nor its ancestors have subtree capacity set
+   * @throws IllegalArgumentException if {@code node} is {@code null}
+   * @see Node#setSubtreeCapacity(int)
+   */
+  public static <T> int defineCapacityLimitForNode(final Node<T> node) {
+    if (node == null) {
+      throw new IllegalArgumentException();
     }
 
-    if (node.getParent() == null) {
-      return limit;
+    int limit = Node.UNBOUNDED;
+    for (Node<T> current = node; current != null; current = current.getParent()) {
+      if (current.getSubtreeCapacity() == Node.UNBOUNDED) {
+        continue;
+      }
+
+      final int currentLimit =
+          Math.max(0, current.getSubtreeCapacity() - current.getSubtreeLength());
+      if (limit == Node.UNBOUNDED || currentLimit < limit) {
+        limit = currentLimit;
+      }
     }
 
-    return defineMaxChildrenLimitForNode(node.getParent(), maxAllowedChildren);
+    return limit;
   }
 }
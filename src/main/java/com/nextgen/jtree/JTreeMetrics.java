@@ -0,0 +1,382 @@
+package com.nextgen.jtree;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live instrumentation of a {@link JTree}: node count and maximum depth, counts and rates of added
+ * and removed nodes, searches with number of visited nodes, latency histogram of structure changes
+ * handlers dispatch and the slowest handler. Searches, modifications and handlers taking longer
+ * than a threshold are reported to a {@link SlowOperationListener}, which may e.g. commit them as
+ * flight recorder events.
+ * 
+ * Metrics are collected only while enabled by {@link #of(JTree)} until {@link #close()}. While no
+ * tree of the process has metrics enabled, operations pay for a single volatile read; otherwise
+ * every operation resolves the metrics of its tree through its ancestors. Metrics are collected
+ * for operations on any node of the tree, detached nodes are not instrumented.
+ * 
+ * @param <T> data type to be hold in nodes
+ */
+public final class JTreeMetrics<T> implements JTreeStructureChangesEventHandler<T> {
+  /**
+   * Number of buckets in the handlers latency histogram, bucket {@code i} counts dispatches taking
+   * at least {@code 2^i} and less than {@code 2^(i+1)} nanoseconds.
+   */
+  public static final int LATENCY_BUCKETS = 64;
+
+  private static final AtomicInteger ENABLED = new AtomicInteger();
+
+  private final JTree<T> tree;
+  private final long enabledAt = System.nanoTime();
+  private volatile boolean closed;
+
+  private final LongAdder added = new LongAdder();
+  private final LongAdder removed = new LongAdder();
+  private final LongAdder moved = new LongAdder();
+  private final LongAdder searches = new LongAdder();
+  private final LongAdder visited = new LongAdder();
+  private final LongAdder dispatches = new LongAdder();
+  private final AtomicLongArray latencies = new AtomicLongArray(LATENCY_BUCKETS);
+
+  private int[] nodesAtDepth = new int[16];
+  private int maxDepth;
+
+  private volatile long slowestLatency = -1;
+  private volatile JTreeStructureChangesEventHandler<T> slowestHandler;
+
+  private volatile long slowThreshold = Long.MAX_VALUE;
+  private volatile SlowOperationListener listener;
+
+  /**
+   * Represents kinds of instrumented operations.
+   */
+  public enum Operation {
+    SEARCH, ADD_NODE, REMOVE_NODE, MOVE_NODE, HANDLER
+  }
+
+  /**
+   * Represents callback notified of operations taking longer than the threshold.
+   */
+  @FunctionalInterface
+  public interface SlowOperationListener {
+    /**
+     * Handles slow {@code operation}.
+     * 
+     * @param operation kind of the operation
+     * @param durationNanos duration of the operation in nanoseconds
+     * @param nodes number of nodes visited by a search or added, removed or moved by a
+     *        modification, {@code 0} for a handler
+     * @param handler slow handler or {@code null} if operation is not a handler dispatch
+     */
+    void onSlowOperation(Operation operation, long durationNanos, long nodes,
+        JTreeStructureChangesEventHandler<?> handler);
+  }
+
+  private JTreeMetrics(final JTree<T> tree) {
+    this.tree = tree;
+  }
+
+  /**
+   * Enables metrics of {@code tree}.
+   * 
+   * @param tree tree to instrument
+   * @param <T> data type to be hold in nodes
+   * @return metrics of {@code tree}
+   * @throws IllegalArgumentException if {@code tree} is {@code null}
+   * @throws IllegalStateException if tree is empty or metrics of the tree are already enabled
+   */
+  public static <T> JTreeMetrics<T> of(final JTree<T> tree) {
+    if (tree == null) {
+      throw new IllegalArgumentException();
+    }
+    if (tree.getRoot() != null && tree.getRoot().metrics() != null) {
+      throw new IllegalStateException("Metrics are already enabled.");
+    }
+
+    final JTreeMetrics<T> metrics = new JTreeMetrics<>(tree);
+    synchronized (metrics) {
+      tree.addStructureChangesHandler(metrics);
+      metrics.account(tree.getRoot(), 0, 1);
+    }
+    ENABLED.incrementAndGet();
+
+    return metrics;
+  }
+
+  /**
+   * Identifies whether metrics of any tree are enabled.
+   */
+  static boolean isEnabled() {
+    return ENABLED.get() != 0;
+  }
+
+  /**
+   * Disables metrics, after which they are no longer updated.
+   */
+  public synchronized void close() {
+    if (!closed) {
+      closed = true;
+      tree.removeStructureChangesHandler(this);
+      ENABLED.decrementAndGet();
+    }
+  }
+
+  /**
+   * Sets {@code listener} notified of operations taking at least {@code thresholdNanos}.
+   * 
+   * @param thresholdNanos minimum duration of reported operations in nanoseconds
+   * @param listener callback or {@code null} to stop reporting
+   * @throws IllegalArgumentException if {@code thresholdNanos} is negative
+   */
+  public void setSlowOperationListener(final long thresholdNanos,
+      final SlowOperationListener listener) {
+    if (thresholdNanos < 0) {
+      throw new IllegalArgumentException();
+    }
+
+    this.listener = null;
+    this.slowThreshold = listener == null ? Long.MAX_VALUE : thresholdNanos;
+    this.listener = listener;
+  }
+
+  /**
+   * Gets current number of nodes in the tree.
+   * 
+   * @return number of nodes
+   */
+  public int getNodeCount() {
+    return 1 + tree.getRoot().getSubtreeLength();
+  }
+
+  /**
+   * Gets current number of edges between the root and the deepest node.
+   * 
+   * @return maximum depth
+   */
+  public synchronized int getMaxDepth() {
+    return maxDepth;
+  }
+
+  /**
+   * Gets number of nodes added since metrics were enabled.
+   * 
+   * @return number of added nodes
+   */
+  public long getAddedCount() {
+    return added.sum();
+  }
+
+  /**
+   * Gets number of nodes removed since metrics were enabled.
+   * 
+   * @return number of removed nodes
+   */
+  public long getRemovedCount() {
+    return removed.sum();
+  }
+
+  /**
+   * Gets number of nodes moved together with their subtrees since metrics were enabled.
+   * 
+   * @return number of moved nodes
+   */
+  public long getMovedCount() {
+    return moved.sum();
+  }
+
+  /**
+   * Gets average number of nodes added per second since metrics were enabled.
+   * 
+   * @return rate of added nodes
+   */
+  public double getAddedRate() {
+    return rate(added.sum());
+  }
+
+  /**
+   * Gets average number of nodes removed per second since metrics were enabled.
+   * 
+   * @return rate of removed nodes
+   */
+  public double getRemovedRate() {
+    return rate(removed.sum());
+  }
+
+  /**
+   * Gets number of searches run on nodes of the tree since metrics were enabled.
+   * 
+   * @return number of searches
+   */
+  public long getSearchCount() {
+    return searches.sum();
+  }
+
+  /**
+   * Gets average number of nodes visited by a search.
+   * 
+   * @return nodes visited per search or {@code 0} if there were no searches
+   */
+  public double getVisitedPerSearch() {
+    final long count = searches.sum();
+    return count == 0 ? 0 : (double) visited.sum() / count;
+  }
+
+  /**
+   * Gets number of handler invocations since metrics were enabled.
+   * 
+   * @return number of handler dispatches
+   */
+  public long getDispatchCount() {
+    return dispatches.sum();
+  }
+
+  /**
+   * Gets histogram of handler dispatch latencies.
+   * 
+   * @return {@link #LATENCY_BUCKETS} counts, element {@code i} counts dispatches taking at least
+   *         {@code 2^i} and less than {@code 2^(i+1)} nanoseconds
+   */
+  public long[] getDispatchLatencyHistogram() {
+    final long[] histogram = new long[LATENCY_BUCKETS];
+    for (int i = 0; i < LATENCY_BUCKETS; i++) {
+      histogram[i] = latencies.get(i);
+    }
+
+    return histogram;
+  }
+
+  /**
+   * Gets handler with the longest single dispatch.
+   * 
+   * @return the slowest handler or {@code null} if no handler was dispatched
+   */
+  public JTreeStructureChangesEventHandler<T> getSlowestHandler() {
+    return slowestHandler;
+  }
+
+  /**
+   * Gets duration of the longest single handler dispatch.
+   * 
+   * @return latency in nanoseconds or {@code -1} if no handler was dispatched
+   */
+  public long getSlowestHandlerLatency() {
+    return slowestLatency;
+  }
+
+  /**
+   * Accounts depths of added or removed nodes.
+   */
+  @Override
+  public synchronized void handle(final Node<T> changedNode, final Node<T> cause,
+      final TreeStructureChangeEvent event) {
+    if (event == TreeStructureChangeEvent.ADD_NODE) {
+      if (cause.getParent() == changedNode) {
+        account(cause, depth(changedNode) + 1, 1);
+      }
+    } else if (event == TreeStructureChangeEvent.REMOVE_NODE) {
+      account(cause, depth(changedNode) + 1, -1);
+    }
+  }
+
+  void recordSearch(final long visitedNodes, final long nanos) {
+    searches.increment();
+    visited.add(visitedNodes);
+    if (nanos >= slowThreshold) {
+      report(Operation.SEARCH, nanos, visitedNodes, null);
+    }
+  }
+
+  void recordModification(final TreeStructureChangeEvent event, final long nodes,
+      final long nanos) {
+    final Operation operation;
+    if (event == TreeStructureChangeEvent.ADD_NODE) {
+      added.add(nodes);
+      operation = Operation.ADD_NODE;
+    } else if (event == TreeStructureChangeEvent.REMOVE_NODE) {
+      removed.add(nodes);
+      operation = Operation.REMOVE_NODE;
+    } else {
+      moved.add(nodes);
+      operation = Operation.MOVE_NODE;
+    }
+    if (nanos >= slowThreshold) {
+      report(operation, nanos, nodes, null);
+    }
+  }
+
+  void recordDispatch(final JTreeStructureChangesEventHandler<T> handler, final long nanos) {
+    dispatches.increment();
+    latencies.incrementAndGet(63 - Long.numberOfLeadingZeros(Math.max(1, nanos)));
+    if (nanos > slowestLatency) {
+      synchronized (latencies) {
+        if (nanos > slowestLatency) {
+          slowestHandler = handler;
+          slowestLatency = nanos;
+        }
+      }
+    }
+    if (nanos >= slowThreshold) {
+      report(Operation.HANDLER, nanos, 0, handler);
+    }
+  }
+
+  private void report(final Operation operation, final long nanos, final long nodes,
+      final JTreeStructureChangesEventHandler<?> handler) {
+    final SlowOperationListener current = listener;
+    if (current != null) {
+      current.onSlowOperation(operation, nanos, nodes, handler);
+    }
+  }
+
+  private double rate(final long count) {
+    final long elapsed = System.nanoTime() - enabledAt;
+    return elapsed <= 0 ? 0 : count * 1e9 / elapsed;
+  }
+
+  private static int depth(final Node<?> node) {
+    int depth = 0;
+    for (Node<?> ancestor = node.getParent(); ancestor != null; ancestor = ancestor.getParent()) {
+      depth++;
+    }
+
+    return depth;
+  }
+
+  /**
+   * Adds {@code sign} to number of nodes at every depth of subtree of {@code top} found at
+   * {@code topDepth}.
+   */
+  private void account(final Node<T> top, final int topDepth, final int sign) {
+    final Deque<Node<T>> pending = new ArrayDeque<>();
+    final Deque<Integer> depths = new ArrayDeque<>();
+    pending.push(top);
+    depths.push(topDepth);
+    while (!pending.isEmpty()) {
+      final Node<T> node = pending.pop();
+      final int depth = depths.pop();
+      if (depth >= nodesAtDepth.length) {
+        nodesAtDepth = Arrays.copyOf(nodesAtDepth, Math.max(depth + 1, nodesAtDepth.length * 2));
+      }
+      nodesAtDepth[depth] += sign;
+
+      for (Node<T> child : node.children()) {
+        pending.push(child);
+        depths.push(depth + 1);
+      }
+    }
+
+    if (sign > 0) {
+      while (maxDepth + 1 < nodesAtDepth.length && nodesAtDepth[maxDepth + 1] > 0) {
+        maxDepth++;
+      }
+    } else {
+      while (maxDepth > 0 && nodesAtDepth[maxDepth] == 0) {
+        maxDepth--;
+      }
+    }
+  }
+}
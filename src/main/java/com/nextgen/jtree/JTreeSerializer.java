@@ -0,0 +1,326 @@
+package com.nextgen.jtree;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Utility class writing {@link JTree} to a stream in compact binary format and reading it back.
+ * 
+ * Format starts with a header of four magic bytes, format version byte and flags byte, followed by
+ * nodes in pre-order. Node is written as number of its children and length of its data, both as
+ * unsigned variable-length integers, followed by data converted to bytes by a
+ * {@link PayloadCodec}. Nodes are written and read one by one: writing keeps only nodes still to
+ * be visited and reading keeps only nodes still waiting for their children, so neither side ever
+ * holds a copy of the tree and depth of the tree is not limited by thread stack. Subtree
+ * capacities and structure changes handlers are not written.
+ */
+public final class JTreeSerializer {
+  /**
+   * Version of the format written by this class.
+   */
+  public static final int FORMAT_VERSION = 1;
+
+  private static final int MAGIC = 0x4A545246;
+
+  private static final int MAX_PRESIZED_CHILDREN = 16;
+
+  private static final int FLAG_ROOT = 1;
+  private static final int FLAG_CONCURRENT = 1 << 1;
+
+  private JTreeSerializer() {}
+
+  /**
+   * Writes {@code tree} to {@code out} converting data with {@code codec}. Tree must not be
+   * modified while written, {@code out} is flushed but not closed.
+   * 
+   * @param tree tree to write
+   * @param out stream to write to
+   * @param codec converter of data to bytes
+   * @param <T> data type to be hold in tree
+   * @throws IllegalArgumentException if any argument is {@code null}
+   * @throws IOException if writing to {@code out} fails
+   */
+  public static <T> void write(final JTree<T> tree, final OutputStream out,
+      final PayloadCodec<T> codec) throws IOException {
+    if (tree == null || out == null || codec == null) {
+      throw new IllegalArgumentException();
+    }
+
+    write(tree, out, codec, node -> {});
+  }
+
+  /**
+   * Writes {@code tree} to {@code out} passing every written node to {@code visitor} in the order
+   * {@link #read(InputStream, PayloadCodec, Consumer)} reads them back.
+   * 
+   * @param tree tree to write
+   * @param out stream to write to
+   * @param codec converter of data to bytes
+   * @param visitor consumer of written nodes
+   * @param <T> data type to be hold in tree
+   * @throws IOException if writing to {@code out} fails
+   */
+  static <T> void write(final JTree<T> tree, final OutputStream out, final PayloadCodec<T> codec,
+      final Consumer<Node<T>> visitor) throws IOException {
+    final OutputStream target =
+        out instanceof BufferedOutputStream ? out : new BufferedOutputStream(out);
+    final Node<T> root = tree.getRoot();
+
+    writeInt(target, MAGIC);
+    target.write(FORMAT_VERSION);
+    target.write((root != null ? FLAG_ROOT : 0) | (tree.isConcurrent() ? FLAG_CONCURRENT : 0));
+
+    if (root != null) {
+      writeNodes(root, target, codec, visitor);
+    }
+
+    target.flush();
+  }
+
+  /**
+   * Writes nodes of subtree started at {@code root} (inclusive) to {@code out} without any header.
+   * 
+   * @param root root of subtree to write
+   * @param out stream to write to
+   * @param codec converter of data to bytes
+   * @param visitor consumer of written nodes
+   * @param <T> data type to be hold in nodes
+   * @throws IOException if writing to {@code out} fails
+   */
+  static <T> void writeNodes(final Node<T> root, final OutputStream out,
+      final PayloadCodec<T> codec, final Consumer<Node<T>> visitor) throws IOException {
+    final Deque<Node<T>> pending = new ArrayDeque<>();
+    pending.push(root);
+    while (!pending.isEmpty()) {
+      final Node<T> node = pending.pop();
+
+      // snapshot of children pushed last to first, so they are written in their own order
+      final List<Node<T>> children = new ArrayList<>();
+      for (Node<T> child : node.children()) {
+        children.add(child);
+      }
+      for (int i = children.size() - 1; i >= 0; i--) {
+        pending.push(children.get(i));
+      }
+
+      final byte[] payload = codec.encode(node.getData());
+      writeVarInt(out, children.size());
+      writeVarInt(out, payload.length);
+      out.write(payload);
+      visitor.accept(node);
+    }
+  }
+
+  /**
+   * Reads tree previously written by {@link #write(JTree, OutputStream, PayloadCodec)} from
+   * {@code in} converting data with {@code codec}. Tree is restored in the concurrency mode it was
+   * written in. {@code in} is not closed, but may be read beyond the end of the tree.
+   * 
+   * @param in stream to read from
+   * @param codec converter of bytes to data
+   * @param <T> data type to be hold in tree
+   * @return read tree
+   * @throws IllegalArgumentException if any argument is {@code null}
+   * @throws IOException if reading from {@code in} fails, the stream ends before the whole tree
+   *         is read or does not hold a tree in a supported format
+   */
+  public static <T> JTree<T> read(final InputStream in, final PayloadCodec<T> codec)
+      throws IOException {
+    if (in == null || codec == null) {
+      throw new IllegalArgumentException();
+    }
+
+    return read(in, codec, node -> {});
+  }
+
+  /**
+   * Reads tree from {@code in} passing every read node to {@code visitor} in the order
+   * {@link #write(JTree, OutputStream, PayloadCodec, Consumer)} has written them.
+   * 
+   * @param in stream to read from
+   * @param codec converter of bytes to data
+   * @param visitor consumer of read nodes
+   * @param <T> data type to be hold in tree
+   * @return read tree
+   * @throws IOException if reading from {@code in} fails, the stream ends before the whole tree
+   *         is read or does not hold a tree in a supported format
+   */
+  static <T> JTree<T> read(final InputStream in, final PayloadCodec<T> codec,
+      final Consumer<Node<T>> visitor) throws IOException {
+    final InputStream source = in instanceof BufferedInputStream ? in : new BufferedInputStream(in);
+    if (readInt(source) != MAGIC) {
+      throw new IOException("Not a tree stream.");
+    }
+    final int version = readByte(source);
+    if (version != FORMAT_VERSION) {
+      throw new IOException("Unsupported format version " + version + ".");
+    }
+    final int flags = readByte(source);
+    final boolean concurrent = (flags & FLAG_CONCURRENT) != 0;
+    if ((flags & FLAG_ROOT) == 0) {
+      return concurrent ? JTree.concurrentEmptyTree() : JTree.emptyTree();
+    }
+
+    return JTree.treeOf(readNodes(source, codec, concurrent, visitor));
+  }
+
+  /**
+   * Reads nodes written by {@link #writeNodes(Node, OutputStream, PayloadCodec, Consumer)} from
+   * {@code in} and links them into detached subtree.
+   * 
+   * @param in stream to read from
+   * @param codec converter of bytes to data
+   * @param concurrent concurrency mode of read nodes
+   * @param visitor consumer of read nodes
+   * @param <T> data type to be hold in nodes
+   * @return root of read subtree
+   * @throws IOException if reading from {@code in} fails or the stream is malformed
+   */
+  static <T> Node<T> readNodes(final InputStream in, final PayloadCodec<T> codec,
+      final boolean concurrent, final Consumer<Node<T>> visitor) throws IOException {
+    final PayloadReader<T> payloads = new PayloadReader<>(codec);
+
+    // nodes still waiting for their children with number of children still to be read
+    final Deque<Node<T>> parents = new ArrayDeque<>();
+    int[] remaining = new int[16];
+
+    Node<T> root = null;
+    do {
+      // counts are not trusted for presizing, children beyond it are added as they arrive
+      final int children = readVarInt(in);
+      final Node<T> node =
+          new Node<>(payloads.read(in), concurrent, Math.min(children, MAX_PRESIZED_CHILDREN));
+      visitor.accept(node);
+
+      if (root == null) {
+        root = node;
+      } else {
+        parents.peek().link(node);
+        remaining[parents.size() - 1]--;
+      }
+
+      if (children > 0) {
+        if (parents.size() == remaining.length) {
+          remaining = Arrays.copyOf(remaining, remaining.length << 1);
+        }
+        remaining[parents.size()] = children;
+        parents.push(node);
+      } else {
+        // node is complete, so are its ancestors having no more children to read
+        Node<T> complete = node;
+        while (!parents.isEmpty()) {
+          final Node<T> parent = parents.peek();
+          parent.accountSubtreeLength(complete);
+          if (remaining[parents.size() - 1] > 0) {
+            break;
+          }
+          parents.pop();
+          complete = parent;
+        }
+      }
+    } while (!parents.isEmpty());
+
+    return root;
+  }
+
+  /**
+   * Reads payloads into a single reusable buffer. Buffer grows only as payload bytes actually
+   * arrive, so a malformed length ends with {@link EOFException} rather than a huge allocation.
+   */
+  private static final class PayloadReader<T> {
+    private final PayloadCodec<T> codec;
+    private byte[] bytes = new byte[64];
+    private ByteBuffer buffer = ByteBuffer.wrap(bytes);
+
+    PayloadReader(final PayloadCodec<T> codec) {
+      this.codec = codec;
+    }
+
+    T read(final InputStream in) throws IOException {
+      final int length = readVarInt(in);
+      int read = 0;
+      while (read < length) {
+        if (read == bytes.length) {
+          bytes = Arrays.copyOf(bytes, (int) Math.min(length, (long) bytes.length << 1));
+          buffer = ByteBuffer.wrap(bytes);
+        }
+        read += readSome(in, bytes, read, Math.min(length, bytes.length) - read);
+      }
+
+      buffer.clear();
+      buffer.limit(length);
+      final T data = codec.decode(buffer);
+      if (data == null) {
+        throw new IOException("Malformed tree stream.");
+      }
+
+      return data;
+    }
+  }
+
+  private static void writeInt(final OutputStream out, final int value) throws IOException {
+    out.write(value >>> 24);
+    out.write(value >>> 16);
+    out.write(value >>> 8);
+    out.write(value);
+  }
+
+  private static void writeVarInt(final OutputStream out, final int value) throws IOException {
+    int rest = value;
+    while ((rest & ~0x7F) != 0) {
+      out.write((rest & 0x7F) | 0x80);
+      rest >>>= 7;
+    }
+    out.write(rest);
+  }
+
+  private static int readInt(final InputStream in) throws IOException {
+    return readByte(in) << 24 | readByte(in) << 16 | readByte(in) << 8 | readByte(in);
+  }
+
+  private static int readVarInt(final InputStream in) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      final int b = readByte(in);
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        if (value < 0) {
+          break;
+        }
+        return value;
+      }
+    }
+
+    throw new IOException("Malformed tree stream.");
+  }
+
+  private static int readByte(final InputStream in) throws IOException {
+    final int b = in.read();
+    if (b < 0) {
+      throw new EOFException();
+    }
+
+    return b;
+  }
+
+  private static int readSome(final InputStream in, final byte[] bytes, final int offset,
+      final int length) throws IOException {
+    final int count = in.read(bytes, offset, length);
+    if (count < 0) {
+      throw new EOFException();
+    }
+
+    return count;
+  }
+}
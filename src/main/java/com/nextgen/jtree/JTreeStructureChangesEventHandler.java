@@ -1,7 +1,9 @@
 package com.nextgen.jtree;
 
+import java.util.List;
+
 /**
- * Represents event handler for {@link JTree} structure changes namely adding and removing
+ * Represents event handler for {@link JTree} structure changes namely adding, removing and moving
  * {@link Node}s.
  * 
  * Clients are expected to implement this interface in order to provide custom event handler for
@@ -15,7 +17,7 @@ public interface JTreeStructureChangesEventHandler<T> {
    * Represents types of evens in {@link JTree}.
    */
   public enum TreeStructureChangeEvent {
-    ADD_NODE, REMOVE_NODE
+    ADD_NODE, REMOVE_NODE, MOVE_NODE
   };
 
   /**
@@ -26,4 +28,36 @@ public interface JTreeStructureChangesEventHandler<T> {
    * @param event type of structural modification
    */
   void handle(Node<T> changedNode, Node<T> cause, TreeStructureChangeEvent event);
+
+  /**
+   * Handles single {@code event} caused by several {@code causes} nodes at once to
+   * {@code changedNode}, e.g. bulk addition of nodes. Default implementation handles every cause
+   * separately.
+   * 
+   * @param changedNode node under structural modification
+   * @param causes nodes cause structural modification
+   * @param event type of structural modification
+   */
+  default void handleAll(Node<T> changedNode, List<Node<T>> causes,
+      TreeStructureChangeEvent event) {
+    for (Node<T> cause : causes) {
+      handle(changedNode, cause, event);
+    }
+  }
+
+  /**
+   * Handles single {@link TreeStructureChangeEvent#MOVE_NODE} event moving {@code cause} with its
+   * subtree from {@code oldParent} to {@code newParent}, see {@link Node#moveTo(Node)}. The event
+   * is delivered to handlers applying to both parents; handler applying to only one of them is
+   * notified of removal from {@code oldParent} or addition to {@code newParent} instead. Default
+   * implementation handles move as removal followed by addition.
+   * 
+   * @param oldParent former parent of {@code cause}
+   * @param newParent current parent of {@code cause}
+   * @param cause moved node
+   */
+  default void handleMove(Node<T> oldParent, Node<T> newParent, Node<T> cause) {
+    handle(oldParent, cause, TreeStructureChangeEvent.REMOVE_NODE);
+    handle(newParent, cause, TreeStructureChangeEvent.ADD_NODE);
+  }
 }
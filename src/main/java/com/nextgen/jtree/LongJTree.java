@@ -0,0 +1,147 @@
+package com.nextgen.jtree;
+
+import java.util.Arrays;
+import java.util.function.LongPredicate;
+
+/**
+ * Represents tree container specialized for {@code long} data. Stored the same way as
+ * {@link CompactJTree}, but data is kept in a {@code long} array, so a node takes twenty four
+ * bytes in total, and searches take {@code LongPredicate} and return primitive arrays, so no value
+ * is ever boxed.
+ * 
+ * {@code LongJTree} is not safe for concurrent modification. Index of a removed node may be reused
+ * by nodes added later.
+ */
+public final class LongJTree extends AbstractCompactTree {
+  /**
+   * Index standing for absence of a node.
+   */
+  public static final int NO_NODE = CompactTopology.NO_NODE;
+
+  /**
+   * Index of the tree root.
+   */
+  public static final int ROOT = 0;
+
+  private long[] data;
+
+  private LongJTree(final int expectedSize) {
+    super(new CompactTopology(expectedSize));
+    data = new long[topology.capacity()];
+  }
+
+  /**
+   * Creates empty {@code LongJTree} without root initialized.
+   * 
+   * @return {@code LongJTree} tree
+   */
+  public static LongJTree emptyTree() {
+    return new LongJTree(16);
+  }
+
+  /**
+   * Creates {@code LongJTree} with root already populated with {@code data} and room for
+   * {@code expectedSize} nodes including root.
+   * 
+   * @param data data to be hold in tree root
+   * @param expectedSize expected number of nodes
+   * @return {@code LongJTree} with root
+   * @throws IllegalArgumentException if {@code expectedSize} is negative
+   */
+  public static LongJTree treeWithRoot(final long data, final int expectedSize) {
+    if (expectedSize < 0) {
+      throw new IllegalArgumentException();
+    }
+
+    final LongJTree tree = new LongJTree(expectedSize);
+    tree.addRoot(data);
+
+    return tree;
+  }
+
+  /**
+   * Adds root to {@code LongJTree} populating it with specified {@code data}.
+   * 
+   * @param data data to be hold in tree root
+   * @return {@link #ROOT}
+   * @throws IllegalStateException if root already initialized
+   */
+  public int addRoot(final long data) {
+    return store(allocateRoot(), data);
+  }
+
+  /**
+   * Adds node populated with {@code data} as a child of node with {@code parent} index.
+   * 
+   * @param parent index of parent node
+   * @param data data to be hold in added node
+   * @return index of added node
+   * @throws IllegalArgumentException if {@code parent} is not an index of a node of the tree
+   */
+  public int addNode(final int parent, final long data) {
+    return store(allocate(parent), data);
+  }
+
+  /**
+   * Gets data hold in node with {@code node} index.
+   * 
+   * @param node node index
+   * @return data of the node
+   * @throws IllegalArgumentException if {@code node} is not an index of a node of the tree
+   */
+  public long getData(final int node) {
+    verifyNode(node);
+
+    return data[node];
+  }
+
+  /**
+   * Searches the tree for data satisfying conditions provided in {@code filter}.
+   * 
+   * @param filter conditional predicate to search for
+   * @return distinct found data in ascending order
+   * @throws IllegalArgumentException if {@code filter} is {@code null}
+   * @throws IllegalStateException if tree is empty
+   */
+  public long[] findData(final LongPredicate filter) {
+    final int[] nodes = findNodes(filter);
+    final long[] found = new long[nodes.length];
+    for (int i = 0; i < nodes.length; i++) {
+      found[i] = data[nodes[i]];
+    }
+    Arrays.sort(found);
+
+    int distinct = 0;
+    for (int i = 0; i < found.length; i++) {
+      if (i == 0 || found[i] != found[distinct - 1]) {
+        found[distinct++] = found[i];
+      }
+    }
+
+    return distinct == found.length ? found : Arrays.copyOf(found, distinct);
+  }
+
+  /**
+   * Searches the tree for nodes with data satisfying conditions provided in {@code filter}.
+   * 
+   * @param filter conditional predicate to search for
+   * @return indices of found nodes in ascending order
+   * @throws IllegalArgumentException if {@code filter} is {@code null}
+   * @throws IllegalStateException if tree is empty
+   */
+  public int[] findNodes(final LongPredicate filter) {
+    verifySearch(filter);
+
+    final long[] values = data;
+    return scan(node -> filter.test(values[node]));
+  }
+
+  private int store(final int node, final long value) {
+    if (data.length < topology.capacity()) {
+      data = Arrays.copyOf(data, topology.capacity());
+    }
+    data[node] = value;
+
+    return node;
+  }
+}
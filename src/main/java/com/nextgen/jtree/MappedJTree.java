@@ -0,0 +1,634 @@
+package com.nextgen.jtree;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+
+/**
+ * Represents tree container keeping both structure and data in a memory-mapped file instead of the
+ * Java heap. Node is a {@code long} position of its record in the file; record holds positions of
+ * parent, first child and next sibling, subtree length and data converted to bytes by a
+ * {@link PayloadCodec}. Records are only ever appended, the file is mapped in segments of equal
+ * size and a record never crosses segment boundary, so trees much larger than the heap may be kept
+ * and searched. Searches scan segments front to back, parallel searches scan different segments in
+ * different workers.
+ * 
+ * Tree reopened with {@link #open(Path, PayloadCodec)} maps existing file as is, nothing is read
+ * until accessed. Modifications reach the file when the operating system writes mapped pages back
+ * or on {@link #force()} and {@link #close()}; file is consistent only after either of them
+ * completed. Space of removed nodes is not reclaimed.
+ * 
+ * Node positions are expected to come from this API. Every record starts with a marker word, so a
+ * position pointing into a record is rejected unless its payload happens to mimic the marker.
+ * 
+ * {@code MappedJTree} is not safe for concurrent modification.
+ * 
+ * @param <T> data type to be hold in nodes
+ */
+public final class MappedJTree<T> implements TreeSearcheable<T, MappedNode<T>>, Closeable {
+  /**
+   * Position standing for absence of a node.
+   */
+  public static final long NO_NODE = -1L;
+
+  static final int DEFAULT_SEGMENT_SHIFT = 26;
+
+  // segment holds at least the header and the smallest record, mapping is limited to int size
+  static final int MIN_SEGMENT_SHIFT = 7;
+  static final int MAX_SEGMENT_SHIFT = 30;
+
+  private static final int MAGIC = 0x4A545245;
+  private static final int FORMAT = 2;
+
+  // file header: magic, format, segment shift, size, end of last record
+  private static final int HEADER_MAGIC = 0;
+  private static final int HEADER_FORMAT = 4;
+  private static final int HEADER_SEGMENT_SHIFT = 8;
+  private static final int HEADER_SIZE = 12;
+  private static final int HEADER_END = 16;
+  private static final int HEADER_LENGTH = 32;
+
+  // node record: record length, marker, parent, first child, next sibling, subtree length,
+  // payload length
+  private static final int RECORD_LENGTH = 0;
+  private static final int RECORD_MARKER = 4;
+  private static final int RECORD_PARENT = 8;
+  private static final int RECORD_FIRST_CHILD = 16;
+  private static final int RECORD_NEXT_SIBLING = 24;
+  private static final int RECORD_SUBTREE_LENGTH = 32;
+  private static final int RECORD_PAYLOAD_LENGTH = 36;
+  private static final int RECORD_PAYLOAD = 40;
+
+  // odd, so a handle pointing at a position field of a record never finds it
+  private static final int MARKER = 0x4A54524D;
+
+  private static final int REMOVED = -1;
+  private static final int ALIGNMENT = 8;
+
+  /**
+   * Position of the tree root.
+   */
+  public static final long ROOT = HEADER_LENGTH;
+
+  private final FileChannel channel;
+  private final PayloadCodec<T> codec;
+  private final int segmentShift;
+  private final long segmentMask;
+  private final List<MappedByteBuffer> segments = new ArrayList<>();
+
+  private long end;
+  private int size;
+  private boolean closed;
+
+  private MappedJTree(final FileChannel channel, final PayloadCodec<T> codec,
+      final int segmentShift) throws IOException {
+    this.channel = channel;
+    this.codec = codec;
+
+    if (channel.size() == 0) {
+      this.segmentShift = segmentShift;
+      this.segmentMask = (1L << segmentShift) - 1;
+      this.end = HEADER_LENGTH;
+
+      final MappedByteBuffer header = segment(0);
+      header.putInt(HEADER_MAGIC, MAGIC);
+      header.putInt(HEADER_FORMAT, FORMAT);
+      header.putInt(HEADER_SEGMENT_SHIFT, segmentShift);
+      writeHeader();
+    } else {
+      final ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+      while (header.hasRemaining()) {
+        if (channel.read(header, header.position()) < 0) {
+          break;
+        }
+      }
+      if (header.hasRemaining() || header.getInt(HEADER_MAGIC) != MAGIC
+          || header.getInt(HEADER_FORMAT) != FORMAT) {
+        throw new IOException("Not a tree file.");
+      }
+
+      this.segmentShift = header.getInt(HEADER_SEGMENT_SHIFT);
+      this.segmentMask = (1L << this.segmentShift) - 1;
+      this.size = header.getInt(HEADER_SIZE);
+      this.end = header.getLong(HEADER_END);
+      if (this.segmentShift < MIN_SEGMENT_SHIFT || this.segmentShift > MAX_SEGMENT_SHIFT
+          || this.size < 0 || this.end < HEADER_LENGTH || this.end > channel.size()) {
+        throw new IOException("Malformed tree file.");
+      }
+      segment((int) ((end - 1) >>> this.segmentShift));
+    }
+  }
+
+  /**
+   * Opens {@code MappedJTree} stored in {@code file} creating empty tree if the file does not
+   * exist or is empty.
+   * 
+   * @param file file to store the tree in
+   * @param codec converter of data to bytes and back
+   * @param <T> data type to be hold in tree
+   * @return opened {@code MappedJTree}
+   * @throws IllegalArgumentException if {@code file} or {@code codec} is {@code null}
+   * @throws IOException if the file cannot be opened or mapped or is not a tree file
+   */
+  public static <T> MappedJTree<T> open(final Path file, final PayloadCodec<T> codec)
+      throws IOException {
+    return open(file, codec, DEFAULT_SEGMENT_SHIFT);
+  }
+
+  static <T> MappedJTree<T> open(final Path file, final PayloadCodec<T> codec,
+      final int segmentShift) throws IOException {
+    if (file == null || codec == null || segmentShift < MIN_SEGMENT_SHIFT
+        || segmentShift > MAX_SEGMENT_SHIFT) {
+      throw new IllegalArgumentException();
+    }
+
+    final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      return new MappedJTree<>(channel, codec, segmentShift);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Adds root to {@code MappedJTree} populating it with specified {@code data}.
+   * 
+   * @param data data to be hold in tree root
+   * @return {@link #ROOT}
+   * @throws IllegalArgumentException if {@code data} is null
+   * @throws IllegalStateException if root already initialized or tree is closed
+   */
+  public long addRoot(final T data) {
+    if (data == null) {
+      throw new IllegalArgumentException();
+    }
+    verifyOpen();
+    if (size > 0) {
+      throw new IllegalStateException("Root is already initialized");
+    }
+
+    return append(NO_NODE, data);
+  }
+
+  /**
+   * Adds node populated with {@code data} as a child of node at {@code parent} position.
+   * 
+   * @param parent position of parent node
+   * @param data data to be hold in added node
+   * @return position of added node
+   * @throws IllegalArgumentException if {@code data} is null, its bytes do not fit into a segment
+   *         or {@code parent} is not a position of a node of the tree
+   * @throws IllegalStateException if tree is closed
+   */
+  public long addNode(final long parent, final T data) {
+    if (data == null) {
+      throw new IllegalArgumentException();
+    }
+    verifyNode(parent);
+
+    final long node = append(parent, data);
+
+    putLong(node, RECORD_NEXT_SIBLING, getLong(parent, RECORD_FIRST_CHILD));
+    putLong(parent, RECORD_FIRST_CHILD, node);
+    for (long a = parent; a != NO_NODE; a = getLong(a, RECORD_PARENT)) {
+      putInt(a, RECORD_SUBTREE_LENGTH, getInt(a, RECORD_SUBTREE_LENGTH) + 1);
+    }
+
+    return node;
+  }
+
+  /**
+   * Removes node at {@code node} position together with its whole subtree.
+   * 
+   * @param node position of node to remove
+   * @return number of removed nodes
+   * @throws IllegalArgumentException if {@code node} is the root or is not a position of a node
+   *         of the tree
+   * @throws IllegalStateException if tree is closed
+   */
+  public int removeNode(final long node) {
+    verifyNode(node);
+    if (node == ROOT) {
+      throw new IllegalArgumentException();
+    }
+
+    final long parent = getLong(node, RECORD_PARENT);
+    final int removed = 1 + getInt(node, RECORD_SUBTREE_LENGTH);
+
+    final long next = getLong(node, RECORD_NEXT_SIBLING);
+    long sibling = getLong(parent, RECORD_FIRST_CHILD);
+    if (sibling == node) {
+      putLong(parent, RECORD_FIRST_CHILD, next);
+    } else {
+      while (getLong(sibling, RECORD_NEXT_SIBLING) != node) {
+        sibling = getLong(sibling, RECORD_NEXT_SIBLING);
+      }
+      putLong(sibling, RECORD_NEXT_SIBLING, next);
+    }
+    for (long a = parent; a != NO_NODE; a = getLong(a, RECORD_PARENT)) {
+      putInt(a, RECORD_SUBTREE_LENGTH, getInt(a, RECORD_SUBTREE_LENGTH) - removed);
+    }
+
+    long[] pending = new long[16];
+    int count = 0;
+    pending[count++] = node;
+    while (count > 0) {
+      final long current = pending[--count];
+      for (long c = getLong(current, RECORD_FIRST_CHILD); c != NO_NODE;
+          c = getLong(c, RECORD_NEXT_SIBLING)) {
+        if (count == pending.length) {
+          pending = Arrays.copyOf(pending, count << 1);
+        }
+        pending[count++] = c;
+      }
+      putInt(current, RECORD_SUBTREE_LENGTH, REMOVED);
+    }
+
+    size -= removed;
+    writeHeader();
+
+    return removed;
+  }
+
+  /**
+   * Gets number of nodes in the tree.
+   * 
+   * @return number of nodes including the root
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Gets data hold in node at {@code node} position.
+   * 
+   * @param node node position
+   * @return data of the node
+   * @throws IllegalArgumentException if {@code node} is not a position of a node of the tree
+   * @throws IllegalStateException if tree is closed
+   */
+  public T getData(final long node) {
+    verifyNode(node);
+
+    final ByteBuffer records = segments.get((int) (node >>> segmentShift));
+    return decode(records, records.duplicate(), (int) (node & segmentMask));
+  }
+
+  /**
+   * Gets position of parent of node at {@code node} position.
+   * 
+   * @param node node position
+   * @return parent position or {@link #NO_NODE} for the root
+   * @throws IllegalArgumentException if {@code node} is not a position of a node of the tree
+   * @throws IllegalStateException if tree is closed
+   */
+  public long getParent(final long node) {
+    verifyNode(node);
+
+    return getLong(node, RECORD_PARENT);
+  }
+
+  /**
+   * Gets position of the first child of node at {@code node} position.
+   * 
+   * @param node node position
+   * @return first child position or {@link #NO_NODE} for a leaf
+   * @throws IllegalArgumentException if {@code node} is not a position of a node of the tree
+   * @throws IllegalStateException if tree is closed
+   */
+  public long getFirstChild(final long node) {
+    verifyNode(node);
+
+    return getLong(node, RECORD_FIRST_CHILD);
+  }
+
+  /**
+   * Gets position of the next sibling of node at {@code node} position.
+   * 
+   * @param node node position
+   * @return next sibling position or {@link #NO_NODE} for the last child
+   * @throws IllegalArgumentException if {@code node} is not a position of a node of the tree
+   * @throws IllegalStateException if tree is closed
+   */
+  public long getNextSibling(final long node) {
+    verifyNode(node);
+
+    return getLong(node, RECORD_NEXT_SIBLING);
+  }
+
+  /**
+   * Gets number of all descendants of node at {@code node} position.
+   * 
+   * @param node node position
+   * @return full subtree length
+   * @throws IllegalArgumentException if {@code node} is not a position of a node of the tree
+   * @throws IllegalStateException if tree is closed
+   */
+  public int getSubtreeLength(final long node) {
+    verifyNode(node);
+
+    return getInt(node, RECORD_SUBTREE_LENGTH);
+  }
+
+  /**
+   * Gets {@link MappedNode} view of node at {@code node} position.
+   * 
+   * @param node node position
+   * @return view of the node
+   * @throws IllegalArgumentException if {@code node} is not a position of a node of the tree
+   * @throws IllegalStateException if tree is closed
+   */
+  public MappedNode<T> getNode(final long node) {
+    verifyNode(node);
+
+    return new MappedNode<>(this, node);
+  }
+
+  @Override
+  public Set<T> findData(final Predicate<T> filter) {
+    verifySearch(filter);
+
+    return scan(filter, 0, segments.size(), this::dataAt, new HashSet<>());
+  }
+
+  @Override
+  public Set<MappedNode<T>> findNodes(final Predicate<T> filter) {
+    verifySearch(filter);
+
+    return scan(filter, 0, segments.size(), this::nodeAt, new HashSet<>());
+  }
+
+  /**
+   * @throws IllegalArgumentException if {@code pool} is {@code null}
+   */
+  @Override
+  public Set<T> findDataParallel(final Predicate<T> filter, final ForkJoinPool pool) {
+    if (pool == null) {
+      throw new IllegalArgumentException();
+    }
+    verifySearch(filter);
+
+    return pool.invoke(new RangeSearch<T, Set<T>>(
+        (from, to, collector) -> scan(filter, from, to, this::dataAt, collector), HashSet::new, 0,
+        segments.size(), 1));
+  }
+
+  /**
+   * @throws IllegalArgumentException if {@code pool} is {@code null}
+   */
+  @Override
+  public Set<MappedNode<T>> findNodesParallel(final Predicate<T> filter,
+      final ForkJoinPool pool) {
+    if (pool == null) {
+      throw new IllegalArgumentException();
+    }
+    verifySearch(filter);
+
+    return pool.invoke(new RangeSearch<MappedNode<T>, Set<MappedNode<T>>>(
+        (from, to, collector) -> scan(filter, from, to, this::nodeAt, collector), HashSet::new, 0,
+        segments.size(), 1));
+  }
+
+  /**
+   * @throws IllegalArgumentException if {@code comparator} is {@code null} or {@code k} is
+   *         negative
+   */
+  @Override
+  public List<T> findTopK(final Predicate<T> filter, final Comparator<? super T> comparator,
+      final int k) {
+    verifyTopK(comparator, k);
+    verifySearch(filter);
+
+    return scan(filter, 0, segments.size(), this::dataAt, new TopK<T>(comparator, k)).toList();
+  }
+
+  /**
+   * @throws IllegalArgumentException if {@code comparator} or {@code pool} is {@code null} or
+   *         {@code k} is negative
+   */
+  @Override
+  public List<T> findTopKParallel(final Predicate<T> filter,
+      final Comparator<? super T> comparator, final int k, final ForkJoinPool pool) {
+    if (pool == null) {
+      throw new IllegalArgumentException();
+    }
+    verifyTopK(comparator, k);
+    verifySearch(filter);
+
+    return pool.invoke(new RangeSearch<T, TopK<T>>(
+        (from, to, collector) -> scan(filter, from, to, this::dataAt, collector),
+        () -> new TopK<>(comparator, k), 0, segments.size(), 1)).toList();
+  }
+
+  /**
+   * Writes all modifications through to the file.
+   * 
+   * @throws IllegalStateException if tree is closed
+   */
+  public void force() {
+    verifyOpen();
+
+    for (MappedByteBuffer segment : segments) {
+      segment.force();
+    }
+  }
+
+  /**
+   * Writes all modifications through to the file and closes it. Mapped memory is released once
+   * the tree is garbage collected.
+   * 
+   * @throws IOException if the file cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+
+    force();
+    closed = true;
+    channel.close();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s: [size: %s, bytes: %s]", getClass().getName(), size, end);
+  }
+
+  /**
+   * Resolves record found during scan to a search result.
+   * 
+   * @param <T> data type to be hold in nodes
+   * @param <R> result element type
+   */
+  @FunctionalInterface
+  private interface RecordMapper<T, R> {
+    R map(T data, long node);
+  }
+
+  private <R, C extends Collection<? super R>> C scan(final Predicate<T> filter, final int from,
+      final int to, final RecordMapper<T, R> mapper, final C collector) {
+    for (int s = from; s < to; s++) {
+      final ByteBuffer records = segments.get(s);
+      final ByteBuffer payloads = records.duplicate();
+      final long base = (long) s << segmentShift;
+      final int limit = (int) Math.min(records.capacity(), end - base);
+
+      int position = s == 0 ? HEADER_LENGTH : 0;
+      while (position + RECORD_PAYLOAD <= limit) {
+        final int length = records.getInt(position + RECORD_LENGTH);
+        if (length == 0) {
+          // the rest of the segment was skipped by a record not fitting into it
+          break;
+        }
+        if (records.getInt(position + RECORD_SUBTREE_LENGTH) != REMOVED) {
+          final T data = decode(records, payloads, position);
+          if (filter.test(data)) {
+            collector.add(mapper.map(data, base + position));
+          }
+        }
+        position += length;
+      }
+    }
+
+    return collector;
+  }
+
+  private T dataAt(final T data, final long node) {
+    return data;
+  }
+
+  private MappedNode<T> nodeAt(final T data, final long node) {
+    return new MappedNode<>(this, node);
+  }
+
+  /**
+   * Decodes data of record at {@code position} of {@code records} through {@code payloads}, a
+   * duplicate of {@code records} whose position and limit are changed by the call.
+   */
+  private T decode(final ByteBuffer records, final ByteBuffer payloads, final int position) {
+    final int payload = position + RECORD_PAYLOAD;
+    payloads.limit(payloads.capacity());
+    payloads.position(payload);
+    payloads.limit(payload + records.getInt(position + RECORD_PAYLOAD_LENGTH));
+
+    return codec.decode(payloads);
+  }
+
+  private long append(final long parent, final T data) {
+    final byte[] payload = codec.encode(data);
+    final long length = align(RECORD_PAYLOAD + (long) payload.length);
+    if (length > segmentMask + 1) {
+      throw new IllegalArgumentException();
+    }
+
+    long node = end;
+    if ((node & segmentMask) + length > segmentMask + 1) {
+      node = (node | segmentMask) + 1;
+    }
+
+    final ByteBuffer segment = segment((int) (node >>> segmentShift));
+    final int position = (int) (node & segmentMask);
+    segment.putInt(position + RECORD_LENGTH, (int) length);
+    segment.putInt(position + RECORD_MARKER, MARKER);
+    segment.putInt(position + RECORD_SUBTREE_LENGTH, 0);
+    segment.putLong(position + RECORD_PARENT, parent);
+    segment.putLong(position + RECORD_FIRST_CHILD, NO_NODE);
+    segment.putLong(position + RECORD_NEXT_SIBLING, NO_NODE);
+    segment.putInt(position + RECORD_PAYLOAD_LENGTH, payload.length);
+    final ByteBuffer target = segment.duplicate();
+    target.position(position + RECORD_PAYLOAD);
+    target.put(payload);
+
+    end = node + length;
+    size++;
+    writeHeader();
+
+    return node;
+  }
+
+  private MappedByteBuffer segment(final int index) {
+    try {
+      while (segments.size() <= index) {
+        segments.add(channel.map(FileChannel.MapMode.READ_WRITE,
+            (long) segments.size() << segmentShift, segmentMask + 1));
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Cannot map tree file.", e);
+    }
+
+    return segments.get(index);
+  }
+
+  private void writeHeader() {
+    final MappedByteBuffer header = segments.get(0);
+    header.putInt(HEADER_SIZE, size);
+    header.putLong(HEADER_END, end);
+  }
+
+  private int getInt(final long node, final int field) {
+    return segments.get((int) (node >>> segmentShift)).getInt((int) (node & segmentMask) + field);
+  }
+
+  private long getLong(final long node, final int field) {
+    return segments.get((int) (node >>> segmentShift)).getLong((int) (node & segmentMask) + field);
+  }
+
+  private void putInt(final long node, final int field, final int value) {
+    segments.get((int) (node >>> segmentShift)).putInt((int) (node & segmentMask) + field, value);
+  }
+
+  private void putLong(final long node, final int field, final long value) {
+    segments.get((int) (node >>> segmentShift)).putLong((int) (node & segmentMask) + field, value);
+  }
+
+  private static long align(final long length) {
+    return (length + ALIGNMENT - 1) & -ALIGNMENT;
+  }
+
+  private void verifyOpen() {
+    if (closed) {
+      throw new IllegalStateException("Tree is closed.");
+    }
+  }
+
+  private void verifyNode(final long node) {
+    verifyOpen();
+    if (node < ROOT || node >= end || (node & (ALIGNMENT - 1)) != 0
+        || getInt(node, RECORD_MARKER) != MARKER
+        || getInt(node, RECORD_SUBTREE_LENGTH) == REMOVED) {
+      throw new IllegalArgumentException();
+    }
+  }
+
+  private void verifyTopK(final Comparator<?> comparator, final int k) {
+    if (comparator == null || k < 0) {
+      throw new IllegalArgumentException();
+    }
+  }
+
+  private void verifySearch(final Predicate<T> filter) {
+    if (filter == null) {
+      throw new IllegalArgumentException();
+    }
+    verifyOpen();
+    if (size == 0) {
+      throw new IllegalStateException("Tree is empty.");
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package com.nextgen.jtree;
+
+/**
+ * Represents lightweight view of a node of {@link MappedJTree}. View holds nothing but the tree
+ * and position of the node, it is created on demand and reads the tree on every call. Views are
+ * equal if they point at the same position of the same tree.
+ * 
+ * @param <T> data type to be hold in node
+ */
+public final class MappedNode<T> implements TreeNode<T> {
+  private final MappedJTree<T> tree;
+  private final long position;
+
+  MappedNode(final MappedJTree<T> tree, final long position) {
+    this.tree = tree;
+    this.position = position;
+  }
+
+  /**
+   * Gets position of the node in its tree.
+   * 
+   * @return node position
+   */
+  public long getPosition() {
+    return position;
+  }
+
+  @Override
+  public T getData() {
+    return tree.getData(position);
+  }
+
+  @Override
+  public int getSubtreeLength() {
+    return tree.getSubtreeLength(position);
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof MappedNode)) {
+      return false;
+    }
+
+    final MappedNode<?> other = (MappedNode<?>) obj;
+    return tree == other.tree && position == other.position;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * System.identityHashCode(tree) + Long.hashCode(position);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s: [position: %s]", getClass().getName(), position);
+  }
+}
@@ -1,29 +1,61 @@
 package com.nextgen.jtree;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import com.nextgen.jtree.JTreeStructureChangesEventHandler.TreeStructureChangeEvent;
+import com.nextgen.jtree.NodeVisitor.VisitResult;
+import com.nextgen.jtree.StructureChangesSubscriptions.Relation;
 
 /**
  * Represents data container as a node of {@link JTree}. Provides main operations on the node i.e.
  * add, remove, find, etc.
  * 
  * Data immutability is not guaranteed.
+ * 
+ * Child nodes are kept in insertion order and are accessible by position. Removal of a child node
+ * takes constant time regardless of the number of its siblings.
+ * 
+ * Node created in concurrent mode (see {@link JTree#concurrentTreeWithRoot(Object)}) may be
+ * modified by several threads at once: modifications of child nodes take the lock of their
+ * container only, every subtree length update takes the lock of a single node only and searches
+ * never block. Nodes of different modes can not be mixed in one tree.
  *
  * @param <T> data to be hold
  */
-public final class Node<T> implements Searcheable<T> {
-  private Node<T> parent;
+public final class Node<T> implements TreeNode<T>, Searcheable<T> {
+  /**
+   * Subtree capacity of the node without quota.
+   */
+  public static final int UNBOUNDED = -1;
+
+  private volatile Node<T> parent;
 
   private final T data;
-  private final Set<Node<T>> subtree = new HashSet<>();
+  private final boolean concurrent;
+  private final ChildList<T> subtree;
+  private volatile int subtreeLength;
+  private volatile int subtreeCapacity = UNBOUNDED;
 
-  private final List<JTreeStructureChangesEventHandler<T>> structureChangesHandlers =
-      new LinkedList<>();
+  private volatile StructureChangesSubscriptions<T> subscriptions;
+
+  /**
+   * Position of current node in the child container of its parent, maintained by the container.
+   */
+  int slot;
 
   /**
    * Creates {@code Node} with {@code data}.
@@ -32,9 +64,36 @@ public final class Node<T> implements Searcheable<T> {
    * @throws IllegalArgumentException if data is {@code null}
    */
   public Node(final T data) {
+    this(data, false);
+  }
+
+  /**
+   * Creates {@code Node} with {@code data} in given mode.
+   * 
+   * @param data data to be hold in node
+   * @param concurrent whether node is safe for concurrent modification
+   * @throws IllegalArgumentException if data is {@code null}
+   */
+  Node(final T data, final boolean concurrent) {
     verifyArguments(data);
 
     this.data = data;
+    this.concurrent = concurrent;
+    this.subtree = new ChildList<>(concurrent, 0);
+  }
+
+  /**
+   * Creates {@code Node} with {@code data} in given mode and room for {@code expectedChildren}
+   * child nodes.
+   * 
+   * @param data data to be hold in node
+   * @param concurrent whether node is safe for concurrent modification
+   * @param expectedChildren expected number of child nodes
+   */
+  Node(final T data, final boolean concurrent, final int expectedChildren) {
+    this.data = data;
+    this.concurrent = concurrent;
+    this.subtree = new ChildList<>(concurrent, expectedChildren);
   }
 
   /**
@@ -47,7 +106,7 @@ public final class Node<T> implements Searcheable<T> {
   public Node<T> addNode(final T data) {
     verifyArguments(data);
 
-    return addNode(new Node<>(data));
+    return addNode(new Node<>(data, concurrent));
   }
 
 
@@ -56,21 +115,90 @@ public final class Node<T> implements Searcheable<T> {
    * 
    * @param node node to add
    * @return added node
-   * @throws IllegalArgumentException if node is {@code null}
+   * @throws IllegalArgumentException if node is {@code null}, already has a parent, is current
+   *         node or one of its ancestors or is of other concurrency mode than current node
+   * @throws IllegalStateException if {@code node} with its subtree exceeds subtree capacity of
+   *         current node or any of its ancestors
    */
   public Node<T> addNode(final Node<T> node) {
     verifyArguments(node);
+    if (node.concurrent != concurrent) {
+      throw new IllegalArgumentException();
+    }
+    if (node == this || node.subtreeLength > 0 && isDescendantOf(node)) {
+      throw new IllegalArgumentException();
+    }
 
-    node.parent = this;
-    structureChangesHandlers.forEach(h -> node.addStructureChangesHandler(h, true));
+    final JTreeMetrics<T> metrics = metrics();
+    final long start = metrics == null ? 0 : System.nanoTime();
+
+    final int delta = concurrent ? node.attachConcurrently(this) : node.attach(this);
+    try {
+      reserveSubtreeLength(delta);
+    } catch (IllegalStateException e) {
+      final int detached = concurrent ? node.detachConcurrently() : node.detach();
+      if (detached != delta) {
+        // changes made meanwhile inside node were carried up past it, take them back
+        updateSubtreeLength(delta - detached);
+      }
+      throw e;
+    }
 
     subtree.add(node);
 
-    notifyChanges(node, TreeStructureChangeEvent.ADD_NODE);
+    notifyChanges(node, TreeStructureChangeEvent.ADD_NODE, metrics);
+    if (metrics != null) {
+      metrics.recordModification(TreeStructureChangeEvent.ADD_NODE, delta,
+          System.nanoTime() - start);
+    }
 
     return node;
   }
 
+  /**
+   * Adds new {@code Node}s to the current one with every element of {@code data}. Subtree
+   * capacity is checked and subtree lengths are updated once for the whole collection, and
+   * handlers are notified with a single batch event via
+   * {@link JTreeStructureChangesEventHandler#handleAll(Node, List, TreeStructureChangeEvent)}.
+   * 
+   * @param data data to be hold in added nodes
+   * @return added nodes in order of {@code data}
+   * @throws IllegalArgumentException if {@code data} or any of its elements is {@code null}
+   * @throws IllegalStateException if added nodes exceed subtree capacity of current node or any of
+   *         its ancestors
+   */
+  public List<Node<T>> addNodes(final Collection<? extends T> data) {
+    verifyArguments(data);
+    for (T element : data) {
+      verifyArguments(element);
+    }
+    if (data.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    final JTreeMetrics<T> metrics = metrics();
+    final long start = metrics == null ? 0 : System.nanoTime();
+
+    reserveSubtreeLength(data.size());
+
+    final List<Node<T>> added = new ArrayList<>(data.size());
+    for (T element : data) {
+      final Node<T> node = new Node<>(element, concurrent);
+      node.parent = this;
+      subtree.add(node);
+      added.add(node);
+    }
+
+    final List<Node<T>> result = Collections.unmodifiableList(added);
+    notifyChanges(result, TreeStructureChangeEvent.ADD_NODE, metrics);
+    if (metrics != null) {
+      metrics.recordModification(TreeStructureChangeEvent.ADD_NODE, result.size(),
+          System.nanoTime() - start);
+    }
+
+    return result;
+  }
+
   /**
    * Removes {@code node} from the current one if found.
    * 
@@ -78,13 +206,83 @@ public final class Node<T> implements Searcheable<T> {
    * @return {@code true} if {@code node} has been removed, otherwise returns {@code false}
    */
   public boolean removeNode(final Node<T> node) {
-    final boolean removed = subtree.removeIf(n -> n.equals(node));
+    if (node == null || node.parent != this || !subtree.remove(node)) {
+      return false;
+    }
 
-    if (removed) {
-      notifyChanges(node, TreeStructureChangeEvent.REMOVE_NODE);
+    final JTreeMetrics<T> metrics = metrics();
+    final long start = metrics == null ? 0 : System.nanoTime();
+
+    final int delta = concurrent ? node.detachConcurrently() : node.detach();
+    updateSubtreeLength(-delta);
+    notifyChanges(node, TreeStructureChangeEvent.REMOVE_NODE, metrics);
+    if (metrics != null) {
+      metrics.recordModification(TreeStructureChangeEvent.REMOVE_NODE, delta,
+          System.nanoTime() - start);
     }
 
-    return removed;
+    return true;
+  }
+
+  /**
+   * Moves current node with its whole subtree from its parent to {@code newParent}. Structural
+   * work takes constant time regardless of the size of the subtree: the subtree is relinked as a
+   * whole and only subtree lengths of nodes between both parents and their lowest common ancestor
+   * are updated. Handlers applying to both parents are notified of a single
+   * {@link TreeStructureChangeEvent#MOVE_NODE} event via
+   * {@link JTreeStructureChangesEventHandler#handleMove(Node, Node, Node)}, handlers applying to
+   * only one of them are notified of removal or addition. Moving node to its current parent does
+   * nothing.
+   * 
+   * In concurrent mode move must not run concurrently with modifications of ancestors of either
+   * parent.
+   * 
+   * @param newParent node to become parent of current node
+   * @throws IllegalArgumentException if {@code newParent} is {@code null}, is current node or one
+   *         of its descendants or is of other concurrency mode than current node
+   * @throws IllegalStateException if current node has no parent or its subtree exceeds subtree
+   *         capacity of {@code newParent} or any of its ancestors below the lowest common ancestor
+   */
+  public void moveTo(final Node<T> newParent) {
+    verifyArguments(newParent);
+    if (newParent.concurrent != concurrent) {
+      throw new IllegalArgumentException();
+    }
+    if (newParent == this || newParent.isDescendantOf(this)) {
+      throw new IllegalArgumentException();
+    }
+
+    final Node<T> oldParent = parent;
+    if (oldParent == null) {
+      throw new IllegalStateException("Node is detached.");
+    }
+    if (oldParent == newParent) {
+      return;
+    }
+
+    final JTreeMetrics<T> metrics = metrics();
+    final long start = metrics == null ? 0 : System.nanoTime();
+
+    final Node<T> common = commonAncestor(oldParent, newParent);
+    final int delta = 1 + subtreeLength;
+    newParent.reserveSubtreeLength(delta, common);
+
+    oldParent.subtree.remove(this);
+    if (concurrent) {
+      detachConcurrently();
+      attachConcurrently(newParent);
+    } else {
+      detach();
+      attach(newParent);
+    }
+    newParent.subtree.add(this);
+    oldParent.updateSubtreeLength(-delta, common);
+
+    notifyMove(oldParent, newParent, common, metrics);
+    if (metrics != null) {
+      metrics.recordModification(TreeStructureChangeEvent.MOVE_NODE, delta,
+          System.nanoTime() - start);
+    }
   }
 
   /**
@@ -92,12 +290,13 @@ public final class Node<T> implements Searcheable<T> {
    * 
    * @return data hold in current node
    */
+  @Override
   public T getData() {
     return this.data;
   }
 
   /**
-   * Gets subtree of current node as unmodifiable {@code Set}.
+   * Gets subtree of current node as unmodifiable {@code Set} iterated in insertion order.
    * 
    * @return subtree as unmodifiable {@code Set}
    */
@@ -106,34 +305,107 @@ public final class Node<T> implements Searcheable<T> {
   }
 
   /**
-   * Gets full subtree length.
+   * Gets child node at {@code index} in insertion order.
+   * 
+   * @param index position of child node
+   * @return child node
+   * @throws IndexOutOfBoundsException if {@code index} is negative or not less than
+   *         {@link #getChildCount()}
+   */
+  public Node<T> getChild(final int index) {
+    return subtree.get(index);
+  }
+
+  /**
+   * Gets position of {@code node} among child nodes in insertion order.
+   * 
+   * @param node child node
+   * @return position of {@code node} or {@code -1} if it is not a child of current node
+   */
+  public int indexOf(final Node<T> node) {
+    if (node == null || node.parent != this) {
+      return -1;
+    }
+
+    return subtree.indexOf(node);
+  }
+
+  /**
+   * Gets number of direct child nodes.
+   * 
+   * @return number of child nodes
+   */
+  public int getChildCount() {
+    return subtree.size();
+  }
+
+  /**
+   * Gets full subtree length. Length is maintained incrementally on every structural change, so
+   * the call takes constant time.
    * 
    * @return full subtree length
    */
+  @Override
   public int getSubtreeLength() {
-    int subtreeLength = subtree.size();
-    for (Node<T> node : subtree) {
-      subtreeLength += node.getSubtreeLength();
+    return subtreeLength;
+  }
+
+  /**
+   * Limits number of nodes the subtree of current node may hold. Quotas nest: node may be added
+   * only if it fits capacity of every bounded ancestor. Capacity lower than current subtree length
+   * does not remove nodes but rejects further additions.
+   * 
+   * @param capacity maximum subtree length or {@link #UNBOUNDED} to remove the quota
+   * @throws IllegalArgumentException if {@code capacity} is negative and not {@link #UNBOUNDED}
+   */
+  public void setSubtreeCapacity(final int capacity) {
+    if (capacity < 0 && capacity != UNBOUNDED) {
+      throw new IllegalArgumentException();
     }
 
-    return subtreeLength;
+    this.subtreeCapacity = capacity;
+  }
+
+  /**
+   * Gets subtree capacity of current node.
+   * 
+   * @return maximum subtree length or {@link #UNBOUNDED} if node has no quota
+   */
+  public int getSubtreeCapacity() {
+    return subtreeCapacity;
   }
 
   /**
    * Allows to add {@link JTreeStructureChangesEventHandler} to the node either recursively or for
    * current node only.
    * 
+   * Handler is registered on current node only and is never copied to child nodes: a recursive
+   * registration applies to every node which has current node as an ancestor at the moment of
+   * structural modification. Both registration and dispatch therefore cost no more than the depth
+   * of the node.
+   * 
+   * Registration which is not recursive applies to modifications of current node only, including
+   * addition and removal of its direct children, but never to modifications of children added
+   * after registration. Before handlers were resolved by ancestry, such registration was copied
+   * to every child added later together with its subtree.
+   * 
    * @param structureChangeHandler event handler
    * @param recursively specifies whether this handler must be attributed recursively to all child
    *        nodes
+   * @throws IllegalArgumentException if {@code structureChangeHandler} is {@code null}
    */
   public void addStructureChangesHandler(
       final JTreeStructureChangesEventHandler<T> structureChangeHandler,
       final boolean recursively) {
-    structureChangesHandlers.add(structureChangeHandler);
+    verifyArguments(structureChangeHandler);
 
-    if (recursively) {
-      subtree.forEach(n -> n.addStructureChangesHandler(structureChangeHandler, recursively));
+    synchronized (this) {
+      if (subscriptions == null) {
+        subscriptions = new StructureChangesSubscriptions<>();
+      }
+      subscriptions.add(structureChangeHandler, recursively
+          ? StructureChangesSubscriptions.Scope.SUBTREE
+          : StructureChangesSubscriptions.Scope.NODE);
     }
   }
 
@@ -141,6 +413,9 @@ public final class Node<T> implements Searcheable<T> {
    * Allows to remove {@link JTreeStructureChangesEventHandler} from the node either recursively or
    * for current node only.
    * 
+   * Removing recursively added handler not recursively keeps it attributed to child nodes.
+   * Handlers registered directly on child nodes are not affected.
+   * 
    * @param structureChangeHandler event handler
    * @param recursively specifies whether this handler must be removed recursively from all child
    *        nodes
@@ -148,13 +423,42 @@ public final class Node<T> implements Searcheable<T> {
   public void removeStructureChangesHandler(
       final JTreeStructureChangesEventHandler<T> structureChangeHandler,
       final boolean recursively) {
-    structureChangesHandlers.remove(structureChangeHandler);
+    synchronized (this) {
+      if (subscriptions == null) {
+        return;
+      }
 
-    if (recursively) {
-      subtree.forEach(n -> n.removeStructureChangesHandler(structureChangeHandler, recursively));
+      subscriptions.remove(structureChangeHandler, recursively);
+      if (subscriptions.isEmpty()) {
+        subscriptions = null;
+      }
     }
   }
 
+  /**
+   * Gets lazy depth-first {@code Stream} of current node and all its descendants.
+   * 
+   * @return stream of nodes in subtree including current node
+   */
+  public Stream<Node<T>> stream() {
+    return stream(TraversalOrder.DEPTH_FIRST);
+  }
+
+  /**
+   * Gets lazy {@code Stream} of current node and all its descendants visited in {@code order}.
+   * Nodes are visited on demand, so short-circuiting operations like {@code findFirst} or
+   * {@code anyMatch} stop traversal as soon as the result is known.
+   * 
+   * @param order traversal order
+   * @return stream of nodes in subtree including current node
+   * @throws IllegalArgumentException if {@code order} is {@code null}
+   */
+  public Stream<Node<T>> stream(final TraversalOrder order) {
+    verifyArguments(order);
+
+    return StreamSupport.stream(new NodeSpliterator<>(this, order), false);
+  }
+
   /**
    * Gets parent node.
    * 
@@ -164,6 +468,16 @@ public final class Node<T> implements Searcheable<T> {
     return parent;
   }
 
+  /**
+   * Identifies whether current node is safe for concurrent modification.
+   * 
+   * @return {@code true} if current node is created in concurrent mode, otherwise returns
+   *         {@code false}
+   */
+  public boolean isConcurrent() {
+    return concurrent;
+  }
+
   /**
    * Identifies whether current node is root.
    * 
@@ -184,32 +498,179 @@ public final class Node<T> implements Searcheable<T> {
   public Set<T> findData(final Predicate<T> filter) {
     verifyArguments(filter);
 
-    final Set<T> result = new HashSet<>();
-    if (filter.test(data)) {
-      result.add(data);
-    }
-
-    for (Node<T> node : subtree) {
-      result.addAll(node.findData(filter));
-    }
-
-    return result;
+    return measure(() -> TreeTraversal.collect(this, Node::pushChildren, filter, Node::getData,
+        new HashSet<>()));
   }
 
   @Override
   public Set<Node<T>> findNodes(final Predicate<T> filter) {
     verifyArguments(filter);
 
-    final Set<Node<T>> result = new HashSet<>();
-    if (filter.test(data)) {
-      result.add(this);
+    return measure(() -> TreeTraversal.collect(this, Node::pushChildren, filter, n -> n,
+        new HashSet<>()));
+  }
+
+  @Override
+  public Set<T> findDataParallel(final Predicate<T> filter, final ForkJoinPool pool) {
+    verifyArguments(filter, pool);
+
+    return measure(() -> pool.invoke(
+        new ParallelTreeSearch<>(this, Node::pushChildren, filter, Node::getData, HashSet::new)));
+  }
+
+  @Override
+  public Set<Node<T>> findNodesParallel(final Predicate<T> filter, final ForkJoinPool pool) {
+    verifyArguments(filter, pool);
+
+    return measure(() -> pool.invoke(new ParallelTreeSearch<T, Node<T>, Node<T>, Set<Node<T>>>(
+        this, Node::pushChildren, filter, n -> n, HashSet::new)));
+  }
+
+  /**
+   * @throws IllegalArgumentException if {@code filter} or {@code comparator} is {@code null} or
+   *         {@code k} is negative
+   */
+  @Override
+  public List<T> findTopK(final Predicate<T> filter, final Comparator<? super T> comparator,
+      final int k) {
+    verifyArguments(filter, comparator);
+    verifyBounds(0, k);
+
+    return measure(() -> TreeTraversal.collect(this, Node::pushChildren, filter, Node::getData,
+        new TopK<T>(comparator, k)).toList());
+  }
+
+  /**
+   * @throws IllegalArgumentException if {@code filter}, {@code comparator} or {@code pool} is
+   *         {@code null} or {@code k} is negative
+   */
+  @Override
+  public List<T> findTopKParallel(final Predicate<T> filter,
+      final Comparator<? super T> comparator, final int k, final ForkJoinPool pool) {
+    verifyArguments(filter, comparator, pool);
+    verifyBounds(0, k);
+
+    return measure(() -> pool.invoke(new ParallelTreeSearch<>(this, Node::pushChildren, filter,
+        Node::getData, () -> new TopK<T>(comparator, k))).toList());
+  }
+
+  /**
+   * Walks current node and its descendants depth-first in pre-order visiting children in their
+   * order. After every node {@code visitor} decides whether the walk descends into the node's
+   * children, skips them or stops altogether.
+   * 
+   * @param visitor callback deciding how the walk proceeds
+   * @return {@code true} if the walk was terminated by {@code visitor}, otherwise returns
+   *         {@code false}
+   * @throws IllegalArgumentException if {@code visitor} is {@code null}
+   */
+  public boolean walk(final NodeVisitor<T> visitor) {
+    verifyArguments(visitor);
+
+    final JTreeMetrics<T> metrics = metrics();
+    if (metrics == null) {
+      return TreeTraversal.walk(this, visitor);
     }
 
-    for (Node<T> node : subtree) {
-      result.addAll(node.findNodes(filter));
+    final long start = System.nanoTime();
+    final long[] visited = new long[1];
+    final boolean terminated = TreeTraversal.walk(this, (node, depth) -> {
+      visited[0]++;
+      return visitor.visit(node, depth);
+    });
+    metrics.recordSearch(visited[0], System.nanoTime() - start);
+
+    return terminated;
+  }
+
+  /**
+   * Finds data of current node and its descendants satisfying {@code filter} visiting only
+   * descendants of nodes with data satisfying {@code descend} and at most {@code maxDepth} edges
+   * below current node. The search stops as soon as {@code limit} data are found.
+   * 
+   * @param filter predicate to satisfy
+   * @param descend predicate deciding whether descendants of a node are visited
+   * @param maxDepth maximum depth of visited nodes, {@code 0} for current node only
+   * @param limit maximum number of found data
+   * @return found data if any in order of visiting
+   * @throws IllegalArgumentException if {@code filter} or {@code descend} is {@code null} or
+   *         {@code maxDepth} or {@code limit} is negative
+   */
+  public Set<T> findData(final Predicate<T> filter, final Predicate<T> descend,
+      final int maxDepth, final int limit) {
+    verifyArguments(filter, descend);
+    verifyBounds(maxDepth, limit);
+
+    return collect(filter, descend, maxDepth, limit, Node::getData);
+  }
+
+  /**
+   * Finds current node and its descendants with data satisfying {@code filter} visiting only
+   * descendants of nodes with data satisfying {@code descend} and at most {@code maxDepth} edges
+   * below current node. The search stops as soon as {@code limit} nodes are found.
+   * 
+   * @param filter predicate to satisfy
+   * @param descend predicate deciding whether descendants of a node are visited
+   * @param maxDepth maximum depth of visited nodes, {@code 0} for current node only
+   * @param limit maximum number of found nodes
+   * @return found nodes if any in order of visiting
+   * @throws IllegalArgumentException if {@code filter} or {@code descend} is {@code null} or
+   *         {@code maxDepth} or {@code limit} is negative
+   */
+  public Set<Node<T>> findNodes(final Predicate<T> filter, final Predicate<T> descend,
+      final int maxDepth, final int limit) {
+    verifyArguments(filter, descend);
+    verifyBounds(maxDepth, limit);
+
+    return collect(filter, descend, maxDepth, limit, n -> n);
+  }
+
+  /**
+   * Runs bounded search on top of {@link #walk(NodeVisitor)}, which records the search with the
+   * number of actually visited nodes to metrics of the tree if enabled.
+   */
+  private <R> Set<R> collect(final Predicate<T> filter, final Predicate<T> descend,
+      final int maxDepth, final int limit, final Function<Node<T>, R> mapper) {
+    final Set<R> found = new LinkedHashSet<>();
+    if (limit == 0) {
+      return found;
     }
 
-    return result;
+    walk((node, depth) -> {
+      if (filter.test(node.getData())) {
+        found.add(mapper.apply(node));
+        if (found.size() >= limit) {
+          return VisitResult.TERMINATE;
+        }
+      }
+
+      return depth < maxDepth && descend.test(node.getData()) ? VisitResult.CONTINUE
+          : VisitResult.SKIP_SUBTREE;
+    });
+
+    return found;
+  }
+
+  /**
+   * Gets direct child nodes without defensive wrapping. Intended for internal traversals only.
+   * 
+   * @return direct child nodes
+   */
+  Set<Node<T>> children() {
+    return subtree;
+  }
+
+  /**
+   * Pushes children of {@code node} onto {@code pending}, {@link NodeChildren} of {@code Node}s.
+   * 
+   * @param node node to push children of
+   * @param pending stack of nodes to visit
+   * @param <T> data type to be hold in nodes
+   */
+  static <T> void pushChildren(final Node<T> node, final Deque<Node<T>> pending) {
+    for (Node<T> child : node.subtree) {
+      pending.push(child);
+    }
   }
 
   private void verifyArguments(final Object... args) {
@@ -220,10 +681,245 @@ public final class Node<T> implements Searcheable<T> {
     }
   }
 
-  private void notifyChanges(final Node<T> cause, final TreeStructureChangeEvent event) {
-    if (structureChangesHandlers.isEmpty()) {
-      return;
+  /**
+   * Runs full scan of current subtree recording it to metrics of the tree if enabled.
+   */
+  private <R> R measure(final Supplier<R> search) {
+    final JTreeMetrics<T> metrics = metrics();
+    if (metrics == null) {
+      return search.get();
+    }
+
+    final long start = System.nanoTime();
+    final R result = search.get();
+    metrics.recordSearch(1L + subtreeLength, System.nanoTime() - start);
+
+    return result;
+  }
+
+  /**
+   * Gets metrics of the tree current node belongs to. Resolving metrics walks to the root, so it
+   * is done only if metrics of some tree are enabled.
+   * 
+   * @return metrics or {@code null} if metrics of the tree are not enabled
+   */
+  JTreeMetrics<T> metrics() {
+    if (!JTreeMetrics.isEnabled()) {
+      return null;
+    }
+
+    Node<T> root = this;
+    while (root.parent != null) {
+      root = root.parent;
+    }
+    final StructureChangesSubscriptions<T> rootSubscriptions = root.subscriptions;
+
+    return rootSubscriptions == null ? null : rootSubscriptions.metrics();
+  }
+
+  private void verifyBounds(final int maxDepth, final int limit) {
+    if (maxDepth < 0 || limit < 0) {
+      throw new IllegalArgumentException();
+    }
+  }
+
+  /**
+   * Links detached {@code child} to current node without updating subtree lengths or notifying
+   * handlers. Used to assemble detached subtrees in bulk.
+   * 
+   * @param child node to link
+   */
+  void link(final Node<T> child) {
+    child.parent = this;
+    subtree.add(child);
+  }
+
+  /**
+   * Accounts subtree of already linked {@code child} in subtree length of current node only.
+   * 
+   * @param child linked child node
+   */
+  void accountSubtreeLength(final Node<T> child) {
+    subtreeLength += 1 + child.subtreeLength;
+  }
+
+  private boolean isDescendantOf(final Node<T> node) {
+    for (Node<T> ancestor = parent; ancestor != null; ancestor = ancestor.parent) {
+      if (ancestor == node) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  private void reserveSubtreeLength(final int delta) {
+    reserveSubtreeLength(delta, null);
+  }
+
+  /**
+   * Adds {@code delta} to subtree lengths of current node and its ancestors below {@code stop}
+   * unless it exceeds subtree capacity of any of them.
+   * 
+   * @param delta change of subtree length
+   * @param stop ancestor to stop at exclusive or {@code null} to update all ancestors
+   * @throws IllegalStateException if subtree capacity is exceeded, no length is changed then
+   */
+  private void reserveSubtreeLength(final int delta, final Node<T> stop) {
+    Node<T> ancestor = this;
+    while (ancestor != stop) {
+      final Node<T> next = concurrent ? ancestor.adjustConcurrently(delta) : ancestor.adjust(delta);
+      if (next == ancestor) {
+        Node<T> n = this;
+        while (n != null && n != ancestor) {
+          n = concurrent ? n.adjustConcurrently(-delta) : n.adjust(-delta);
+        }
+        if (n == null) {
+          // a reserving node was detached concurrently and its former ancestors were reduced by
+          // a length including delta, rejecting ancestor and those above it never received it
+          ancestor.updateSubtreeLength(delta);
+        }
+        throw new IllegalStateException("Subtree capacity exceeded.");
+      }
+      ancestor = next;
+    }
+  }
+
+  private void updateSubtreeLength(final int delta) {
+    updateSubtreeLength(delta, null);
+  }
+
+  private void updateSubtreeLength(final int delta, final Node<T> stop) {
+    for (Node<T> ancestor = this; ancestor != stop;) {
+      ancestor = concurrent ? ancestor.adjustConcurrently(delta) : ancestor.adjust(delta);
+    }
+  }
+
+  /**
+   * Adds {@code delta} to subtree length of current node unless it exceeds subtree capacity.
+   * Reading the parent in the same step as updating the length is what keeps lengths consistent
+   * under concurrent modification as long as the change is carried up to the root: a subtree
+   * detached concurrently has either already accounted the change in its own length or is not
+   * passed to the parent at all. Change rejected half way is compensated by
+   * {@link #reserveSubtreeLength(int, Node)}.
+   * 
+   * @param delta change of subtree length
+   * @return parent node to continue with or current node if capacity is exceeded
+   */
+  private Node<T> adjust(final int delta) {
+    final int length = subtreeLength + delta;
+    if (delta > 0 && subtreeCapacity != UNBOUNDED && length > subtreeCapacity) {
+      return this;
+    }
+    subtreeLength = length;
+
+    return parent;
+  }
+
+  private synchronized Node<T> adjustConcurrently(final int delta) {
+    return adjust(delta);
+  }
+
+  /**
+   * Sets {@code newParent} as parent of current detached node.
+   * 
+   * @param newParent parent node
+   * @return number of nodes attached to {@code newParent}
+   * @throws IllegalArgumentException if current node already has a parent
+   */
+  private int attach(final Node<T> newParent) {
+    if (parent != null) {
+      throw new IllegalArgumentException();
+    }
+    parent = newParent;
+
+    return 1 + subtreeLength;
+  }
+
+  private synchronized int attachConcurrently(final Node<T> newParent) {
+    return attach(newParent);
+  }
+
+  /**
+   * Clears parent of current node.
+   * 
+   * @return number of nodes detached from former parent
+   */
+  private int detach() {
+    parent = null;
+
+    return 1 + subtreeLength;
+  }
+
+  private synchronized int detachConcurrently() {
+    return detach();
+  }
+
+  /**
+   * Notifies handlers of both parents of moving current node, handlers registered on
+   * {@code common} and its ancestors apply to both parents.
+   */
+  private void notifyMove(final Node<T> oldParent, final Node<T> newParent, final Node<T> common,
+      final JTreeMetrics<T> metrics) {
+    for (Node<T> node = oldParent; node != common; node = node.parent) {
+      final StructureChangesSubscriptions<T> current = node.subscriptions;
+      if (current != null) {
+        current.notifyMove(oldParent, newParent, this,
+            node == oldParent ? Relation.OWNER : Relation.ANCESTOR, Relation.NONE, metrics);
+      }
+    }
+    for (Node<T> node = newParent; node != common; node = node.parent) {
+      final StructureChangesSubscriptions<T> current = node.subscriptions;
+      if (current != null) {
+        current.notifyMove(oldParent, newParent, this, Relation.NONE,
+            node == newParent ? Relation.OWNER : Relation.ANCESTOR, metrics);
+      }
+    }
+    for (Node<T> node = common; node != null; node = node.parent) {
+      final StructureChangesSubscriptions<T> current = node.subscriptions;
+      if (current != null) {
+        current.notifyMove(oldParent, newParent, this,
+            node == oldParent ? Relation.OWNER : Relation.ANCESTOR,
+            node == newParent ? Relation.OWNER : Relation.ANCESTOR, metrics);
+      }
+    }
+  }
+
+  /**
+   * Gets the deepest node being both {@code a} or its ancestor and {@code b} or its ancestor.
+   * 
+   * @return lowest common ancestor or {@code null} if nodes belong to different trees
+   */
+  private static <T> Node<T> commonAncestor(final Node<T> a, final Node<T> b) {
+    final Set<Node<T>> ancestors = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (Node<T> node = a; node != null; node = node.parent) {
+      ancestors.add(node);
+    }
+    Node<T> node = b;
+    while (node != null && !ancestors.contains(node)) {
+      node = node.parent;
+    }
+
+    return node;
+  }
+
+  private void notifyChanges(final Node<T> cause, final TreeStructureChangeEvent event,
+      final JTreeMetrics<T> metrics) {
+    for (Node<T> node = this; node != null; node = node.parent) {
+      final StructureChangesSubscriptions<T> current = node.subscriptions;
+      if (current != null) {
+        current.notify(this, cause, event, node == this, metrics);
+      }
+    }
+  }
+
+  private void notifyChanges(final List<Node<T>> causes, final TreeStructureChangeEvent event,
+      final JTreeMetrics<T> metrics) {
+    for (Node<T> node = this; node != null; node = node.parent) {
+      final StructureChangesSubscriptions<T> current = node.subscriptions;
+      if (current != null) {
+        current.notifyAll(this, causes, event, node == this, metrics);
+      }
     }
-    structureChangesHandlers.forEach(h -> h.handle(this, cause, event));
   }
 }
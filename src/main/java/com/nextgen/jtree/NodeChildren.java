@@ -0,0 +1,21 @@
+package com.nextgen.jtree;
+
+import java.util.Deque;
+
+/**
+ * Access to children of nodes of a particular tree representation, lets search engines walk
+ * {@link Node}s and {@link PersistentNode}s alike without copying children.
+ *
+ * @param <N> node type
+ */
+@FunctionalInterface
+interface NodeChildren<N> {
+
+  /**
+   * Pushes children of {@code node} onto {@code pending} in their order.
+   * 
+   * @param node node to push children of
+   * @param pending stack of nodes to visit
+   */
+  void push(N node, Deque<N> pending);
+}
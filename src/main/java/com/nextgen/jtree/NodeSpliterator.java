@@ -0,0 +1,112 @@
+package com.nextgen.jtree;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Lazy {@link Spliterator} over a subtree of {@link Node}s. Nodes are produced one at a time in
+ * requested {@link TraversalOrder}, so short-circuiting stream operations stop the traversal at
+ * the first satisfying node.
+ *
+ * Splitting hands over half of pending subtrees to a new spliterator. Pending subtrees are taken
+ * from the tail, which holds shallowest nodes for depth-first order. When only one subtree is
+ * pending it is expanded first, so even the root of a tree can be split right away.
+ *
+ * Size is known exactly from maintained {@link Node#getSubtreeLength()} counters as long as the
+ * tree is not modified during traversal. Nodes in concurrent mode are reported as
+ * {@link #CONCURRENT} with estimated size instead.
+ *
+ * @param <T> data type to be hold in nodes
+ */
+final class NodeSpliterator<T> implements Spliterator<Node<T>> {
+  private final Deque<Node<T>> pending;
+  private final TraversalOrder order;
+  private final int characteristics;
+
+  private Node<T> expanded;
+  private long size;
+
+  NodeSpliterator(final Node<T> start, final TraversalOrder order) {
+    this(new ArrayDeque<>(), order, 1L + start.getSubtreeLength(),
+        start.isConcurrent() ? NONNULL | DISTINCT | CONCURRENT
+            : NONNULL | DISTINCT | SIZED | SUBSIZED);
+    pending.add(start);
+  }
+
+  private NodeSpliterator(final Deque<Node<T>> pending, final TraversalOrder order,
+      final long size, final int characteristics) {
+    this.pending = pending;
+    this.order = order;
+    this.size = size;
+    this.characteristics = characteristics;
+  }
+
+  @Override
+  public boolean tryAdvance(final Consumer<? super Node<T>> action) {
+    if (action == null) {
+      throw new NullPointerException();
+    }
+
+    final Node<T> node;
+    if (expanded != null) {
+      node = expanded;
+      expanded = null;
+    } else if (!pending.isEmpty()) {
+      node = pending.pollFirst();
+      expand(node);
+    } else {
+      return false;
+    }
+
+    if (size > 0) {
+      size--;
+    }
+    action.accept(node);
+
+    return true;
+  }
+
+  @Override
+  public Spliterator<Node<T>> trySplit() {
+    if (expanded == null && pending.size() == 1) {
+      expanded = pending.pollFirst();
+      expand(expanded);
+    }
+    if (pending.size() < 2) {
+      return null;
+    }
+
+    final Deque<Node<T>> stolen = new ArrayDeque<>();
+    long stolenSize = 0;
+    for (int i = pending.size() / 2; i > 0; i--) {
+      final Node<T> node = pending.pollLast();
+      stolenSize += 1L + node.getSubtreeLength();
+      stolen.addFirst(node);
+    }
+    size = Math.max(0, size - stolenSize);
+
+    return new NodeSpliterator<>(stolen, order, stolenSize, characteristics);
+  }
+
+  @Override
+  public long estimateSize() {
+    return size;
+  }
+
+  @Override
+  public int characteristics() {
+    return characteristics;
+  }
+
+  private void expand(final Node<T> node) {
+    if (order == TraversalOrder.DEPTH_FIRST) {
+      for (Node<T> child : node.children()) {
+        pending.addFirst(child);
+      }
+    } else {
+      pending.addAll(node.children());
+    }
+  }
+}
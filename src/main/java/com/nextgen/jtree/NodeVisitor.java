@@ -0,0 +1,40 @@
+package com.nextgen.jtree;
+
+/**
+ * Represents callback of a depth-first walk over {@link Node}s deciding how the walk proceeds
+ * after every visited node.
+ * 
+ * Clients are expected to implement this interface in order to prune the walk to branches
+ * relevant for them, see {@link Node#walk(NodeVisitor)}.
+ * 
+ * @param <T> data type to be hold in {@code Node}
+ */
+@FunctionalInterface
+public interface NodeVisitor<T> {
+  /**
+   * Represents decisions of a visitor on how the walk proceeds.
+   */
+  public enum VisitResult {
+    /**
+     * Continue the walk visiting descendants of the node.
+     */
+    CONTINUE,
+    /**
+     * Continue the walk without visiting descendants of the node.
+     */
+    SKIP_SUBTREE,
+    /**
+     * Stop the walk.
+     */
+    TERMINATE
+  };
+
+  /**
+   * Visits {@code node} found at {@code depth} below the node walk started from.
+   * 
+   * @param node visited node
+   * @param depth number of edges between {@code node} and the node walk started from
+   * @return decision on how the walk proceeds
+   */
+  VisitResult visit(Node<T> node, int depth);
+}
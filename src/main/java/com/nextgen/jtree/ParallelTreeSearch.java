@@ -0,0 +1,131 @@
+package com.nextgen.jtree;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Fork/join counterpart of {@link TreeTraversal}. Every task walks its own stack of pending nodes
+ * and, while the pool runs short of queued work, hands the bottom half of that stack
+ * (nodes closest to the root, hence the largest pending subtrees) over to a newly forked task. Work
+ * is split only on demand and only when handed over subtrees hold at least
+ * {@link #SEQUENTIAL_THRESHOLD} nodes, so unbalanced trees keep all workers busy while small
+ * subtrees are scanned sequentially by the task that reached them.
+ *
+ * Every task collects matches into its own collector, usually a {@code Set}; collectors are merged
+ * on join, no lock is shared between workers.
+ *
+ * @param <T> data type to be hold in nodes
+ * @param <N> node type
+ * @param <R> result element type
+ * @param <C> result collector type
+ */
+final class ParallelTreeSearch<T, N extends TreeNode<T>, R, C extends Collection<R>>
+    extends RecursiveTask<C> {
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Number of nodes visited sequentially between two checks for splitting.
+   */
+  static final int SPLIT_CHECK_INTERVAL = 64;
+
+  /**
+   * Number of already queued tasks above which current task keeps working sequentially.
+   */
+  static final int MAX_SURPLUS_TASKS = 2;
+
+  /**
+   * Minimal number of nodes worth handing over to a separate task.
+   */
+  static final int SEQUENTIAL_THRESHOLD = 1024;
+
+  private final Deque<N> pending;
+  private final NodeChildren<N> children;
+  private final Predicate<T> filter;
+  private final Function<N, R> mapper;
+  private final Supplier<C> collectors;
+
+  ParallelTreeSearch(final N start, final NodeChildren<N> children, final Predicate<T> filter,
+      final Function<N, R> mapper, final Supplier<C> collectors) {
+    this(new ArrayDeque<>(), children, filter, mapper, collectors);
+    pending.push(start);
+  }
+
+  private ParallelTreeSearch(final Deque<N> pending, final NodeChildren<N> children,
+      final Predicate<T> filter, final Function<N, R> mapper, final Supplier<C> collectors) {
+    this.pending = pending;
+    this.children = children;
+    this.filter = filter;
+    this.mapper = mapper;
+    this.collectors = collectors;
+  }
+
+  @Override
+  protected C compute() {
+    C result = collectors.get();
+    final List<ParallelTreeSearch<T, N, R, C>> forked = new ArrayList<>();
+
+    int sinceLastCheck = 0;
+    while (!pending.isEmpty()) {
+      if (++sinceLastCheck >= SPLIT_CHECK_INTERVAL) {
+        sinceLastCheck = 0;
+        if (pending.size() > 1 && getSurplusQueuedTaskCount() <= MAX_SURPLUS_TASKS) {
+          final ParallelTreeSearch<T, N, R, C> task = split();
+          if (task != null) {
+            forked.add(task);
+          }
+        }
+      }
+
+      final N node = pending.pop();
+      if (filter.test(node.getData())) {
+        result.add(mapper.apply(node));
+      }
+
+      children.push(node, pending);
+    }
+
+    for (int i = forked.size() - 1; i >= 0; i--) {
+      final C other = forked.get(i).join();
+      if (other.size() > result.size()) {
+        other.addAll(result);
+        result = other;
+      } else {
+        result.addAll(other);
+      }
+    }
+
+    return result;
+  }
+
+  private ParallelTreeSearch<T, N, R, C> split() {
+    final int count = pending.size() / 2;
+
+    long work = 0;
+    final Iterator<N> bottom = pending.descendingIterator();
+    for (int i = 0; i < count; i++) {
+      work += 1L + bottom.next().getSubtreeLength();
+    }
+    if (work < SEQUENTIAL_THRESHOLD) {
+      return null;
+    }
+
+    final Deque<N> stolen = new ArrayDeque<>();
+    for (int i = 0; i < count; i++) {
+      stolen.addFirst(pending.pollLast());
+    }
+
+    final ParallelTreeSearch<T, N, R, C> task =
+        new ParallelTreeSearch<>(stolen, children, filter, mapper, collectors);
+    task.fork();
+
+    return task;
+  }
+}
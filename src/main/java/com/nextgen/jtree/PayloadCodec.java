@@ -0,0 +1,67 @@
+package com.nextgen.jtree;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Converts node data to bytes and back for trees storing data outside of the Java heap.
+ * 
+ * @param <T> data type to be converted
+ */
+public interface PayloadCodec<T> {
+
+  /**
+   * Converts {@code data} to bytes.
+   * 
+   * @param data data to convert, never {@code null}
+   * @return bytes representing {@code data}
+   */
+  byte[] encode(T data);
+
+  /**
+   * Converts bytes between position and limit of {@code payload} back to data. Buffer is only
+   * valid during the call and must not be kept.
+   * 
+   * @param payload bytes previously produced by {@link #encode(Object)}
+   * @return decoded data
+   */
+  T decode(ByteBuffer payload);
+
+  /**
+   * Gets codec storing {@code String}s in UTF-8.
+   * 
+   * @return string codec
+   */
+  static PayloadCodec<String> strings() {
+    return new PayloadCodec<String>() {
+      @Override
+      public byte[] encode(final String data) {
+        return data.getBytes(StandardCharsets.UTF_8);
+      }
+
+      @Override
+      public String decode(final ByteBuffer payload) {
+        return StandardCharsets.UTF_8.decode(payload).toString();
+      }
+    };
+  }
+
+  /**
+   * Gets codec storing {@code Long}s in eight bytes.
+   * 
+   * @return long codec
+   */
+  static PayloadCodec<Long> longs() {
+    return new PayloadCodec<Long>() {
+      @Override
+      public byte[] encode(final Long data) {
+        return ByteBuffer.allocate(Long.BYTES).putLong(data).array();
+      }
+
+      @Override
+      public Long decode(final ByteBuffer payload) {
+        return payload.getLong(payload.position());
+      }
+    };
+  }
+}
@@ -0,0 +1,382 @@
+package com.nextgen.jtree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+
+/**
+ * Represents immutable versioned tree container for keeping data of arbitrary type {@code T}.
+ * Every modification leaves current tree untouched and returns a new version which shares all
+ * nodes not lying on the path from the root to the modified node with the previous one, so
+ * modification costs time and memory proportional to depth of the modified node and its siblings
+ * count rather than to size of the tree.
+ * 
+ * Any version is a consistent snapshot: it may be kept and searched by any number of threads for
+ * as long as needed without locking and without copying, while writers keep producing new
+ * versions. Nodes are addressed by paths of child indices starting from the root, the root itself
+ * is addressed by the empty path.
+ * 
+ * @param <T> data type to be hold in nodes
+ */
+public final class PersistentJTree<T> implements TreeSearcheable<T, PersistentNode<T>> {
+  private static final PersistentJTree<?> EMPTY = new PersistentJTree<>(null, 0);
+
+  private final PersistentNode<T> root;
+  private final long version;
+
+  private PersistentJTree(final PersistentNode<T> root, final long version) {
+    this.root = root;
+    this.version = version;
+  }
+
+  /**
+   * Creates empty {@code PersistentJTree} without root initialized.
+   * 
+   * @param <T> data type to be hold in tree
+   * @return empty {@code PersistentJTree}
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> PersistentJTree<T> emptyTree() {
+    return (PersistentJTree<T>) EMPTY;
+  }
+
+  /**
+   * Creates {@code PersistentJTree} with root populated with {@code data}.
+   * 
+   * @param data data to be hold in tree root
+   * @param <T> data type to be hold in tree
+   * @return {@code PersistentJTree} with root
+   * @throws IllegalArgumentException if {@code data} is null
+   */
+  public static <T> PersistentJTree<T> treeWithRoot(final T data) {
+    if (data == null) {
+      throw new IllegalArgumentException();
+    }
+
+    return new PersistentJTree<>(PersistentNode.leaf(data), 0);
+  }
+
+  /**
+   * Creates {@code PersistentJTree} holding the same data as {@code tree} at the moment of the
+   * call. Order of children in created tree is the iteration order of children in {@code tree}.
+   * 
+   * @param tree tree to copy
+   * @param <T> data type to be hold in tree
+   * @return {@code PersistentJTree} holding data of {@code tree}
+   * @throws IllegalArgumentException if {@code tree} is null
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> PersistentJTree<T> copyOf(final JTree<T> tree) {
+    if (tree == null) {
+      throw new IllegalArgumentException();
+    }
+
+    final Node<T> start = tree.getRoot();
+    if (start == null) {
+      return emptyTree();
+    }
+
+    // nodes in breadth-first order with indices of their parents and numbers of their children,
+    // parents precede their children; children of every node are read once, so copied structure
+    // is consistent even if the tree is modified concurrently
+    final List<Node<T>> nodes = new ArrayList<>(1 + start.getSubtreeLength());
+    int[] parents = new int[1 + start.getSubtreeLength()];
+    int[] counts = new int[parents.length];
+    nodes.add(start);
+    parents[0] = -1;
+    for (int i = 0; i < nodes.size(); i++) {
+      for (Node<T> child : nodes.get(i).children()) {
+        if (nodes.size() == parents.length) {
+          parents = Arrays.copyOf(parents, parents.length * 2);
+          counts = Arrays.copyOf(counts, parents.length);
+        }
+        parents[nodes.size()] = i;
+        nodes.add(child);
+        counts[i]++;
+      }
+    }
+
+    final int size = nodes.size();
+    final PersistentNode<T>[][] children = new PersistentNode[size][];
+    final int[] remaining = counts;
+    for (int i = 0; i < size; i++) {
+      children[i] = new PersistentNode[remaining[i]];
+    }
+
+    PersistentNode<T> copy = null;
+    // children are visited last to first, so every array is filled from its end
+    for (int i = size - 1; i >= 0; i--) {
+      copy = PersistentNode.of(nodes.get(i).getData(), children[i]);
+      final int parent = parents[i];
+      if (parent >= 0) {
+        children[parent][--remaining[parent]] = copy;
+      }
+    }
+
+    return new PersistentJTree<>(copy, 0);
+  }
+
+  /**
+   * Creates new version of the tree with root populated with {@code data}.
+   * 
+   * @param data data to be hold in tree root
+   * @return new version of the tree
+   * @throws IllegalArgumentException if {@code data} is null
+   * @throws IllegalStateException if root already initialized
+   */
+  public PersistentJTree<T> addRoot(final T data) {
+    if (data == null) {
+      throw new IllegalArgumentException();
+    }
+    if (root != null) {
+      throw new IllegalStateException("Root is already initialized");
+    }
+
+    return new PersistentJTree<>(PersistentNode.leaf(data), version + 1);
+  }
+
+  /**
+   * Gets root of the tree.
+   * 
+   * @return root of the tree or {@code null} if tree is empty
+   */
+  public PersistentNode<T> getRoot() {
+    return root;
+  }
+
+  /**
+   * Gets number of modifications which led to this version of the tree.
+   * 
+   * @return version of the tree
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Gets number of nodes in the tree.
+   * 
+   * @return number of nodes including the root
+   */
+  public int size() {
+    return root == null ? 0 : 1 + root.getSubtreeLength();
+  }
+
+  /**
+   * Gets node addressed by {@code path}.
+   * 
+   * @param path indices of children to follow from the root
+   * @return addressed node
+   * @throws IllegalArgumentException if {@code path} does not address a node
+   * @throws IllegalStateException if tree is empty
+   */
+  public PersistentNode<T> getNode(final int... path) {
+    return resolve(path)[path.length];
+  }
+
+  /**
+   * Creates new version of the tree with a node populated with {@code data} appended to children
+   * of node addressed by {@code parentPath}. Added node is addressed by {@code parentPath} followed
+   * by the number of children the parent had before.
+   * 
+   * @param data data to be hold in added node
+   * @param parentPath path of parent node
+   * @return new version of the tree
+   * @throws IllegalArgumentException if {@code data} is null or {@code parentPath} does not
+   *         address a node
+   * @throws IllegalStateException if tree is empty
+   */
+  public PersistentJTree<T> addNode(final T data, final int... parentPath) {
+    if (data == null) {
+      throw new IllegalArgumentException();
+    }
+
+    final PersistentNode<T>[] nodes = resolve(parentPath);
+    final PersistentNode<T> parent = nodes[parentPath.length];
+
+    return replace(nodes, parentPath, parentPath.length,
+        parent.withAddedChild(PersistentNode.leaf(data)));
+  }
+
+  /**
+   * Creates new version of the tree without node addressed by {@code path} and its whole subtree.
+   * Following siblings of removed node shift one position to the left.
+   * 
+   * @param path path of node to remove
+   * @return new version of the tree
+   * @throws IllegalArgumentException if {@code path} is empty or does not address a node
+   * @throws IllegalStateException if tree is empty
+   */
+  public PersistentJTree<T> removeNode(final int... path) {
+    if (path == null || path.length == 0) {
+      throw new IllegalArgumentException();
+    }
+
+    final PersistentNode<T>[] nodes = resolve(path);
+    final int depth = path.length - 1;
+
+    return replace(nodes, path, depth, nodes[depth].withoutChild(path[depth]));
+  }
+
+  /**
+   * Creates new version of the tree with data of node addressed by {@code path} replaced by
+   * {@code data}.
+   * 
+   * @param data new data of the node
+   * @param path path of node to update
+   * @return new version of the tree
+   * @throws IllegalArgumentException if {@code data} is null or {@code path} does not address a
+   *         node
+   * @throws IllegalStateException if tree is empty
+   */
+  public PersistentJTree<T> setData(final T data, final int... path) {
+    if (data == null) {
+      throw new IllegalArgumentException();
+    }
+
+    final PersistentNode<T>[] nodes = resolve(path);
+
+    return replace(nodes, path, path.length, nodes[path.length].withData(data));
+  }
+
+  @Override
+  public Set<T> findData(final Predicate<T> filter) {
+    verifySearch(filter);
+
+    return TreeTraversal.collect(root, PersistentNode::pushChildren, filter,
+        PersistentNode::getData, new HashSet<>());
+  }
+
+  @Override
+  public Set<PersistentNode<T>> findNodes(final Predicate<T> filter) {
+    verifySearch(filter);
+
+    return TreeTraversal.collect(root, PersistentNode::pushChildren, filter, n -> n,
+        new HashSet<>());
+  }
+
+  /**
+   * @throws IllegalArgumentException if {@code pool} is {@code null}
+   */
+  @Override
+  public Set<T> findDataParallel(final Predicate<T> filter, final ForkJoinPool pool) {
+    if (pool == null) {
+      throw new IllegalArgumentException();
+    }
+    verifySearch(filter);
+
+    return pool.invoke(new ParallelTreeSearch<>(root, PersistentNode::pushChildren, filter,
+        PersistentNode::getData, HashSet::new));
+  }
+
+  /**
+   * @throws IllegalArgumentException if {@code pool} is {@code null}
+   */
+  @Override
+  public Set<PersistentNode<T>> findNodesParallel(final Predicate<T> filter,
+      final ForkJoinPool pool) {
+    if (pool == null) {
+      throw new IllegalArgumentException();
+    }
+    verifySearch(filter);
+
+    return pool.invoke(
+        new ParallelTreeSearch<T, PersistentNode<T>, PersistentNode<T>, Set<PersistentNode<T>>>(
+            root, PersistentNode::pushChildren, filter, n -> n, HashSet::new));
+  }
+
+  /**
+   * @throws IllegalArgumentException if {@code comparator} is {@code null} or {@code k} is
+   *         negative
+   */
+  @Override
+  public List<T> findTopK(final Predicate<T> filter, final Comparator<? super T> comparator,
+      final int k) {
+    verifyTopK(comparator, k);
+    verifySearch(filter);
+
+    return TreeTraversal.collect(root, PersistentNode::pushChildren, filter,
+        PersistentNode::getData, new TopK<T>(comparator, k)).toList();
+  }
+
+  /**
+   * @throws IllegalArgumentException if {@code comparator} or {@code pool} is {@code null} or
+   *         {@code k} is negative
+   */
+  @Override
+  public List<T> findTopKParallel(final Predicate<T> filter,
+      final Comparator<? super T> comparator, final int k, final ForkJoinPool pool) {
+    if (pool == null) {
+      throw new IllegalArgumentException();
+    }
+    verifyTopK(comparator, k);
+    verifySearch(filter);
+
+    return pool.invoke(new ParallelTreeSearch<>(root, PersistentNode::pushChildren, filter,
+        PersistentNode::getData, () -> new TopK<T>(comparator, k))).toList();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s: [version: %s, size: %s]", getClass().getName(), version, size());
+  }
+
+  /**
+   * Collects nodes lying on {@code path}, element {@code i} of the result is the node reached
+   * after following {@code i} path elements.
+   */
+  @SuppressWarnings("unchecked")
+  private PersistentNode<T>[] resolve(final int[] path) {
+    if (path == null) {
+      throw new IllegalArgumentException();
+    }
+    if (root == null) {
+      throw new IllegalStateException("Tree is empty.");
+    }
+
+    final PersistentNode<T>[] nodes = new PersistentNode[path.length + 1];
+    nodes[0] = root;
+    for (int i = 0; i < path.length; i++) {
+      if (path[i] < 0 || path[i] >= nodes[i].getChildCount()) {
+        throw new IllegalArgumentException();
+      }
+      nodes[i + 1] = nodes[i].getChild(path[i]);
+    }
+
+    return nodes;
+  }
+
+  /**
+   * Copies nodes on {@code path} above {@code depth} bottom-up so that they lead to
+   * {@code replacement} instead of the node at {@code depth}.
+   */
+  private PersistentJTree<T> replace(final PersistentNode<T>[] nodes, final int[] path,
+      final int depth, final PersistentNode<T> replacement) {
+    PersistentNode<T> updated = replacement;
+    for (int i = depth - 1; i >= 0; i--) {
+      updated = nodes[i].withChild(path[i], updated);
+    }
+
+    return new PersistentJTree<>(updated, version + 1);
+  }
+
+  private void verifyTopK(final Comparator<?> comparator, final int k) {
+    if (comparator == null || k < 0) {
+      throw new IllegalArgumentException();
+    }
+  }
+
+  private void verifySearch(final Predicate<T> filter) {
+    if (filter == null) {
+      throw new IllegalArgumentException();
+    }
+    if (root == null) {
+      throw new IllegalStateException("Tree is empty.");
+    }
+  }
+}
@@ -0,0 +1,175 @@
+package com.nextgen.jtree;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Represents immutable node of {@link PersistentJTree}. Node never changes once created and may
+ * be shared by any number of tree versions, so it knows neither its parent nor the version it
+ * belongs to.
+ * 
+ * @param <T> data to be hold
+ */
+public final class PersistentNode<T> implements TreeNode<T> {
+  private static final PersistentNode<?>[] NO_CHILDREN = new PersistentNode<?>[0];
+
+  private final T data;
+  private final PersistentNode<T>[] children;
+  private final int subtreeLength;
+
+  private PersistentNode(final T data, final PersistentNode<T>[] children) {
+    this.data = data;
+    this.children = children;
+
+    int length = children.length;
+    for (PersistentNode<T> child : children) {
+      length += child.subtreeLength;
+    }
+    this.subtreeLength = length;
+  }
+
+  /**
+   * Creates leaf node with {@code data}.
+   * 
+   * @param data data to be hold in node
+   * @param <T> data type to be hold in node
+   * @return leaf node
+   */
+  @SuppressWarnings("unchecked")
+  static <T> PersistentNode<T> leaf(final T data) {
+    return new PersistentNode<>(data, (PersistentNode<T>[]) NO_CHILDREN);
+  }
+
+  /**
+   * Creates node with {@code data} and given {@code children} taking ownership of the array.
+   * 
+   * @param data data to be hold in node
+   * @param children child nodes
+   * @param <T> data type to be hold in node
+   * @return node
+   */
+  static <T> PersistentNode<T> of(final T data, final PersistentNode<T>[] children) {
+    return new PersistentNode<>(data, children);
+  }
+
+  @Override
+  public T getData() {
+    return data;
+  }
+
+  @Override
+  public int getSubtreeLength() {
+    return subtreeLength;
+  }
+
+  /**
+   * Gets number of direct child nodes.
+   * 
+   * @return number of child nodes
+   */
+  public int getChildCount() {
+    return children.length;
+  }
+
+  /**
+   * Gets child node at {@code index}.
+   * 
+   * @param index position of child node
+   * @return child node
+   * @throws IndexOutOfBoundsException if there is no child at {@code index}
+   */
+  public PersistentNode<T> getChild(final int index) {
+    return children[index];
+  }
+
+  /**
+   * Gets direct child nodes as unmodifiable {@code List}.
+   * 
+   * @return child nodes
+   */
+  public List<PersistentNode<T>> getChildren() {
+    return Collections.unmodifiableList(Arrays.asList(children));
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s: [data: %s, subtree size: %s]", getClass().getName(), data,
+        children.length);
+  }
+
+  /**
+   * Gets direct child nodes without defensive copying. Intended for internal use only.
+   * 
+   * @return child nodes
+   */
+  PersistentNode<T>[] children() {
+    return children;
+  }
+
+  /**
+   * Pushes children of {@code node} onto {@code pending}, {@link NodeChildren} of
+   * {@code PersistentNode}s.
+   * 
+   * @param node node to push children of
+   * @param pending stack of nodes to visit
+   * @param <T> data type to be hold in nodes
+   */
+  static <T> void pushChildren(final PersistentNode<T> node,
+      final Deque<PersistentNode<T>> pending) {
+    for (PersistentNode<T> child : node.children) {
+      pending.push(child);
+    }
+  }
+
+  /**
+   * Creates copy of current node with {@code data} replaced.
+   * 
+   * @param data new data
+   * @return updated copy
+   */
+  PersistentNode<T> withData(final T data) {
+    return new PersistentNode<>(data, children);
+  }
+
+  /**
+   * Creates copy of current node with child at {@code index} replaced.
+   * 
+   * @param index position of child node
+   * @param child new child node
+   * @return updated copy
+   */
+  PersistentNode<T> withChild(final int index, final PersistentNode<T> child) {
+    final PersistentNode<T>[] updated = children.clone();
+    updated[index] = child;
+
+    return new PersistentNode<>(data, updated);
+  }
+
+  /**
+   * Creates copy of current node with {@code child} appended.
+   * 
+   * @param child new child node
+   * @return updated copy
+   */
+  PersistentNode<T> withAddedChild(final PersistentNode<T> child) {
+    final PersistentNode<T>[] updated = Arrays.copyOf(children, children.length + 1);
+    updated[children.length] = child;
+
+    return new PersistentNode<>(data, updated);
+  }
+
+  /**
+   * Creates copy of current node with child at {@code index} removed.
+   * 
+   * @param index position of child node
+   * @return updated copy
+   */
+  PersistentNode<T> withoutChild(final int index) {
+    final PersistentNode<T>[] updated = Arrays.copyOf(children, children.length - 1);
+    System.arraycopy(children, index + 1, updated, index, children.length - index - 1);
+
+    return new PersistentNode<>(data, updated);
+  }
+}
@@ -0,0 +1,303 @@
+package com.nextgen.jtree;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Opt-in cache of search results over a {@link JTree}. Every cached result covers the subtree of
+ * one {@link Node} and is keyed by that node and a query key, which is the filter itself unless
+ * given explicitly. Since lambdas compare by identity, reusing the same filter instance or an
+ * explicit key is what makes repeated queries hit the cache.
+ * 
+ * Cache is kept valid as a structure changes handler of the tree. Modification invalidates only
+ * results covering modified subtree, that is results of the modified node and its ancestors and
+ * results of nodes removed with the modification. Cache holds at most given number of results
+ * evicting the least recently used one. Hits, misses and evictions are counted.
+ * 
+ * All methods are thread-safe. Searches on cache miss run without holding the cache lock and
+ * their results are not cached if the tree is modified meanwhile.
+ * 
+ * @param <T> data type to be hold in nodes
+ */
+public final class QueryCache<T> implements JTreeStructureChangesEventHandler<T> {
+  private final JTree<T> tree;
+  private final Map<Key<T>, Set<?>> results;
+  private final Map<Node<T>, Set<Key<T>>> keysByTop = new HashMap<>();
+
+  private long version;
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  /**
+   * Query key together with the node the result covers and the kind of result.
+   */
+  private static final class Key<T> {
+    private final Node<T> top;
+    private final Object query;
+    private final boolean nodes;
+
+    private Key(final Node<T> top, final Object query, final boolean nodes) {
+      this.top = top;
+      this.query = query;
+      this.nodes = nodes;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      final Key<?> other = (Key<?>) obj;
+
+      return top == other.top && nodes == other.nodes && query.equals(other.query);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(System.identityHashCode(top), query, nodes);
+    }
+  }
+
+  private QueryCache(final JTree<T> tree, final int capacity) {
+    this.tree = tree;
+    this.results = new LinkedHashMap<Key<T>, Set<?>>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<Key<T>, Set<?>> eldest) {
+        if (size() <= capacity) {
+          return false;
+        }
+        evictions++;
+        unregister(eldest.getKey());
+
+        return true;
+      }
+    };
+  }
+
+  /**
+   * Creates cache of search results over {@code tree} and subscribes it to modifications of the
+   * tree.
+   * 
+   * @param tree tree to cache results of
+   * @param capacity maximum number of cached results
+   * @param <T> data type to be hold in nodes
+   * @return cache over {@code tree}
+   * @throws IllegalArgumentException if {@code tree} is {@code null} or {@code capacity} is not
+   *         positive
+   * @throws IllegalStateException if tree is empty
+   */
+  public static <T> QueryCache<T> of(final JTree<T> tree, final int capacity) {
+    if (tree == null || capacity <= 0) {
+      throw new IllegalArgumentException();
+    }
+
+    final QueryCache<T> cache = new QueryCache<>(tree, capacity);
+    tree.addStructureChangesHandler(cache);
+
+    return cache;
+  }
+
+  /**
+   * Unsubscribes cache from modifications of the tree and drops all cached results.
+   */
+  public synchronized void close() {
+    tree.removeStructureChangesHandler(this);
+    results.clear();
+    keysByTop.clear();
+  }
+
+  /**
+   * Finds data of the whole tree satisfying {@code filter} keyed by the filter itself.
+   * 
+   * @param filter predicate to satisfy
+   * @return unmodifiable {@code Set} of found data if any
+   * @throws IllegalArgumentException if {@code filter} is {@code null}
+   */
+  public Set<T> findData(final Predicate<T> filter) {
+    return findData(tree.getRoot(), filter, filter);
+  }
+
+  /**
+   * Finds data of {@code top} and its descendants satisfying {@code filter} keyed by
+   * {@code query}.
+   * 
+   * @param top root of the searched subtree
+   * @param query key identifying {@code filter}
+   * @param filter predicate to satisfy
+   * @return unmodifiable {@code Set} of found data if any
+   * @throws IllegalArgumentException if any argument is {@code null}
+   */
+  public Set<T> findData(final Node<T> top, final Object query, final Predicate<T> filter) {
+    return find(top, query, filter, false);
+  }
+
+  /**
+   * Finds {@link Node}s of the whole tree with data satisfying {@code filter} keyed by the filter
+   * itself.
+   * 
+   * @param filter predicate to satisfy
+   * @return unmodifiable {@code Set} of found nodes if any
+   * @throws IllegalArgumentException if {@code filter} is {@code null}
+   */
+  public Set<Node<T>> findNodes(final Predicate<T> filter) {
+    return findNodes(tree.getRoot(), filter, filter);
+  }
+
+  /**
+   * Finds {@code top} and its descendants with data satisfying {@code filter} keyed by
+   * {@code query}.
+   * 
+   * @param top root of the searched subtree
+   * @param query key identifying {@code filter}
+   * @param filter predicate to satisfy
+   * @return unmodifiable {@code Set} of found nodes if any
+   * @throws IllegalArgumentException if any argument is {@code null}
+   */
+  public Set<Node<T>> findNodes(final Node<T> top, final Object query,
+      final Predicate<T> filter) {
+    return find(top, query, filter, true);
+  }
+
+  /**
+   * Gets number of searches answered from the cache.
+   * 
+   * @return number of hits
+   */
+  public synchronized long getHitCount() {
+    return hits;
+  }
+
+  /**
+   * Gets number of searches run against the tree.
+   * 
+   * @return number of misses
+   */
+  public synchronized long getMissCount() {
+    return misses;
+  }
+
+  /**
+   * Gets number of results evicted to keep the cache within its capacity.
+   * 
+   * @return number of evictions
+   */
+  public synchronized long getEvictionCount() {
+    return evictions;
+  }
+
+  /**
+   * Gets number of cached results.
+   * 
+   * @return number of cached results
+   */
+  public synchronized int size() {
+    return results.size();
+  }
+
+  /**
+   * Invalidates results covering modified subtree.
+   */
+  @Override
+  public synchronized void handle(final Node<T> changedNode, final Node<T> cause,
+      final TreeStructureChangeEvent event) {
+    version++;
+
+    for (Node<T> node = changedNode; node != null; node = node.getParent()) {
+      invalidate(node);
+    }
+    if (event == TreeStructureChangeEvent.REMOVE_NODE) {
+      final List<Node<T>> removed = new ArrayList<>();
+      for (Node<T> top : keysByTop.keySet()) {
+        if (isInSubtree(top, cause)) {
+          removed.add(top);
+        }
+      }
+      removed.forEach(this::invalidate);
+    }
+  }
+
+  /**
+   * Invalidates results covering either parent, results of searches inside the moved subtree stay
+   * valid.
+   */
+  @Override
+  public synchronized void handleMove(final Node<T> oldParent, final Node<T> newParent,
+      final Node<T> cause) {
+    version++;
+
+    for (Node<T> node = oldParent; node != null; node = node.getParent()) {
+      invalidate(node);
+    }
+    for (Node<T> node = newParent; node != null; node = node.getParent()) {
+      invalidate(node);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private <R> Set<R> find(final Node<T> top, final Object query, final Predicate<T> filter,
+      final boolean nodes) {
+    if (top == null || query == null || filter == null) {
+      throw new IllegalArgumentException();
+    }
+
+    final Key<T> key = new Key<>(top, query, nodes);
+    final long observed;
+    synchronized (this) {
+      final Set<?> cached = results.get(key);
+      if (cached != null) {
+        hits++;
+        return (Set<R>) cached;
+      }
+      misses++;
+      observed = version;
+    }
+
+    final Set<R> found = (Set<R>) Collections
+        .unmodifiableSet(nodes ? top.findNodes(filter) : top.findData(filter));
+
+    synchronized (this) {
+      if (observed == version) {
+        results.put(key, found);
+        keysByTop.computeIfAbsent(top, n -> new HashSet<>()).add(key);
+      }
+    }
+
+    return found;
+  }
+
+  private void invalidate(final Node<T> top) {
+    final Set<Key<T>> keys = keysByTop.remove(top);
+    if (keys != null) {
+      results.keySet().removeAll(keys);
+    }
+  }
+
+  private void unregister(final Key<T> key) {
+    final Set<Key<T>> keys = keysByTop.get(key.top);
+    keys.remove(key);
+    if (keys.isEmpty()) {
+      keysByTop.remove(key.top);
+    }
+  }
+
+  private static <T> boolean isInSubtree(final Node<T> node, final Node<T> top) {
+    for (Node<T> current = node; current != null; current = current.getParent()) {
+      if (current == top) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+}
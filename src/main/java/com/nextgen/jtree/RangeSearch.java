@@ -0,0 +1,85 @@
+package com.nextgen.jtree;
+
+import java.util.Collection;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * Fork/join search over a range of slot indices of an array-backed tree. Slots are independent of
+ * each other, so the range is simply halved until it holds at most {@code threshold} slots, by
+ * default {@link ParallelTreeSearch#SEQUENTIAL_THRESHOLD}, each of which is then scanned
+ * sequentially front to back.
+ *
+ * Every task collects matches into its own collector, usually a {@code Set}; collectors are merged
+ * on join.
+ *
+ * @param <R> result element type
+ * @param <C> result collector type
+ */
+final class RangeSearch<R, C extends Collection<R>> extends RecursiveTask<C> {
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Sequential scan of a range of slots.
+   *
+   * @param <R> result element type
+   */
+  @FunctionalInterface
+  interface Scanner<R> {
+
+    /**
+     * Adds results found in slots from {@code from} (inclusive) to {@code to} (exclusive) to
+     * {@code collector}.
+     * 
+     * @param from first slot to scan
+     * @param to slot to stop scanning at
+     * @param collector collection to put results to
+     */
+    void scan(int from, int to, Collection<? super R> collector);
+  }
+
+  private final Scanner<R> scanner;
+  private final Supplier<C> collectors;
+  private final int from;
+  private final int to;
+  private final int threshold;
+
+  RangeSearch(final Scanner<R> scanner, final Supplier<C> collectors, final int from,
+      final int to) {
+    this(scanner, collectors, from, to, ParallelTreeSearch.SEQUENTIAL_THRESHOLD);
+  }
+
+  RangeSearch(final Scanner<R> scanner, final Supplier<C> collectors, final int from,
+      final int to, final int threshold) {
+    this.scanner = scanner;
+    this.collectors = collectors;
+    this.from = from;
+    this.to = to;
+    this.threshold = threshold;
+  }
+
+  @Override
+  protected C compute() {
+    if (to - from <= threshold) {
+      final C result = collectors.get();
+      scanner.scan(from, to, result);
+
+      return result;
+    }
+
+    final int middle = (from + to) >>> 1;
+    final RangeSearch<R, C> right =
+        new RangeSearch<>(scanner, collectors, middle, to, threshold);
+    right.fork();
+
+    final C result = new RangeSearch<>(scanner, collectors, from, middle, threshold).compute();
+    final C other = right.join();
+    if (other.size() > result.size()) {
+      other.addAll(result);
+      return other;
+    }
+    result.addAll(other);
+
+    return result;
+  }
+}
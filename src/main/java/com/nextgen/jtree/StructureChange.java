@@ -0,0 +1,99 @@
+package com.nextgen.jtree;
+
+import com.nextgen.jtree.JTreeStructureChangesEventHandler.TreeStructureChangeEvent;
+
+/**
+ * Represents single structural modification of {@link JTree} as passed to
+ * {@link JTreeStructureChangesEventHandler#handle(Node, Node, TreeStructureChangeEvent)}.
+ * 
+ * @param <T> data type to be hold in {@code Node}
+ */
+public final class StructureChange<T> {
+  private final Node<T> changedNode;
+  private final Node<T> cause;
+  private final TreeStructureChangeEvent event;
+  private final Node<T> formerParent;
+
+  /**
+   * Creates {@code StructureChange}.
+   * 
+   * @param changedNode node under structural modification
+   * @param cause node causes structural modification
+   * @param event type of structural modification
+   * @throws IllegalArgumentException if any of arguments is {@code null}
+   */
+  public StructureChange(final Node<T> changedNode, final Node<T> cause,
+      final TreeStructureChangeEvent event) {
+    if (changedNode == null || cause == null || event == null) {
+      throw new IllegalArgumentException();
+    }
+
+    this.changedNode = changedNode;
+    this.cause = cause;
+    this.event = event;
+    this.formerParent = null;
+  }
+
+  /**
+   * Creates {@code StructureChange} representing move of {@code cause} as passed to
+   * {@link JTreeStructureChangesEventHandler#handleMove(Node, Node, Node)}.
+   * 
+   * @param formerParent parent of {@code cause} before the move
+   * @param changedNode parent of {@code cause} after the move
+   * @param cause moved node
+   * @throws IllegalArgumentException if any of arguments is {@code null}
+   */
+  public StructureChange(final Node<T> formerParent, final Node<T> changedNode,
+      final Node<T> cause) {
+    if (formerParent == null || changedNode == null || cause == null) {
+      throw new IllegalArgumentException();
+    }
+
+    this.changedNode = changedNode;
+    this.cause = cause;
+    this.event = TreeStructureChangeEvent.MOVE_NODE;
+    this.formerParent = formerParent;
+  }
+
+  /**
+   * Gets node under structural modification.
+   * 
+   * @return node under structural modification
+   */
+  public Node<T> getChangedNode() {
+    return changedNode;
+  }
+
+  /**
+   * Gets node causes structural modification.
+   * 
+   * @return node causes structural modification
+   */
+  public Node<T> getCause() {
+    return cause;
+  }
+
+  /**
+   * Gets type of structural modification.
+   * 
+   * @return type of structural modification
+   */
+  public TreeStructureChangeEvent getEvent() {
+    return event;
+  }
+
+  /**
+   * Gets parent of moved node before the move.
+   * 
+   * @return former parent or {@code null} if the modification is not a move
+   */
+  public Node<T> getFormerParent() {
+    return formerParent;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s: [event: %s, changed node: %s, cause: %s]", getClass().getName(),
+        event, changedNode, cause);
+  }
+}
@@ -0,0 +1,214 @@
+package com.nextgen.jtree;
+
+import java.util.Arrays;
+import java.util.List;
+import com.nextgen.jtree.JTreeStructureChangesEventHandler.TreeStructureChangeEvent;
+
+/**
+ * Holds {@link JTreeStructureChangesEventHandler}s registered directly on a single {@link Node}.
+ * Subscriptions are never copied to other nodes: a subscription scoped to a subtree is resolved by
+ * ancestry when an event is dispatched, so memory depends on number of subscriptions only, not on
+ * number of nodes.
+ * 
+ * Subscriptions are kept in a copy-on-write array, so handlers may subscribe or unsubscribe while
+ * an event is being dispatched and dispatch never blocks. Modifications must be guarded by the
+ * owning node.
+ * 
+ * @param <T> data type to be hold in nodes
+ */
+final class StructureChangesSubscriptions<T> {
+
+  /**
+   * Nodes a subscription applies to relative to the node it is registered on.
+   */
+  enum Scope {
+    NODE, SUBTREE, DESCENDANTS;
+
+    boolean appliesToSelf() {
+      return this != DESCENDANTS;
+    }
+
+    boolean appliesToDescendants() {
+      return this != NODE;
+    }
+  }
+
+  private static final Subscription<?>[] NO_SUBSCRIPTIONS = new Subscription<?>[0];
+
+  @SuppressWarnings("unchecked")
+  private volatile Subscription<T>[] subscriptions = (Subscription<T>[]) NO_SUBSCRIPTIONS;
+
+  /**
+   * Registers {@code handler} with given {@code scope}.
+   * 
+   * @param handler event handler
+   * @param scope nodes handler applies to
+   */
+  void add(final JTreeStructureChangesEventHandler<T> handler, final Scope scope) {
+    final Subscription<T>[] updated = Arrays.copyOf(subscriptions, subscriptions.length + 1);
+    updated[subscriptions.length] = new Subscription<>(handler, scope);
+    subscriptions = updated;
+  }
+
+  /**
+   * Unregisters first registration of {@code handler} which applies to the owning node. A
+   * {@link Scope#SUBTREE} registration removed not {@code recursively} keeps applying to
+   * descendants.
+   * 
+   * @param handler event handler
+   * @param recursively whether registration must stop applying to descendants as well
+   */
+  void remove(final JTreeStructureChangesEventHandler<T> handler, final boolean recursively) {
+    for (int i = 0; i < subscriptions.length; i++) {
+      final Subscription<T> subscription = subscriptions[i];
+      if (!subscription.handler.equals(handler)
+          || !recursively && !subscription.scope.appliesToSelf()) {
+        continue;
+      }
+
+      if (!recursively && subscription.scope == Scope.SUBTREE) {
+        final Subscription<T>[] updated = subscriptions.clone();
+        updated[i] = new Subscription<>(handler, Scope.DESCENDANTS);
+        subscriptions = updated;
+      } else {
+        final Subscription<T>[] updated = Arrays.copyOf(subscriptions, subscriptions.length - 1);
+        System.arraycopy(subscriptions, i + 1, updated, i, subscriptions.length - i - 1);
+        subscriptions = updated;
+      }
+
+      return;
+    }
+  }
+
+  /**
+   * Identifies whether there are no registrations.
+   * 
+   * @return {@code true} if nothing is registered
+   */
+  boolean isEmpty() {
+    return subscriptions.length == 0;
+  }
+
+  /**
+   * Delivers event to every registration applying to {@code changedNode}.
+   * 
+   * @param changedNode node under structural modification
+   * @param cause node causes structural modification
+   * @param event type of structural modification
+   * @param owner whether {@code changedNode} is the node registrations belong to, otherwise it is
+   *        one of its descendants
+   * @param metrics metrics to record dispatch latencies to or {@code null}
+   */
+  void notify(final Node<T> changedNode, final Node<T> cause, final TreeStructureChangeEvent event,
+      final boolean owner, final JTreeMetrics<T> metrics) {
+    for (Subscription<T> subscription : subscriptions) {
+      if (owner ? subscription.scope.appliesToSelf() : subscription.scope.appliesToDescendants()) {
+        if (metrics == null || subscription.handler == metrics) {
+          subscription.handler.handle(changedNode, cause, event);
+        } else {
+          final long start = System.nanoTime();
+          subscription.handler.handle(changedNode, cause, event);
+          metrics.recordDispatch(subscription.handler, System.nanoTime() - start);
+        }
+      }
+    }
+  }
+
+  /**
+   * Delivers batch event to every registration applying to {@code changedNode}.
+   * 
+   * @param changedNode node under structural modification
+   * @param causes nodes cause structural modification
+   * @param event type of structural modification
+   * @param owner whether {@code changedNode} is the node registrations belong to, otherwise it is
+   *        one of its descendants
+   * @param metrics metrics to record dispatch latencies to or {@code null}
+   */
+  void notifyAll(final Node<T> changedNode, final List<Node<T>> causes,
+      final TreeStructureChangeEvent event, final boolean owner, final JTreeMetrics<T> metrics) {
+    for (Subscription<T> subscription : subscriptions) {
+      if (owner ? subscription.scope.appliesToSelf() : subscription.scope.appliesToDescendants()) {
+        if (metrics == null || subscription.handler == metrics) {
+          subscription.handler.handleAll(changedNode, causes, event);
+        } else {
+          final long start = System.nanoTime();
+          subscription.handler.handleAll(changedNode, causes, event);
+          metrics.recordDispatch(subscription.handler, System.nanoTime() - start);
+        }
+      }
+    }
+  }
+
+  /**
+   * Relation of the owning node to a parent affected by a move.
+   */
+  enum Relation {
+    NONE, OWNER, ANCESTOR;
+
+    boolean isAppliedBy(final Scope scope) {
+      return this == OWNER ? scope.appliesToSelf()
+          : this == ANCESTOR && scope.appliesToDescendants();
+    }
+  }
+
+  /**
+   * Delivers move of {@code cause} to every registration applying to {@code oldParent} or
+   * {@code newParent}: registration applying to both is notified of the move, registration
+   * applying to one of them is notified of removal or addition respectively.
+   * 
+   * @param oldParent former parent of {@code cause}
+   * @param newParent current parent of {@code cause}
+   * @param cause moved node
+   * @param toOld relation of the owning node to {@code oldParent}
+   * @param toNew relation of the owning node to {@code newParent}
+   * @param metrics metrics to record dispatch latencies to or {@code null}
+   */
+  void notifyMove(final Node<T> oldParent, final Node<T> newParent, final Node<T> cause,
+      final Relation toOld, final Relation toNew, final JTreeMetrics<T> metrics) {
+    for (Subscription<T> subscription : subscriptions) {
+      final boolean old = toOld.isAppliedBy(subscription.scope);
+      final boolean current = toNew.isAppliedBy(subscription.scope);
+      if (!old && !current) {
+        continue;
+      }
+
+      final long start = metrics == null ? 0 : System.nanoTime();
+      if (old && current) {
+        subscription.handler.handleMove(oldParent, newParent, cause);
+      } else if (old) {
+        subscription.handler.handle(oldParent, cause, TreeStructureChangeEvent.REMOVE_NODE);
+      } else {
+        subscription.handler.handle(newParent, cause, TreeStructureChangeEvent.ADD_NODE);
+      }
+      if (metrics != null && subscription.handler != metrics) {
+        metrics.recordDispatch(subscription.handler, System.nanoTime() - start);
+      }
+    }
+  }
+
+  /**
+   * Gets registered {@link JTreeMetrics} if any.
+   * 
+   * @return metrics or {@code null}
+   */
+  @SuppressWarnings("unchecked")
+  JTreeMetrics<T> metrics() {
+    for (Subscription<T> subscription : subscriptions) {
+      if (subscription.handler instanceof JTreeMetrics) {
+        return (JTreeMetrics<T>) subscription.handler;
+      }
+    }
+
+    return null;
+  }
+
+  private static final class Subscription<T> {
+    private final JTreeStructureChangesEventHandler<T> handler;
+    private final Scope scope;
+
+    private Subscription(final JTreeStructureChangesEventHandler<T> handler, final Scope scope) {
+      this.handler = handler;
+      this.scope = scope;
+    }
+  }
+}
@@ -0,0 +1,177 @@
+package com.nextgen.jtree;
+
+import java.util.Arrays;
+
+/**
+ * Assembles a whole branch of {@link Node}s off-tree and attaches it in one operation. Nodes are
+ * collected as plain data with indices of their parents and turned into {@code Node}s only on
+ * {@link #build()}: child containers are presized, subtree lengths are computed in a single pass
+ * and no handler is notified until the branch is attached, which fires a single
+ * {@link JTreeStructureChangesEventHandler.TreeStructureChangeEvent#ADD_NODE} event describing the
+ * whole branch.
+ * 
+ * Builder is not reusable: it may be built only once. Branch attached with
+ * {@link #attachTo(Node)} is built in concurrency mode of the parent node.
+ * 
+ * @param <T> data type to be hold in nodes
+ */
+public final class SubtreeBuilder<T> {
+  /**
+   * Index of branch root.
+   */
+  public static final int ROOT = 0;
+
+  private Object[] data;
+  private int[] parents;
+  private int size;
+  private boolean built;
+
+  private SubtreeBuilder(final T rootData, final int expectedSize) {
+    data = new Object[Math.max(1, expectedSize)];
+    parents = new int[data.length];
+    data[ROOT] = rootData;
+    parents[ROOT] = -1;
+    size = 1;
+  }
+
+  /**
+   * Creates {@code SubtreeBuilder} for branch with root populated with {@code data}.
+   * 
+   * @param data data to be hold in branch root
+   * @param <T> data type to be hold in nodes
+   * @return builder
+   * @throws IllegalArgumentException if {@code data} is {@code null}
+   */
+  public static <T> SubtreeBuilder<T> withRoot(final T data) {
+    return withRoot(data, 16);
+  }
+
+  /**
+   * Creates {@code SubtreeBuilder} for branch with root populated with {@code data} and room for
+   * {@code expectedSize} nodes including root.
+   * 
+   * @param data data to be hold in branch root
+   * @param expectedSize expected number of nodes in branch
+   * @param <T> data type to be hold in nodes
+   * @return builder
+   * @throws IllegalArgumentException if {@code data} is {@code null} or {@code expectedSize} is
+   *         negative
+   */
+  public static <T> SubtreeBuilder<T> withRoot(final T data, final int expectedSize) {
+    if (data == null || expectedSize < 0) {
+      throw new IllegalArgumentException();
+    }
+
+    return new SubtreeBuilder<>(data, expectedSize);
+  }
+
+  /**
+   * Adds node populated with {@code data} under node with {@code parent} index.
+   * 
+   * @param parent index of parent node as returned by this method or {@link #ROOT}
+   * @param data data to be hold in node
+   * @return index of added node
+   * @throws IllegalArgumentException if {@code data} is {@code null} or {@code parent} is unknown
+   * @throws IllegalStateException if branch is already built
+   */
+  public int addNode(final int parent, final T data) {
+    if (data == null || parent < 0 || parent >= size) {
+      throw new IllegalArgumentException();
+    }
+    verifyNotBuilt();
+
+    if (size == this.data.length) {
+      final int capacity = size + (size >> 1) + 1;
+      this.data = Arrays.copyOf(this.data, capacity);
+      parents = Arrays.copyOf(parents, capacity);
+    }
+
+    this.data[size] = data;
+    parents[size] = parent;
+
+    return size++;
+  }
+
+  /**
+   * Gets number of nodes in branch including root.
+   * 
+   * @return number of nodes in branch
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Builds detached branch.
+   * 
+   * @return root of built branch
+   * @throws IllegalStateException if branch is already built
+   */
+  public Node<T> build() {
+    final Node<T> root = build(false);
+    release();
+
+    return root;
+  }
+
+  /**
+   * Builds branch and adds it to {@code parent} as a single structural modification.
+   * 
+   * @param parent node to add branch to
+   * @return root of attached branch
+   * @throws IllegalArgumentException if {@code parent} is {@code null}
+   * @throws IllegalStateException if branch is already built or exceeds subtree capacity of
+   *         {@code parent} or any of its ancestors, rejected branch is not considered built
+   * @see Node#addNode(Node)
+   */
+  public Node<T> attachTo(final Node<T> parent) {
+    if (parent == null) {
+      throw new IllegalArgumentException();
+    }
+
+    final Node<T> root = parent.addNode(build(parent.isConcurrent()));
+    release();
+
+    return root;
+  }
+
+  @SuppressWarnings("unchecked")
+  private Node<T> build(final boolean concurrent) {
+    verifyNotBuilt();
+
+    final int[] childCounts = new int[size];
+    for (int i = 1; i < size; i++) {
+      childCounts[parents[i]]++;
+    }
+
+    final Node<T>[] nodes = new Node[size];
+    for (int i = 0; i < size; i++) {
+      nodes[i] = new Node<>((T) data[i], concurrent, childCounts[i]);
+      if (i != ROOT) {
+        nodes[parents[i]].link(nodes[i]);
+      }
+    }
+
+    // parents always precede their children, so walking backwards completes every subtree first
+    for (int i = size - 1; i > ROOT; i--) {
+      nodes[parents[i]].accountSubtreeLength(nodes[i]);
+    }
+
+    return nodes[ROOT];
+  }
+
+  /**
+   * Marks builder as built and releases its buffers.
+   */
+  private void release() {
+    built = true;
+    data = null;
+    parents = null;
+  }
+
+  private void verifyNotBuilt() {
+    if (built) {
+      throw new IllegalStateException("Subtree is already built.");
+    }
+  }
+}
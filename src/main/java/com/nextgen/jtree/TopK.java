@@ -0,0 +1,70 @@
+package com.nextgen.jtree;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Result collector keeping only {@code k} greatest added elements according to a comparator.
+ * Elements are held in a heap with the least kept element on top, so an element not fitting into
+ * the result is rejected by a single comparison and memory never exceeds {@code k} elements no
+ * matter how many are added. Used in place of a {@code Set} by searches, parallel searches merge
+ * collectors of their tasks with {@link #addAll(java.util.Collection)}.
+ *
+ * @param <R> result element type
+ */
+final class TopK<R> extends AbstractCollection<R> {
+  private final Comparator<? super R> comparator;
+  private final int k;
+  private final PriorityQueue<R> heap;
+
+  TopK(final Comparator<? super R> comparator, final int k) {
+    this.comparator = comparator;
+    this.k = k;
+    this.heap = new PriorityQueue<>(Math.max(1, Math.min(k, 1024)), comparator);
+  }
+
+  /**
+   * Keeps {@code element} if it is among {@code k} greatest elements added so far.
+   *
+   * @return {@code true} if {@code element} is kept
+   */
+  @Override
+  public boolean add(final R element) {
+    if (heap.size() < k) {
+      return heap.add(element);
+    }
+    if (k == 0 || comparator.compare(element, heap.peek()) <= 0) {
+      return false;
+    }
+
+    heap.poll();
+    return heap.add(element);
+  }
+
+  @Override
+  public Iterator<R> iterator() {
+    return heap.iterator();
+  }
+
+  @Override
+  public int size() {
+    return heap.size();
+  }
+
+  /**
+   * Gets kept elements from the greatest to the least.
+   *
+   * @return unmodifiable {@code List} of kept elements
+   */
+  List<R> toList() {
+    final List<R> result = new ArrayList<>(heap);
+    result.sort(comparator.reversed());
+
+    return Collections.unmodifiableList(result);
+  }
+}
@@ -0,0 +1,8 @@
+package com.nextgen.jtree;
+
+/**
+ * Represents order in which {@link Node}s of a tree are visited.
+ */
+public enum TraversalOrder {
+  DEPTH_FIRST, BREADTH_FIRST
+}
@@ -0,0 +1,23 @@
+package com.nextgen.jtree;
+
+/**
+ * Represents read-only view of a single node of a tree regardless of the way the tree is stored.
+ * 
+ * @param <T> data type to be hold in node
+ */
+public interface TreeNode<T> {
+
+  /**
+   * Gets data hold in the node.
+   * 
+   * @return data hold in the node
+   */
+  T getData();
+
+  /**
+   * Gets number of all descendants of the node.
+   * 
+   * @return full subtree length
+   */
+  int getSubtreeLength();
+}
@@ -0,0 +1,82 @@
+package com.nextgen.jtree;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+
+/**
+ * Represents complex searching functionality with conditions defines as predicate regardless of
+ * the way the tree is stored.
+ *
+ * @param <T> data type to apply {@code filter}
+ * @param <N> type of found nodes
+ */
+public interface TreeSearcheable<T, N extends TreeNode<T>> {
+
+  /**
+   * Finds data corresponding to conditions in {@code filter}
+   * 
+   * @param filter predicate to satisfy
+   * @return found data if any
+   */
+  Set<T> findData(final Predicate<T> filter);
+
+  /**
+   * Finds {@link TreeNode}s with data corresponding to conditions in {@code filter}
+   * 
+   * @param filter predicate to satisfy
+   * @return found nodes if any
+   */
+  Set<N> findNodes(final Predicate<T> filter);
+
+  /**
+   * Finds data corresponding to conditions in {@code filter} splitting the search across workers
+   * of {@code pool}.
+   * 
+   * @param filter predicate to satisfy, must be safe for concurrent use
+   * @param pool pool to run search in
+   * @return found data if any
+   */
+  Set<T> findDataParallel(final Predicate<T> filter, final ForkJoinPool pool);
+
+  /**
+   * Finds {@link TreeNode}s with data corresponding to conditions in {@code filter} splitting the
+   * search across workers of {@code pool}.
+   * 
+   * @param filter predicate to satisfy, must be safe for concurrent use
+   * @param pool pool to run search in
+   * @return found nodes if any
+   */
+  Set<N> findNodesParallel(final Predicate<T> filter, final ForkJoinPool pool);
+
+  /**
+   * Finds data of {@code k} greatest according to {@code comparator} nodes with data
+   * corresponding to conditions in {@code filter}. Matches are kept in a heap bounded by
+   * {@code k}, so memory does not depend on number of matches. Data held by several found nodes
+   * occurs several times.
+   * 
+   * @param filter predicate to satisfy
+   * @param comparator order of data
+   * @param k maximum number of found data
+   * @return found data if any from the greatest to the least
+   */
+  List<T> findTopK(final Predicate<T> filter, final Comparator<? super T> comparator,
+      final int k);
+
+  /**
+   * Finds data of {@code k} greatest according to {@code comparator} nodes with data
+   * corresponding to conditions in {@code filter} splitting the search across workers of
+   * {@code pool}. Every worker keeps its own heap bounded by {@code k}, heaps are merged at the
+   * end.
+   * 
+   * @param filter predicate to satisfy, must be safe for concurrent use
+   * @param comparator order of data, must be safe for concurrent use
+   * @param k maximum number of found data
+   * @param pool pool to run search in
+   * @return found data if any from the greatest to the least
+   */
+  List<T> findTopKParallel(final Predicate<T> filter, final Comparator<? super T> comparator,
+      final int k, final ForkJoinPool pool);
+}
@@ -0,0 +1,106 @@
+package com.nextgen.jtree;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import com.nextgen.jtree.NodeVisitor.VisitResult;
+
+/**
+ * Iterative search engine over {@link Node}s and other node types exposing children through
+ * {@link NodeChildren}. Walks the tree with an explicit stack instead of
+ * recursion, so depth of the tree is limited by heap rather than by thread stack, and writes every
+ * match straight into a single result collector provided by the caller.
+ * 
+ * Bounded searches are built on a {@link NodeVisitor} walk, which visits children in their order
+ * and never pushes children of a pruned node, so pruned branches cost nothing.
+ */
+final class TreeTraversal {
+
+  private TreeTraversal() {}
+
+  /**
+   * Walks subtree started at {@code start} (inclusive) and adds {@code mapper} result of every node
+   * with data satisfying {@code filter} to {@code collector}.
+   * 
+   * @param start node to start traversal from
+   * @param children access to children of nodes
+   * @param filter predicate to satisfy
+   * @param mapper transformation of matching node to result element
+   * @param collector collection to put results to
+   * @param <T> data type to be hold in nodes
+   * @param <N> node type
+   * @param <R> result element type
+   * @param <C> result collector type
+   * @return {@code collector}
+   */
+  static <T, N extends TreeNode<T>, R, C extends Collection<? super R>> C collect(final N start,
+      final NodeChildren<N> children, final Predicate<T> filter, final Function<N, R> mapper,
+      final C collector) {
+    final Deque<N> pending = new ArrayDeque<>();
+    pending.push(start);
+
+    while (!pending.isEmpty()) {
+      final N node = pending.pop();
+      if (filter.test(node.getData())) {
+        collector.add(mapper.apply(node));
+      }
+
+      children.push(node, pending);
+    }
+
+    return collector;
+  }
+
+  /**
+   * Walks subtree started at {@code start} (inclusive) depth-first in pre-order, following
+   * decisions of {@code visitor}.
+   * 
+   * @param start node to start walk from
+   * @param visitor callback deciding how the walk proceeds
+   * @param <T> data type to be hold in nodes
+   * @return {@code true} if the walk was terminated by {@code visitor}, otherwise returns
+   *         {@code false}
+   */
+  static <T> boolean walk(final Node<T> start, final NodeVisitor<T> visitor) {
+    final Deque<Node<T>> pending = new ArrayDeque<>();
+    final List<Node<T>> children = new ArrayList<>();
+    int[] depths = new int[16];
+    pending.push(start);
+    depths[0] = 0;
+
+    while (!pending.isEmpty()) {
+      final Node<T> node = pending.pop();
+      final int depth = depths[pending.size()];
+
+      final VisitResult result = visitor.visit(node, depth);
+      if (result == VisitResult.TERMINATE) {
+        return true;
+      }
+      if (result == VisitResult.SKIP_SUBTREE) {
+        continue;
+      }
+
+      // snapshot of children by weakly consistent iteration, pushed in reverse so they are
+      // visited in their own order
+      children.clear();
+      for (Node<T> child : node.children()) {
+        children.add(child);
+      }
+      final int count = children.size();
+      if (pending.size() + count > depths.length) {
+        depths = Arrays.copyOf(depths, Math.max(depths.length * 2, pending.size() + count));
+      }
+      for (int i = count - 1; i >= 0; i--) {
+        depths[pending.size()] = depth + 1;
+        pending.push(children.get(i));
+      }
+    }
+
+    return false;
+  }
+}
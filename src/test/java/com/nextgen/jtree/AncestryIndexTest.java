@@ -0,0 +1,71 @@
+package com.nextgen.jtree;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public final class AncestryIndexTest {
+
+  @Test
+  public void chainTest() {
+    final JTree<Integer> tree = JTree.treeWithRoot(0);
+    final List<Node<Integer>> chain = new ArrayList<>();
+    chain.add(tree.getRoot());
+    for (int i = 1; i <= 1000; i++) {
+      chain.add(chain.get(i - 1).addNode(i));
+    }
+
+    final AncestryIndex<Integer> index = AncestryIndex.of(tree);
+
+    assertEquals(1000, index.depth(chain.get(1000)));
+    assertSame(chain.get(1000 - 357), index.kthAncestor(chain.get(1000), 357));
+    assertSame(chain.get(1000), index.kthAncestor(chain.get(1000), 0));
+    assertNull(index.kthAncestor(chain.get(10), 11));
+    assertTrue(index.isAncestor(chain.get(3), chain.get(999)));
+    assertFalse(index.isAncestor(chain.get(999), chain.get(3)));
+    assertFalse(index.isAncestor(chain.get(3), chain.get(3)));
+    assertSame(chain.get(500), index.lowestCommonAncestor(chain.get(500), chain.get(900)));
+  }
+
+  @Test
+  public void incrementalUpdateTest() {
+    final JTree<Integer> tree = JTree.treeWithRoot(0);
+    final AncestryIndex<Integer> index = AncestryIndex.of(tree);
+
+    final Node<Integer> left = tree.getRoot().addNode(1);
+    final Node<Integer> right = tree.getRoot().addNode(2);
+    Node<Integer> leftLeaf = left;
+    for (int i = 0; i < 37; i++) {
+      leftLeaf = leftLeaf.addNode(10 + i);
+    }
+    final Node<Integer> rightLeaf = right.addNode(3).addNode(4);
+
+    assertSame(tree.getRoot(), index.lowestCommonAncestor(leftLeaf, rightLeaf));
+    assertSame(left.getChild(0), index.lowestCommonAncestor(leftLeaf, left.getChild(0)));
+    assertSame(tree.getRoot(), index.lowestCommonAncestor(left, right));
+    assertEquals(38, index.depth(leftLeaf));
+
+    final SubtreeBuilder<Integer> builder = SubtreeBuilder.withRoot(100);
+    builder.addNode(builder.addNode(SubtreeBuilder.ROOT, 101), 102);
+    final Node<Integer> branch = builder.attachTo(rightLeaf);
+    final Node<Integer> branchLeaf = tree.findNodes(d -> d == 102).iterator().next();
+
+    assertEquals(6, index.depth(branchLeaf));
+    assertTrue(index.isAncestor(right, branchLeaf));
+
+    tree.getRoot().removeNode(right);
+    assertThrows(IllegalArgumentException.class, () -> index.depth(branch));
+    assertThrows(IllegalArgumentException.class, () -> index.depth(rightLeaf));
+    assertEquals(38, index.depth(leftLeaf));
+
+    index.close();
+    final Node<Integer> unindexed = left.addNode(5);
+    assertThrows(IllegalArgumentException.class, () -> index.depth(unindexed));
+  }
+}
@@ -0,0 +1,234 @@
+package com.nextgen.jtree;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import com.nextgen.jtree.JTreeStructureChangesEventHandler.TreeStructureChangeEvent;
+
+public final class AsyncStructureChangesEventHandlerTest {
+
+  @Test
+  public void asyncPreservesOrderTest() throws InterruptedException {
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    final List<Integer> delivered = Collections.synchronizedList(new ArrayList<>());
+    final Node<Integer> node = new Node<>(0);
+
+    node.addStructureChangesHandler(AsyncStructureChangesEventHandler
+        .async((n, c, e) -> delivered.add(c.getData()), executor, 16), true);
+    for (int i = 1; i <= 1000; i++) {
+      node.addNode(i);
+    }
+
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+    assertEquals(1000, delivered.size());
+    for (int i = 0; i < delivered.size(); i++) {
+      assertEquals(Integer.valueOf(i + 1), delivered.get(i));
+    }
+  }
+
+  @Test
+  public void batchingWithCoalescingTest() throws InterruptedException {
+    final CountDownLatch blocked = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    executor.execute(() -> {
+      try {
+        blocked.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+
+    final List<List<StructureChange<Object>>> batches = new ArrayList<>();
+    final Node<Object> node = new Node<>(new Object());
+    node.addStructureChangesHandler(
+        AsyncStructureChangesEventHandler.batching(batches::add, executor, 16, 16, true), true);
+
+    final Node<Object> removed = node.addNode(new Object());
+    final Node<Object> kept = node.addNode(new Object());
+    node.removeNode(removed);
+
+    blocked.countDown();
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+    assertEquals(1, batches.size());
+    assertEquals(1, batches.get(0).size());
+    assertEquals(kept, batches.get(0).get(0).getCause());
+    assertEquals(node, batches.get(0).get(0).getChangedNode());
+    assertEquals(TreeStructureChangeEvent.ADD_NODE, batches.get(0).get(0).getEvent());
+  }
+
+  @Test
+  public void coalescingDropsChangesInsideCancelledBranchTest() throws InterruptedException {
+    final CountDownLatch blocked = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    executor.execute(() -> {
+      try {
+        blocked.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+
+    final List<List<StructureChange<Integer>>> batches = new ArrayList<>();
+    final Node<Integer> node = new Node<>(0);
+    node.addStructureChangesHandler(
+        AsyncStructureChangesEventHandler.batching(batches::add, executor, 16, 16, true), true);
+
+    final Node<Integer> removed = node.addNode(1);
+    removed.addNode(10).addNode(100);
+    final Node<Integer> escaped = removed.addNode(11);
+    final Node<Integer> kept = node.addNode(2);
+    escaped.moveTo(kept);
+    node.removeNode(removed);
+    node.addNode(removed);
+    removed.addNode(12);
+
+    blocked.countDown();
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+    assertEquals(1, batches.size());
+    final List<StructureChange<Integer>> batch = batches.get(0);
+    assertEquals(4, batch.size());
+    assertEquals(kept, batch.get(0).getCause());
+    assertEquals(escaped, batch.get(1).getCause());
+    assertEquals(kept, batch.get(1).getChangedNode());
+    assertEquals(TreeStructureChangeEvent.ADD_NODE, batch.get(1).getEvent());
+    assertEquals(removed, batch.get(2).getCause());
+    assertEquals(Integer.valueOf(12), batch.get(3).getCause().getData());
+  }
+
+  @Test
+  public void coalescingUsesAncestryAtTheTimeOfChangeTest() throws InterruptedException {
+    final CountDownLatch blocked = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    executor.execute(() -> {
+      try {
+        blocked.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+
+    final List<List<StructureChange<Integer>>> batches = new ArrayList<>();
+    final Node<Integer> node = new Node<>(0);
+    node.addStructureChangesHandler(
+        AsyncStructureChangesEventHandler.batching(batches::add, executor, 16, 16, true), true);
+
+    final Node<Integer> removed = node.addNode(1);
+    final Node<Integer> escaped = removed.addNode(10);
+    escaped.addNode(100);
+    final Node<Integer> kept = node.addNode(2);
+    escaped.moveTo(kept);
+    node.removeNode(removed);
+
+    blocked.countDown();
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+    assertEquals(1, batches.size());
+    final List<StructureChange<Integer>> batch = batches.get(0);
+    assertEquals(2, batch.size());
+    assertEquals(kept, batch.get(0).getCause());
+    assertEquals(escaped, batch.get(1).getCause());
+    assertEquals(kept, batch.get(1).getChangedNode());
+    assertEquals(TreeStructureChangeEvent.ADD_NODE, batch.get(1).getEvent());
+  }
+
+  @Test
+  public void asyncDeliversRestOfBatchAfterFailureTest() throws InterruptedException {
+    final CountDownLatch blocked = new CountDownLatch(1);
+    final ExecutorService pool = Executors.newSingleThreadExecutor();
+    pool.execute(() -> {
+      try {
+        blocked.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    final List<RuntimeException> failures = Collections.synchronizedList(new ArrayList<>());
+    final Executor executor = task -> pool.execute(() -> {
+      try {
+        task.run();
+      } catch (RuntimeException e) {
+        failures.add(e);
+      }
+    });
+
+    final List<Integer> delivered = Collections.synchronizedList(new ArrayList<>());
+    final Node<Integer> node = new Node<>(0);
+    node.addStructureChangesHandler(AsyncStructureChangesEventHandler.async((n, c, e) -> {
+      delivered.add(c.getData());
+      if (c.getData() % 2 == 1) {
+        throw new IllegalStateException(String.valueOf(c.getData()));
+      }
+    }, executor, 16, 16, false), true);
+    for (int i = 1; i <= 4; i++) {
+      node.addNode(i);
+    }
+
+    blocked.countDown();
+    pool.shutdown();
+    assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+    assertEquals(Arrays.asList(1, 2, 3, 4), delivered);
+    assertEquals(1, failures.size());
+    assertEquals("1", failures.get(0).getMessage());
+    assertEquals("3", failures.get(0).getSuppressed()[0].getMessage());
+  }
+
+  @Test
+  public void asyncBlocksOnFullQueueTest() throws InterruptedException {
+    final CountDownLatch blocked = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    final Node<Object> node = new Node<>(new Object());
+    node.addStructureChangesHandler(AsyncStructureChangesEventHandler.async((n, c, e) -> {
+      try {
+        blocked.await();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    }, executor, 1, 1, false), true);
+
+    final Thread writer = new Thread(() -> {
+      for (int i = 0; i < 3; i++) {
+        node.addNode(new Object());
+      }
+    });
+    writer.start();
+    writer.join(200);
+
+    assertTrue(writer.isAlive());
+
+    blocked.countDown();
+    writer.join(10_000);
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    assertEquals(3, node.getSubtreeLength());
+  }
+
+  @Test
+  public void asyncWithNullArgumentsTest() {
+    assertThrows(IllegalArgumentException.class,
+        () -> AsyncStructureChangesEventHandler.async(null, Runnable::run, 1));
+    assertThrows(IllegalArgumentException.class,
+        () -> AsyncStructureChangesEventHandler.async((n, c, e) -> {
+        }, null, 1));
+    assertThrows(IllegalArgumentException.class,
+        () -> AsyncStructureChangesEventHandler.async((n, c, e) -> {
+        }, Runnable::run, 0));
+  }
+}
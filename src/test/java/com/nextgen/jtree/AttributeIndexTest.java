@@ -0,0 +1,83 @@
+package com.nextgen.jtree;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public final class AttributeIndexTest {
+
+  @Test
+  public void hashIndexTest() {
+    final JTree<String> tree = JTree.treeWithRoot("root:0");
+    final Node<String> a = tree.getRoot().addNode("a:1");
+    final Node<String> b = a.addNode("b:1");
+
+    final AttributeIndex<String, String> index =
+        tree.createIndex("id", d -> d.substring(d.indexOf(':') + 1));
+
+    assertEquals(new HashSet<>(Arrays.asList(a, b)), index.get("1"));
+    assertEquals(Collections.singleton(tree.getRoot()), index.get("0"));
+    assertTrue(index.get("2").isEmpty());
+    assertFalse(index.isSorted());
+    assertSame(index, tree.getIndex("id"));
+
+    final Node<String> c = b.addNode("c:2");
+    assertEquals(Collections.singleton(c), index.get("2"));
+
+    tree.getRoot().removeNode(a);
+    assertTrue(index.get("1").isEmpty());
+    assertTrue(index.get("2").isEmpty());
+
+    assertThrows(IllegalStateException.class, () -> index.range("0", true, "1", true));
+    assertThrows(IllegalArgumentException.class, () -> index.get(null));
+    assertThrows(IllegalArgumentException.class, () -> tree.createIndex("id", d -> d));
+  }
+
+  @Test
+  public void sortedIndexTest() {
+    final JTree<Integer> tree = JTree.treeWithRoot(0);
+    final SubtreeBuilder<Integer> builder = SubtreeBuilder.withRoot(10);
+    for (int i = 11; i < 20; i++) {
+      builder.addNode(SubtreeBuilder.ROOT, i);
+    }
+    final AttributeIndex<Integer, Integer> index =
+        tree.createSortedIndex("value", d -> d % 2 == 0 ? d : null, null);
+
+    builder.attachTo(tree.getRoot());
+
+    assertEquals(new HashSet<>(Arrays.asList(10, 12, 14)),
+        data(index.range(10, true, 16, false)));
+    assertEquals(new HashSet<>(Arrays.asList(0, 10)), data(index.range(-5, false, 10, true)));
+    assertTrue(index.get(11).isEmpty());
+    assertTrue(index.isSorted());
+
+    assertTrue(tree.dropIndex("value"));
+    assertFalse(tree.dropIndex("value"));
+    assertNull(tree.getIndex("value"));
+    tree.getRoot().addNode(2);
+    assertTrue(index.get(2).isEmpty());
+  }
+
+  @Test
+  public void emptyTreeTest() {
+    final JTree<Object> tree = JTree.emptyTree();
+
+    final IllegalStateException actualException =
+        assertThrows(IllegalStateException.class, () -> tree.createIndex("id", d -> d));
+    assertEquals("Tree is empty.", actualException.getMessage());
+  }
+
+  private static HashSet<Integer> data(final Set<Node<Integer>> nodes) {
+    final HashSet<Integer> data = new HashSet<>();
+    nodes.forEach(n -> data.add(n.getData()));
+    return data;
+  }
+}
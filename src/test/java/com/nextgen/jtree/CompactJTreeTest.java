@@ -0,0 +1,155 @@
+package com.nextgen.jtree;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+public final class CompactJTreeTest {
+
+  @Test
+  public void addNodeTest() {
+    final CompactJTree<Integer> tree = CompactJTree.treeWithRoot(0, 1);
+    final int first = tree.addNode(CompactJTree.ROOT, 1);
+    final int second = tree.addNode(CompactJTree.ROOT, 2);
+    final int third = tree.addNode(first, 3);
+
+    assertEquals(4, tree.size());
+    assertEquals(3, tree.getSubtreeLength(CompactJTree.ROOT));
+    assertEquals(1, tree.getSubtreeLength(first));
+    assertEquals(first, tree.getParent(third));
+    assertEquals(CompactJTree.NO_NODE, tree.getParent(CompactJTree.ROOT));
+    assertEquals(new HashSet<>(Arrays.asList(first, second)),
+        new HashSet<>(Arrays.asList(tree.getFirstChild(CompactJTree.ROOT),
+            tree.getNextSibling(tree.getFirstChild(CompactJTree.ROOT)))));
+    assertThrows(IllegalArgumentException.class, () -> tree.addNode(42, 4));
+    assertThrows(IllegalArgumentException.class, () -> tree.addNode(first, null));
+  }
+
+  @Test
+  public void removeNodeTest() {
+    final CompactJTree<Integer> tree = CompactJTree.treeWithRoot(0, 8);
+    final int first = tree.addNode(CompactJTree.ROOT, 1);
+    final int second = tree.addNode(CompactJTree.ROOT, 2);
+    tree.addNode(tree.addNode(first, 3), 4);
+
+    assertEquals(3, tree.removeNode(first));
+    assertEquals(2, tree.size());
+    assertEquals(1, tree.getSubtreeLength(CompactJTree.ROOT));
+    assertEquals(second, tree.getFirstChild(CompactJTree.ROOT));
+    assertEquals(CompactJTree.NO_NODE, tree.getNextSibling(second));
+    assertFalse(tree.contains(first));
+    assertEquals(new HashSet<>(Arrays.asList(0, 2)), tree.findData(d -> true));
+    assertThrows(IllegalArgumentException.class, () -> tree.removeNode(first));
+    assertThrows(IllegalArgumentException.class, () -> tree.removeNode(CompactJTree.ROOT));
+
+    final int reused = tree.addNode(second, 5);
+    assertEquals(Integer.valueOf(5), tree.getData(reused));
+    assertEquals(2, tree.getSubtreeLength(CompactJTree.ROOT));
+  }
+
+  @Test
+  public void findNodesTest() {
+    final CompactJTree<Integer> tree = CompactJTree.treeWithRoot(0, 4);
+    final int node = tree.addNode(tree.addNode(CompactJTree.ROOT, 1), 2);
+
+    assertEquals(Collections.singleton(tree.getNode(node)), tree.findNodes(d -> d == 2));
+    assertEquals(Integer.valueOf(2), tree.findNodes(d -> d == 2).iterator().next().getData());
+    assertThrows(IllegalStateException.class,
+        () -> CompactJTree.<Integer>emptyTree().findNodes(d -> true));
+  }
+
+  @Test
+  public void findParallelTest() {
+    final CompactJTree<Integer> tree = CompactJTree.treeWithRoot(0, 0);
+    int parent = CompactJTree.ROOT;
+    for (int i = 1; i < 10 * ParallelTreeSearch.SEQUENTIAL_THRESHOLD; i++) {
+      final int node = tree.addNode(parent, i);
+      if (i % 3 == 0) {
+        parent = node;
+      }
+    }
+
+    assertEquals(tree.findData(d -> d % 5 == 0),
+        tree.findDataParallel(d -> d % 5 == 0, ForkJoinPool.commonPool()));
+    assertEquals(tree.findNodes(d -> d % 7 == 0),
+        tree.findNodesParallel(d -> d % 7 == 0, ForkJoinPool.commonPool()));
+  }
+
+  @Test
+  public void copyOfTest() {
+    final JTree<Integer> source = JTree.treeWithRoot(0);
+    source.getRoot().addNode(1).addNode(2);
+    source.getRoot().addNode(3);
+
+    final CompactJTree<Integer> copy = CompactJTree.copyOf(source);
+
+    assertEquals(4, copy.size());
+    assertEquals(3, copy.getSubtreeLength(CompactJTree.ROOT));
+    assertEquals(new HashSet<>(Arrays.asList(0, 1, 2, 3)), copy.findData(d -> true));
+  }
+
+  @Test
+  public void copyOfChildOrderTest() {
+    final JTree<Integer> source = JTree.treeWithRoot(0);
+    source.getRoot().addNodes(Arrays.asList(1, 2, 3)).get(1).addNodes(Arrays.asList(4, 5));
+
+    final CompactJTree<Integer> copy = CompactJTree.copyOf(source);
+
+    assertEquals(Arrays.asList(1, 2, 3), childData(copy, CompactJTree.ROOT));
+    final int second = copy.getNextSibling(copy.getFirstChild(CompactJTree.ROOT));
+    assertEquals(Arrays.asList(4, 5), childData(copy, second));
+    assertEquals(2, copy.getSubtreeLength(second));
+  }
+
+  @Test
+  public void copyOfDeepTreeTest() {
+    final int depth = 100_000;
+    Node<Integer> top = new Node<>(depth - 1);
+    for (int i = depth - 2; i >= 0; i--) {
+      top = new Node<>(i).addNode(top).getParent();
+    }
+
+    final CompactJTree<Integer> copy = CompactJTree.copyOf(JTree.treeOf(top));
+
+    assertEquals(depth, copy.size());
+    int node = CompactJTree.ROOT;
+    for (int i = 0; i < depth; i++) {
+      assertEquals(i, copy.getData(node).intValue());
+      assertEquals(depth - 1 - i, copy.getSubtreeLength(node));
+      node = copy.getFirstChild(node);
+    }
+    assertEquals(CompactJTree.NO_NODE, node);
+  }
+
+  private static List<Integer> childData(final CompactJTree<Integer> tree, final int node) {
+    final List<Integer> data = new ArrayList<>();
+    for (int c = tree.getFirstChild(node); c != CompactJTree.NO_NODE; c = tree.getNextSibling(c)) {
+      data.add(tree.getData(c));
+    }
+
+    return data;
+  }
+
+  @Test
+  public void findTopKTest() {
+    final CompactJTree<Integer> tree = CompactJTree.treeWithRoot(0, 5000);
+    for (int i = 1; i < 5000; i++) {
+      tree.addNode(i / 2, i);
+    }
+
+    assertEquals(Arrays.asList(4999, 4998, 4997),
+        tree.findTopK(d -> true, Comparator.naturalOrder(), 3));
+    assertEquals(Arrays.asList(4995, 4990, 4985), tree.findTopKParallel(d -> d % 5 == 0,
+        Comparator.naturalOrder(), 3, ForkJoinPool.commonPool()));
+    assertThrows(IllegalArgumentException.class,
+        () -> tree.findTopK(d -> true, Comparator.naturalOrder(), -1));
+  }
+}
@@ -0,0 +1,50 @@
+package com.nextgen.jtree;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+public final class IntJTreeTest {
+
+  @Test
+  public void addNodeTest() {
+    final IntJTree tree = IntJTree.treeWithRoot(0, 1);
+    final int first = tree.addNode(IntJTree.ROOT, 10);
+    final int second = tree.addNode(first, 20);
+
+    assertEquals(3, tree.size());
+    assertEquals(2, tree.getSubtreeLength(IntJTree.ROOT));
+    assertEquals(first, tree.getParent(second));
+    assertEquals(20, tree.getData(second));
+    assertThrows(IllegalArgumentException.class, () -> tree.addNode(42, 1));
+    assertThrows(IllegalStateException.class, () -> tree.addRoot(1));
+  }
+
+  @Test
+  public void findDataTest() {
+    final IntJTree tree = IntJTree.treeWithRoot(5, 8);
+    final int first = tree.addNode(IntJTree.ROOT, 3);
+    tree.addNode(first, 5);
+    tree.addNode(IntJTree.ROOT, 8);
+
+    assertArrayEquals(new int[] {3, 5}, tree.findData(d -> d < 8));
+    assertArrayEquals(new int[0], tree.findData(d -> d > 8));
+    assertThrows(IllegalStateException.class, () -> IntJTree.emptyTree().findData(d -> true));
+  }
+
+  @Test
+  public void findNodesAfterRemoveTest() {
+    final IntJTree tree = IntJTree.treeWithRoot(0, 0);
+    int parent = IntJTree.ROOT;
+    for (int i = 1; i < 100; i++) {
+      parent = tree.addNode(parent, i);
+    }
+    final int removed = tree.findNodes(d -> d == 50)[0];
+
+    assertEquals(50, tree.removeNode(removed));
+    assertEquals(50, tree.size());
+    assertEquals(50, tree.findNodes(d -> true).length);
+    assertArrayEquals(new int[] {49}, tree.findData(d -> d >= 49));
+  }
+}
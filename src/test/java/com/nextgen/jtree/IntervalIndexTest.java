@@ -0,0 +1,109 @@
+package com.nextgen.jtree;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+public final class IntervalIndexTest {
+
+  @Test
+  public void subtreeTest() {
+    final JTree<Integer> tree = JTree.treeWithRoot(0);
+    final Node<Integer> left = tree.getRoot().addNode(1);
+    left.addNode(2).addNode(3);
+    left.addNode(4);
+    final Node<Integer> right = tree.getRoot().addNode(5);
+
+    final IntervalIndex<Integer> index = IntervalIndex.of(tree);
+
+    assertEquals(Arrays.asList(1, 2, 3, 4), data(index.subtree(left)));
+    assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5), data(index.subtree(tree.getRoot())));
+    assertEquals(Arrays.asList(5), data(index.subtree(right)));
+
+    right.addNode(6);
+    left.getChild(0).addNode(7);
+    assertEquals(Arrays.asList(1, 2, 3, 7, 4), data(index.subtree(left)));
+    assertEquals(Arrays.asList(5, 6), data(index.subtree(right)));
+
+    tree.getRoot().removeNode(left);
+    assertEquals(Arrays.asList(0, 5, 6), data(index.subtree(tree.getRoot())));
+    assertThrows(IllegalArgumentException.class, () -> index.subtree(left));
+  }
+
+  @Test
+  public void isInSubtreeTest() {
+    final JTree<Integer> tree = JTree.treeWithRoot(0);
+    final IntervalIndex<Integer> index = IntervalIndex.of(tree);
+
+    // deep chains exhaust gaps and force renumbering
+    final Random random = new Random(17);
+    final List<Node<Integer>> nodes = new ArrayList<>();
+    nodes.add(tree.getRoot());
+    for (int i = 1; i < 2000; i++) {
+      final Node<Integer> parent =
+          i % 3 == 0 ? nodes.get(random.nextInt(nodes.size())) : nodes.get(nodes.size() - 1);
+      nodes.add(parent.addNode(i));
+    }
+
+    for (int i = 0; i < 20000; i++) {
+      final Node<Integer> node = nodes.get(random.nextInt(nodes.size()));
+      final Node<Integer> top = nodes.get(random.nextInt(nodes.size()));
+      assertEquals(isInSubtree(node, top), index.isInSubtree(node, top));
+    }
+    for (Node<Integer> node : nodes) {
+      assertTrue(index.isInSubtree(node, tree.getRoot()));
+      assertTrue(index.isInSubtree(node, node));
+      assertEquals(1 + node.getSubtreeLength(), index.subtree(node).size());
+    }
+
+    index.close();
+    final Node<Integer> unindexed = tree.getRoot().addNode(-1);
+    assertThrows(IllegalArgumentException.class,
+        () -> index.isInSubtree(unindexed, tree.getRoot()));
+    assertFalse(index.isInSubtree(tree.getRoot(), nodes.get(1)));
+  }
+
+  @Test
+  public void wideFanOutTest() {
+    final int width = 200_000;
+    final JTree<Integer> tree = JTree.treeWithRoot(0);
+    final Node<Integer> sibling = tree.getRoot().addNode(-1);
+    final IntervalIndex<Integer> index = IntervalIndex.of(tree);
+
+    // appends always take the tail of the gap, wide parents must not renumber on every few of them
+    final Node<Integer> parent = tree.getRoot().addNode(1);
+    final List<Node<Integer>> children = new ArrayList<>();
+    for (int i = 0; i < width; i++) {
+      children.add(parent.addNode(i));
+      tree.getRoot().addNode(-i);
+    }
+
+    assertEquals(1 + width, index.subtree(parent).size());
+    for (int i = 0; i < width; i += 997) {
+      assertTrue(index.isInSubtree(children.get(i), parent));
+      assertFalse(index.isInSubtree(children.get(i), sibling));
+      assertEquals(Integer.valueOf(i), index.subtree(parent).get(1 + i).getData());
+    }
+  }
+
+  private static boolean isInSubtree(final Node<Integer> node, final Node<Integer> top) {
+    for (Node<Integer> current = node; current != null; current = current.getParent()) {
+      if (current == top) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  private static List<Integer> data(final List<Node<Integer>> nodes) {
+    return nodes.stream().map(Node::getData).collect(Collectors.toList());
+  }
+}
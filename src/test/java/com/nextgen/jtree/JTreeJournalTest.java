@@ -0,0 +1,223 @@
+package com.nextgen.jtree;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import com.nextgen.jtree.JTreeStructureChangesEventHandler.TreeStructureChangeEvent;
+
+public final class JTreeJournalTest {
+  private Path directory;
+
+  @BeforeEach
+  public void createDirectory() throws IOException {
+    directory = Files.createTempDirectory("jtree");
+  }
+
+  @AfterEach
+  public void deleteDirectory() throws IOException {
+    try (Stream<Path> files = Files.walk(directory)) {
+      files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+    }
+  }
+
+  @Test
+  public void recoverTest() throws IOException {
+    try (JTreeJournal<String> journal = open()) {
+      final Node<String> root = journal.getTree().getRoot();
+      final Node<String> first = root.addNode("first");
+      first.addNode("first.1");
+      root.addNode("second").addNode("second.1");
+      root.removeNode(root.findNodes(d -> d.equals("second")).iterator().next());
+
+      final SubtreeBuilder<String> builder = SubtreeBuilder.withRoot("branch");
+      builder.addNode(SubtreeBuilder.ROOT, "branch.1");
+      builder.attachTo(first);
+    }
+
+    try (JTreeJournal<String> journal = open()) {
+      final JTree<String> tree = journal.getTree();
+
+      assertEquals(new HashSet<>(Arrays.asList("root", "first", "first.1", "branch", "branch.1")),
+          tree.findData(d -> true));
+      assertEquals(4, tree.getRoot().getSubtreeLength());
+
+      tree.getRoot().findNodes(d -> d.equals("branch")).iterator().next().addNode("branch.2");
+    }
+
+    try (JTreeJournal<String> journal = open()) {
+      assertEquals(5, journal.getTree().getRoot().getSubtreeLength());
+    }
+  }
+
+  @Test
+  public void compactTest() throws IOException {
+    try (JTreeJournal<String> journal = open()) {
+      journal.getTree().getRoot().addNode("first").addNode("first.1");
+      assertTrue(journal.getJournalLength() > 0);
+
+      journal.compact();
+      assertEquals(0, journal.getJournalLength());
+
+      journal.getTree().getRoot().findNodes(d -> d.equals("first.1")).iterator().next()
+          .addNode("first.1.1");
+    }
+
+    try (JTreeJournal<String> journal = open()) {
+      assertEquals(new HashSet<>(Arrays.asList("root", "first", "first.1", "first.1.1")),
+          journal.getTree().findData(d -> true));
+    }
+  }
+
+  @Test
+  public void tornRecordTest() throws IOException {
+    try (JTreeJournal<String> journal = open()) {
+      journal.getTree().getRoot().addNode("first");
+      journal.getTree().getRoot().addNode("second");
+    }
+
+    final Path file = directory.resolve(JTreeJournal.JOURNAL);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      channel.truncate(channel.size() - 2);
+    }
+
+    try (JTreeJournal<String> journal = open()) {
+      assertEquals(new HashSet<>(Arrays.asList("root", "first")),
+          journal.getTree().findData(d -> true));
+
+      journal.getTree().getRoot().addNode("third");
+    }
+
+    try (JTreeJournal<String> journal = open()) {
+      assertEquals(new HashSet<>(Arrays.asList("root", "first", "third")),
+          journal.getTree().findData(d -> true));
+    }
+  }
+
+  @Test
+  public void damagedRecordLengthTest() throws IOException {
+    try (JTreeJournal<String> journal = open()) {
+      journal.getTree().getRoot().addNode("first");
+    }
+
+    // length word of a record that never made it to disk, claiming far more than the journal holds
+    final Path file = directory.resolve(JTreeJournal.JOURNAL);
+    final ByteBuffer damaged = ByteBuffer.allocate(6).putInt(0x7FFFFFF0).putShort((short) 1);
+    damaged.flip();
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      channel.write(damaged, channel.size());
+    }
+
+    try (JTreeJournal<String> journal = open()) {
+      assertEquals(new HashSet<>(Arrays.asList("root", "first")),
+          journal.getTree().findData(d -> true));
+
+      journal.getTree().getRoot().addNode("second");
+    }
+
+    try (JTreeJournal<String> journal = open()) {
+      assertEquals(new HashSet<>(Arrays.asList("root", "first", "second")),
+          journal.getTree().findData(d -> true));
+    }
+  }
+
+  @Test
+  public void childOrderTest() throws IOException {
+    final List<String> order = Arrays.asList("a", "b", "c");
+    try (JTreeJournal<String> journal = open()) {
+      final Node<String> root = journal.getTree().getRoot();
+      order.forEach(root::addNode);
+      root.getChild(1).addNodes(order);
+    }
+
+    for (int i = 0; i < 2; i++) {
+      try (JTreeJournal<String> journal = open()) {
+        final Node<String> root = journal.getTree().getRoot();
+        assertEquals(order, root.getSubtree().stream().map(Node::getData)
+            .collect(Collectors.toList()));
+        assertEquals(order, root.getChild(1).getSubtree().stream().map(Node::getData)
+            .collect(Collectors.toList()));
+
+        journal.compact();
+      }
+    }
+  }
+
+  @Test
+  public void concurrentlyAddedBranchTest() throws IOException {
+    try (JTreeJournal<String> journal = open()) {
+      final Node<String> branch = new Node<>("branch");
+      final Node<String> leaf = branch.addNode("leaf");
+      journal.getTree().getRoot().addNode(branch);
+
+      // addition of the leaf delivered after the branch holding it has already been written
+      journal.handle(branch, leaf, TreeStructureChangeEvent.ADD_NODE);
+    }
+
+    try (JTreeJournal<String> journal = open()) {
+      assertEquals(2, journal.getTree().getRoot().getSubtreeLength());
+    }
+  }
+
+  @Test
+  public void moveTest() throws IOException {
+    try (JTreeJournal<String> journal = open()) {
+      final Node<String> root = journal.getTree().getRoot();
+      final Node<String> first = root.addNode("first");
+      final Node<String> second = root.addNode("second");
+      final Node<String> branch = first.addNode("branch");
+      branch.addNode("branch.1");
+
+      final long length = journal.getJournalLength();
+      branch.moveTo(second);
+      assertTrue(journal.getJournalLength() - length < 16);
+      branch.addNode("branch.2");
+    }
+
+    try (JTreeJournal<String> journal = open()) {
+      final Node<String> root = journal.getTree().getRoot();
+      final Node<String> second = root.findNodes(d -> d.equals("second")).iterator().next();
+      assertEquals(3, second.getSubtreeLength());
+      assertEquals(new HashSet<>(Arrays.asList("second", "branch", "branch.1", "branch.2")),
+          second.findData(d -> true));
+      assertEquals(0, root.findNodes(d -> d.equals("first")).iterator().next()
+          .getSubtreeLength());
+    }
+  }
+
+  @Test
+  public void syncBatchTest() throws IOException {
+    final JTreeJournal<String> journal = JTreeJournal.open(directory, PayloadCodec.strings(),
+        () -> JTree.treeWithRoot("root"), 3);
+    final long empty = Files.size(directory.resolve(JTreeJournal.JOURNAL));
+
+    journal.getTree().getRoot().addNode("first");
+    journal.getTree().getRoot().addNode("second");
+    assertEquals(empty, Files.size(directory.resolve(JTreeJournal.JOURNAL)));
+
+    journal.getTree().getRoot().addNode("third");
+    assertTrue(Files.size(directory.resolve(JTreeJournal.JOURNAL)) > empty);
+
+    journal.close();
+    assertThrows(IllegalStateException.class, () -> journal.sync());
+  }
+
+  private JTreeJournal<String> open() throws IOException {
+    return JTreeJournal.open(directory, PayloadCodec.strings(), () -> JTree.treeWithRoot("root"),
+        1);
+  }
+}
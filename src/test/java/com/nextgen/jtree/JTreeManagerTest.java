@@ -24,4 +24,23 @@ public final class JTreeManagerTest {
     assertEquals(expectedMaxChildrenLimit,
         JTreeManager.defineMaxChildrenLimitForNode(lastNode, maxChildrenLimit));
   }
+
+  @Test
+  public void defineCapacityLimitForNodeTest() {
+    final Node<Object> node = new Node<>(new Object());
+    final Node<Object> subNode = node.addNode(new Object());
+
+    assertEquals(Node.UNBOUNDED, JTreeManager.defineCapacityLimitForNode(subNode));
+
+    node.setSubtreeCapacity(10);
+    subNode.setSubtreeCapacity(5);
+    subNode.addNode(new Object());
+    node.addNode(new Object()).addNode(new Object());
+
+    assertEquals(4, JTreeManager.defineCapacityLimitForNode(subNode));
+    assertEquals(6, JTreeManager.defineCapacityLimitForNode(node));
+
+    node.setSubtreeCapacity(6);
+    assertEquals(2, JTreeManager.defineCapacityLimitForNode(subNode));
+  }
 }
@@ -0,0 +1,104 @@
+package com.nextgen.jtree;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+import com.nextgen.jtree.JTreeMetrics.Operation;
+
+public final class JTreeMetricsTest {
+
+  @Test
+  public void structureTest() {
+    final JTree<Integer> tree = JTree.treeWithRoot(0);
+    final Node<Integer> child = tree.getRoot().addNode(1);
+    child.addNode(2);
+
+    final JTreeMetrics<Integer> metrics = JTreeMetrics.of(tree);
+    assertEquals(3, metrics.getNodeCount());
+    assertEquals(2, metrics.getMaxDepth());
+
+    final SubtreeBuilder<Integer> builder = SubtreeBuilder.withRoot(3);
+    builder.addNode(builder.addNode(SubtreeBuilder.ROOT, 4), 5);
+    final Node<Integer> branch = builder.attachTo(child);
+    child.addNodes(Arrays.asList(6, 7));
+    assertEquals(8, metrics.getNodeCount());
+    assertEquals(4, metrics.getMaxDepth());
+    assertEquals(5, metrics.getAddedCount());
+
+    branch.moveTo(tree.getRoot());
+    assertEquals(8, metrics.getNodeCount());
+    assertEquals(3, metrics.getMaxDepth());
+    assertEquals(3, metrics.getMovedCount());
+    assertEquals(5, metrics.getAddedCount());
+    assertEquals(0, metrics.getRemovedCount());
+    branch.moveTo(child);
+    assertEquals(4, metrics.getMaxDepth());
+
+    child.removeNode(branch);
+    assertEquals(2, metrics.getMaxDepth());
+    assertEquals(3, metrics.getRemovedCount());
+    assertTrue(metrics.getAddedRate() > 0);
+
+    metrics.close();
+    tree.getRoot().addNode(8);
+    assertEquals(5, metrics.getAddedCount());
+  }
+
+  @Test
+  public void searchTest() {
+    final JTree<Integer> tree = JTree.treeWithRoot(0);
+    tree.getRoot().addNode(1).addNode(2);
+    tree.getRoot().addNode(3);
+    final JTreeMetrics<Integer> metrics = JTreeMetrics.of(tree);
+
+    tree.findData(d -> true);
+    tree.findNodesParallel(d -> true, ForkJoinPool.commonPool());
+    tree.findData(d -> true, d -> d == 0, 5, 10);
+    tree.getRoot().findNodes(d -> true, d -> true, 5, 2);
+    assertEquals(4, metrics.getSearchCount());
+    // full scans visit 4 nodes each, the bounded ones skip the node with data 2 and stop at the
+    // second match
+    assertEquals((4 + 4 + 3 + 2) / 4.0, metrics.getVisitedPerSearch(), 1e-9);
+
+    metrics.close();
+  }
+
+  @Test
+  public void dispatchTest() {
+    final JTree<Integer> tree = JTree.treeWithRoot(0);
+    final JTreeMetrics<Integer> metrics = JTreeMetrics.of(tree);
+    final List<Operation> slow = new ArrayList<>();
+    metrics.setSlowOperationListener(0, (operation, nanos, nodes, handler) -> slow.add(operation));
+
+    final JTreeStructureChangesEventHandler<Integer> sleeping = (changedNode, cause, event) -> {
+      try {
+        Thread.sleep(2);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    };
+    final Node<Integer> child = tree.getRoot().addNode(1);
+    child.addStructureChangesHandler(sleeping, false);
+    tree.addStructureChangesHandler((changedNode, cause, event) -> {
+    });
+    child.addNode(2);
+
+    assertEquals(2, metrics.getDispatchCount());
+    assertSame(sleeping, metrics.getSlowestHandler());
+    assertTrue(metrics.getSlowestHandlerLatency() >= 2_000_000);
+    assertEquals(2, Arrays.stream(metrics.getDispatchLatencyHistogram()).sum());
+    assertEquals(Arrays.asList(Operation.ADD_NODE, Operation.HANDLER, Operation.HANDLER,
+        Operation.ADD_NODE), slow);
+
+    assertThrows(IllegalStateException.class, () -> JTreeMetrics.of(tree));
+    metrics.close();
+    assertNull(tree.getRoot().metrics());
+  }
+}
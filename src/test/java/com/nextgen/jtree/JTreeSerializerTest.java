@@ -0,0 +1,119 @@
+package com.nextgen.jtree;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+public final class JTreeSerializerTest {
+
+  @Test
+  public void roundTripTest() throws IOException {
+    final JTree<String> tree = JTree.treeWithRoot("root");
+    final Node<String> first = tree.getRoot().addNode("first");
+    first.addNode("first.1");
+    first.addNode("first.2").addNode("first.2.1");
+    tree.getRoot().addNode("second");
+    tree.getRoot().addNode("third");
+
+    final JTree<String> copy = JTreeSerializer.read(
+        new ByteArrayInputStream(write(tree, PayloadCodec.strings())), PayloadCodec.strings());
+
+    assertEquals("root", copy.getRoot().getData());
+    assertEquals(6, copy.getRoot().getSubtreeLength());
+    assertEquals(tree.findData(d -> true), copy.findData(d -> true));
+    assertEquals(Arrays.asList("first", "second", "third"), copy.getRoot().getSubtree().stream()
+        .map(Node::getData).collect(Collectors.toList()));
+
+    final Node<String> firstCopy = copy.findNodes(d -> d.equals("first")).iterator().next();
+    assertEquals(3, firstCopy.getSubtreeLength());
+    assertEquals(copy.getRoot(), firstCopy.getParent());
+    assertEquals(new HashSet<>(Arrays.asList("first.1", "first.2", "first.2.1")),
+        firstCopy.findData(d -> d.startsWith("first.")));
+    assertEquals("first.1", firstCopy.getChild(0).getData());
+    assertEquals("first.2", firstCopy.getChild(1).getData());
+  }
+
+  @Test
+  public void deepTreeTest() throws IOException {
+    final int depth = 100_000;
+    Node<Long> node = new Node<>((long) depth);
+    for (long i = depth - 1; i >= 0; i--) {
+      node = new Node<>(i).addNode(node).getParent();
+    }
+
+    final JTree<Long> copy = JTreeSerializer.read(
+        new ByteArrayInputStream(write(JTree.treeOf(node), PayloadCodec.longs())),
+        PayloadCodec.longs());
+
+    assertEquals(depth, copy.getRoot().getSubtreeLength());
+    assertEquals(1, copy.findNodes(d -> d == depth).size());
+  }
+
+  @Test
+  public void emptyAndConcurrentTreeTest() throws IOException {
+    final JTree<Long> empty = JTreeSerializer.read(
+        new ByteArrayInputStream(write(JTree.concurrentEmptyTree(), PayloadCodec.longs())),
+        PayloadCodec.longs());
+
+    assertNull(empty.getRoot());
+    assertTrue(empty.isConcurrent());
+
+    final JTree<Long> tree = JTree.concurrentTreeWithRoot(0L);
+    tree.getRoot().addNode(1L);
+    final JTree<Long> copy = JTreeSerializer.read(
+        new ByteArrayInputStream(write(tree, PayloadCodec.longs())), PayloadCodec.longs());
+
+    assertTrue(copy.isConcurrent());
+    assertTrue(copy.getRoot().isConcurrent());
+    copy.getRoot().addNode(2L);
+    assertEquals(2, copy.getRoot().getSubtreeLength());
+  }
+
+  @Test
+  public void malformedStreamTest() throws IOException {
+    final JTree<String> tree = JTree.treeWithRoot("root");
+    tree.getRoot().addNode("child");
+    final byte[] bytes = write(tree, PayloadCodec.strings());
+
+    assertThrows(EOFException.class, () -> JTreeSerializer.read(
+        new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 1)), PayloadCodec.strings()));
+    assertThrows(IOException.class, () -> JTreeSerializer
+        .read(new ByteArrayInputStream(new byte[] {1, 2, 3, 4, 5, 6}), PayloadCodec.strings()));
+  }
+
+  @Test
+  public void implausibleLengthsTest() throws IOException {
+    final byte[] header =
+        Arrays.copyOf(write(JTree.treeWithRoot("root"), PayloadCodec.strings()), 6);
+    final byte[] huge = {(byte) 0xF0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+
+    // root claiming 0x7FFFFFF0 children followed by nothing
+    final byte[] children = Arrays.copyOf(header, header.length + huge.length);
+    System.arraycopy(huge, 0, children, header.length, huge.length);
+    assertThrows(EOFException.class, () -> JTreeSerializer
+        .read(new ByteArrayInputStream(children), PayloadCodec.strings()));
+
+    // root claiming 0x7FFFFFF0 payload bytes followed by a few
+    final byte[] payload = Arrays.copyOf(header, header.length + 1 + huge.length + 3);
+    System.arraycopy(huge, 0, payload, header.length + 1, huge.length);
+    assertThrows(EOFException.class, () -> JTreeSerializer
+        .read(new ByteArrayInputStream(payload), PayloadCodec.strings()));
+  }
+
+  private static <T> byte[] write(final JTree<T> tree, final PayloadCodec<T> codec)
+      throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    JTreeSerializer.write(tree, out, codec);
+
+    return out.toByteArray();
+  }
+}
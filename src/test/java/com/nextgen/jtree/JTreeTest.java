@@ -4,11 +4,22 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import com.nextgen.jtree.JTreeStructureChangesEventHandler.TreeStructureChangeEvent;
 
 public final class JTreeTest {
   @Test
@@ -32,6 +43,16 @@ public final class JTreeTest {
     assertThrows(IllegalArgumentException.class, () -> JTree.treeWithRoot(null));
   }
 
+  @Test
+  public void boundedTreeWithRootTest() {
+    final JTree<Object> jTree = JTree.boundedTreeWithRoot(new Object(), 1);
+    jTree.getRoot().addNode(new Object());
+
+    assertEquals(1, jTree.getRoot().getSubtreeCapacity());
+    assertThrows(IllegalStateException.class, () -> jTree.getRoot().addNode(new Object()));
+    assertThrows(IllegalArgumentException.class, () -> JTree.boundedTreeWithRoot(new Object(), -1));
+  }
+
   @Test
   public void addRootTest() {
     final Object data = new Object();
@@ -115,6 +136,266 @@ public final class JTreeTest {
         jTree.findNodes(data::equals));
   }
 
+  @Test
+  public void findDataParallelTest() {
+    final JTree<Object> jTree = JTree.<Object>treeWithRoot(new Object());
+    final Object data = new Object();
+    final Node<Object> nodeWithDataToFind = jTree.getRoot().addNode(data);
+    nodeWithDataToFind.addNode(new Object());
+
+    assertEquals(new HashSet<>(Collections.singletonList(data)),
+        jTree.findDataParallel(data::equals, ForkJoinPool.commonPool()));
+    assertEquals(new HashSet<>(Collections.singletonList(nodeWithDataToFind)),
+        jTree.findNodesParallel(data::equals, ForkJoinPool.commonPool()));
+  }
+
+  @Test
+  public void findDataParallelWithEmptyTreeTest() {
+    final JTree<Object> jTree = JTree.<Object>emptyTree();
+
+    final IllegalStateException actualException = assertThrows(IllegalStateException.class,
+        () -> jTree.findDataParallel(d -> true, ForkJoinPool.commonPool()));
+    assertEquals("Tree is empty.", actualException.getMessage());
+  }
+
+  @Test
+  public void boundedFindTest() {
+    final JTree<Integer> jTree = JTree.treeWithRoot(0);
+    jTree.getRoot().addNode(1).addNode(2);
+    jTree.getRoot().addNode(3);
+
+    assertEquals(new HashSet<>(Arrays.asList(0, 1, 3)),
+        jTree.findData(d -> true, d -> true, 1, Integer.MAX_VALUE));
+    assertEquals(1, jTree.findNodes(d -> d > 0, d -> true, 2, 1).size());
+    assertTrue(jTree.walk((n, depth) -> NodeVisitor.VisitResult.TERMINATE));
+  }
+
+  @Test
+  public void boundedFindWithEmptyTreeTest() {
+    final JTree<Object> jTree = JTree.<Object>emptyTree();
+
+    final IllegalStateException actualException = assertThrows(IllegalStateException.class,
+        () -> jTree.findData(d -> true, d -> true, 1, 1));
+    assertEquals("Tree is empty.", actualException.getMessage());
+  }
+
+  @Test
+  public void streamTest() {
+    final JTree<Object> jTree = JTree.<Object>treeWithRoot(new Object());
+    final Object data = new Object();
+    jTree.getRoot().addNode(new Object()).addNode(data);
+
+    assertEquals(3, jTree.stream().count());
+    assertEquals(data, jTree.stream(TraversalOrder.BREADTH_FIRST).map(Node::getData)
+        .filter(data::equals).findFirst().get());
+  }
+
+  @Test
+  public void streamWithEmptyTreeTest() {
+    final JTree<Object> jTree = JTree.<Object>emptyTree();
+
+    final IllegalStateException actualException =
+        assertThrows(IllegalStateException.class, () -> jTree.stream());
+    assertEquals("Tree is empty.", actualException.getMessage());
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void addStructureChangesHandlerTest() {
+    final JTree<Object> jTree = JTree.<Object>treeWithRoot(new Object());
+    final Node<Object> subNode = jTree.getRoot().addNode(new Object());
+
+    final JTreeStructureChangesEventHandler<Object> structureChangesHandler =
+        Mockito.mock(JTreeStructureChangesEventHandler.class);
+    jTree.addStructureChangesHandler(structureChangesHandler);
+
+    final Node<Object> subSubNode = subNode.addNode(new Object());
+    Mockito.verify(structureChangesHandler).handle(subNode, subSubNode,
+        TreeStructureChangeEvent.ADD_NODE);
+
+    jTree.removeStructureChangesHandler(structureChangesHandler);
+    subSubNode.addNode(new Object());
+    Mockito.verifyNoMoreInteractions(structureChangesHandler);
+  }
+
+  @Test
+  public void addStructureChangesHandlerWithEmptyTreeTest() {
+    final JTree<Object> jTree = JTree.<Object>emptyTree();
+
+    final IllegalStateException actualException = assertThrows(IllegalStateException.class,
+        () -> jTree.addStructureChangesHandler((n, c, e) -> {
+        }));
+    assertEquals("Tree is empty.", actualException.getMessage());
+  }
+
+  @Test
+  public void concurrentTreeTest() throws Exception {
+    final JTree<Integer> jTree = JTree.concurrentTreeWithRoot(0);
+    final Node<Integer> root = jTree.getRoot();
+    final int writers = 4;
+    final int nodesPerWriter = 5_000;
+
+    final ExecutorService executor = Executors.newFixedThreadPool(writers + 1);
+    final AtomicBoolean writing = new AtomicBoolean(true);
+    try {
+      final Future<?> reader = executor.submit(() -> {
+        while (writing.get()) {
+          jTree.findData(d -> d % 2 == 0);
+          jTree.stream().count();
+        }
+      });
+
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int w = 0; w < writers; w++) {
+        final int writer = w;
+        futures.add(executor.submit(() -> {
+          final Node<Integer> branch = root.addNode(writer);
+          Node<Integer> last = branch;
+          for (int i = 1; i <= nodesPerWriter; i++) {
+            final Node<Integer> added = (i % 10 == 0 ? last : branch).addNode(i);
+            root.addNode(-i);
+            if (i % 2 == 0) {
+              last = added;
+            }
+          }
+          branch.removeNode(branch.getSubtree().iterator().next());
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+      writing.set(false);
+      reader.get();
+    } finally {
+      executor.shutdown();
+    }
+
+    assertEquals(jTree.stream().count() - 1, root.getSubtreeLength());
+    for (Node<Integer> branch : root.getSubtree()) {
+      assertEquals(branch.stream().count() - 1, branch.getSubtreeLength());
+    }
+  }
+
+  @Test
+  public void concurrentTreeContainsTest() throws Exception {
+    final JTree<Integer> jTree = JTree.concurrentTreeWithRoot(0);
+    final Node<Integer> root = jTree.getRoot();
+    final List<List<Node<Integer>>> groups = Arrays.asList(new ArrayList<>(), new ArrayList<>());
+    for (List<Node<Integer>> group : groups) {
+      for (int i = 0; i < 16; i++) {
+        group.add(root.addNode(i));
+      }
+    }
+
+    // group phase % 2 stays attached; the other one is removed ahead of it and appended behind
+    // it again, so compaction keeps renumbering the slots of children being checked
+    final AtomicInteger phase = new AtomicInteger();
+    final AtomicBoolean writing = new AtomicBoolean(true);
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      final Future<?> writer = executor.submit(() -> {
+        try {
+          for (int round = 0; round < 20_000; round++) {
+            final List<Node<Integer>> moved = groups.get((round + 1) % 2);
+            for (Node<Integer> node : moved) {
+              root.removeNode(node);
+            }
+            final List<Node<Integer>> fillers = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+              fillers.add(root.addNode(-i));
+            }
+            for (Node<Integer> filler : fillers) {
+              root.removeNode(filler);
+            }
+            for (Node<Integer> node : moved) {
+              root.addNode(node);
+            }
+            phase.set(round + 1);
+          }
+        } finally {
+          writing.set(false);
+        }
+      });
+
+      int missed = 0;
+      while (writing.get()) {
+        final int current = phase.get();
+        for (Node<Integer> node : groups.get(current % 2)) {
+          if (!root.getSubtree().contains(node) && phase.get() == current) {
+            missed++;
+          }
+        }
+      }
+      writer.get();
+
+      assertEquals(0, missed);
+    } finally {
+      executor.shutdown();
+    }
+
+    assertEquals(32, root.getSubtree().size());
+  }
+
+  @Test
+  public void concurrentCapacityRejectionTest() throws Exception {
+    final JTree<Integer> jTree = JTree.concurrentTreeWithRoot(0);
+    final Node<Integer> bounded = jTree.getRoot().addNode(1);
+    final Node<Integer> branch = bounded.addNode(2);
+    final Node<Integer> leaf = branch.addNode(3);
+    bounded.setSubtreeCapacity(2);
+
+    // additions under the leaf are rejected by the bounded node while the branch is moved out of
+    // it and back, so rejections race with removals of nodes already reserved for
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    final AtomicBoolean writing = new AtomicBoolean(true);
+    try {
+      final Future<?> mover = executor.submit(() -> {
+        try {
+          for (int i = 0; i < 500_000; i++) {
+            bounded.removeNode(branch);
+            while (true) {
+              try {
+                bounded.addNode(branch);
+                break;
+              } catch (IllegalStateException e) {
+                // leaf holds a node added while the branch was out, retry once it is gone
+              }
+            }
+          }
+        } finally {
+          writing.set(false);
+        }
+      });
+
+      while (writing.get()) {
+        try {
+          leaf.removeNode(leaf.addNode(4));
+        } catch (IllegalStateException e) {
+          // rejected by the bounded node
+        }
+      }
+      mover.get();
+    } finally {
+      executor.shutdown();
+    }
+
+    for (Node<Integer> node : jTree.stream().toArray(Node[]::new)) {
+      assertEquals(node.stream().count() - 1, node.getSubtreeLength());
+    }
+  }
+
+  @Test
+  public void concurrentTreeCreateNodeTest() {
+    final JTree<Object> jTree = JTree.concurrentEmptyTree();
+    jTree.addRoot(new Object());
+
+    assertTrue(jTree.isConcurrent());
+    assertTrue(jTree.getRoot().isConcurrent());
+    assertTrue(jTree.getRoot().addNode(jTree.createNode(new Object())).isConcurrent());
+    assertThrows(IllegalArgumentException.class,
+        () -> jTree.getRoot().addNode(new Node<>(new Object())));
+  }
+
   @Test
   public void addRootWithNullDataTest() {
     final JTree<Object> jTree = JTree.<Object>emptyTree();
@@ -0,0 +1,31 @@
+package com.nextgen.jtree;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+public final class LongJTreeTest {
+
+  @Test
+  public void findDataTest() {
+    final LongJTree tree = LongJTree.treeWithRoot(Long.MAX_VALUE, 4);
+    final int first = tree.addNode(LongJTree.ROOT, 3L);
+    tree.addNode(first, Long.MAX_VALUE);
+
+    assertArrayEquals(new long[] {Long.MAX_VALUE}, tree.findData(d -> d > Integer.MAX_VALUE));
+    assertArrayEquals(new int[] {first}, tree.findNodes(d -> d == 3L));
+  }
+
+  @Test
+  public void removeNodeTest() {
+    final LongJTree tree = LongJTree.treeWithRoot(0L, 4);
+    final int first = tree.addNode(LongJTree.ROOT, 1L);
+    tree.addNode(first, 2L);
+
+    assertEquals(2, tree.removeNode(first));
+    assertEquals(0, tree.getSubtreeLength(LongJTree.ROOT));
+    assertArrayEquals(new long[] {0L}, tree.findData(d -> true));
+    assertThrows(IllegalArgumentException.class, () -> tree.getData(first));
+  }
+}
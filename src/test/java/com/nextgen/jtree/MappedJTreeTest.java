@@ -0,0 +1,144 @@
+package com.nextgen.jtree;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public final class MappedJTreeTest {
+  private Path file;
+
+  @BeforeEach
+  public void createFile() throws IOException {
+    file = Files.createTempFile("jtree", ".tree");
+  }
+
+  @AfterEach
+  public void deleteFile() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  @Test
+  public void addNodeTest() throws IOException {
+    try (MappedJTree<String> tree = MappedJTree.open(file, PayloadCodec.strings())) {
+      final long root = tree.addRoot("root");
+      final long first = tree.addNode(root, "first");
+      final long second = tree.addNode(first, "second");
+
+      assertEquals(MappedJTree.ROOT, root);
+      assertEquals(3, tree.size());
+      assertEquals(2, tree.getSubtreeLength(root));
+      assertEquals(first, tree.getParent(second));
+      assertEquals("second", tree.getData(second));
+      assertThrows(IllegalStateException.class, () -> tree.addRoot("other"));
+      assertThrows(IllegalArgumentException.class, () -> tree.addNode(root + 1, "other"));
+    }
+  }
+
+  @Test
+  public void reopenTest() throws IOException {
+    final long node;
+    try (MappedJTree<Long> tree = MappedJTree.open(file, PayloadCodec.longs())) {
+      node = tree.addNode(tree.addRoot(0L), 1L);
+      tree.addNode(node, 2L);
+    }
+
+    try (MappedJTree<Long> tree = MappedJTree.open(file, PayloadCodec.longs())) {
+      assertEquals(3, tree.size());
+      assertEquals(Long.valueOf(1L), tree.getData(node));
+      assertEquals(new HashSet<>(Arrays.asList(0L, 1L, 2L)), tree.findData(d -> true));
+    }
+  }
+
+  @Test
+  public void removeNodeTest() throws IOException {
+    try (MappedJTree<Long> tree = MappedJTree.open(file, PayloadCodec.longs())) {
+      final long root = tree.addRoot(0L);
+      final long first = tree.addNode(root, 1L);
+      tree.addNode(tree.addNode(first, 2L), 3L);
+      tree.addNode(root, 4L);
+
+      assertEquals(3, tree.removeNode(first));
+      assertEquals(2, tree.size());
+      assertEquals(1, tree.getSubtreeLength(root));
+      assertEquals(new HashSet<>(Arrays.asList(0L, 4L)), tree.findData(d -> true));
+      assertThrows(IllegalArgumentException.class, () -> tree.getData(first));
+      assertThrows(IllegalArgumentException.class, () -> tree.removeNode(root));
+    }
+  }
+
+  @Test
+  public void findAcrossSegmentsTest() throws IOException {
+    try (MappedJTree<Long> tree = MappedJTree.open(file, PayloadCodec.longs(), 8)) {
+      long parent = tree.addRoot(0L);
+      for (long i = 1; i < 1000; i++) {
+        final long node = tree.addNode(parent, i);
+        if (i % 10 == 0) {
+          parent = node;
+        }
+      }
+
+      assertEquals(1000, tree.findData(d -> true).size());
+      assertEquals(tree.findData(d -> d % 3 == 0),
+          tree.findDataParallel(d -> d % 3 == 0, ForkJoinPool.commonPool()));
+      assertEquals(tree.findNodes(d -> d % 7 == 0),
+          tree.findNodesParallel(d -> d % 7 == 0, ForkJoinPool.commonPool()));
+      assertEquals(Long.valueOf(999L),
+          tree.findNodes(d -> d == 999L).iterator().next().getData());
+      assertEquals(Arrays.asList(999L, 998L),
+          tree.findTopK(d -> true, Comparator.naturalOrder(), 2));
+      assertEquals(tree.findTopK(d -> d % 3 == 0, Comparator.naturalOrder(), 10),
+          tree.findTopKParallel(d -> d % 3 == 0, Comparator.naturalOrder(), 10,
+              ForkJoinPool.commonPool()));
+    }
+  }
+
+  @Test
+  public void openForeignFileTest() throws IOException {
+    Files.write(file, new byte[64]);
+
+    assertThrows(IOException.class, () -> MappedJTree.open(file, PayloadCodec.strings()));
+  }
+
+  @Test
+  public void openCorruptHeaderTest() throws IOException {
+    try (MappedJTree<String> tree = MappedJTree.open(file, PayloadCodec.strings(), 8)) {
+      tree.addRoot("root");
+    }
+
+    // segment shift of the header
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 63}), 8);
+    }
+
+    assertThrows(IOException.class, () -> MappedJTree.open(file, PayloadCodec.strings()));
+    assertThrows(IllegalArgumentException.class,
+        () -> MappedJTree.open(file, PayloadCodec.strings(), 63));
+  }
+
+  @Test
+  public void positionInsideRecordTest() throws IOException {
+    try (MappedJTree<String> tree = MappedJTree.open(file, PayloadCodec.strings(), 8)) {
+      final long root = tree.addRoot("root");
+      final long child = tree.addNode(root, "child");
+
+      for (long position = root + 8; position < child; position += 8) {
+        final long inside = position;
+        assertThrows(IllegalArgumentException.class, () -> tree.getData(inside));
+        assertThrows(IllegalArgumentException.class, () -> tree.addNode(inside, "stray"));
+      }
+      assertEquals(1, tree.getSubtreeLength(root));
+    }
+  }
+}
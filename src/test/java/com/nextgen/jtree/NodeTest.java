@@ -4,13 +4,20 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import com.nextgen.jtree.JTreeStructureChangesEventHandler.TreeStructureChangeEvent;
+import com.nextgen.jtree.NodeVisitor.VisitResult;
 
 public final class NodeTest {
 
@@ -47,6 +54,37 @@ public final class NodeTest {
     assertEquals(addedNode, node.getSubtree().iterator().next());
   }
 
+  @SuppressWarnings("unchecked")
+  @Test
+  public void addNodesTest() {
+    final Node<Object> node = new Node<>(new Object());
+    final JTreeStructureChangesEventHandler<Object> structureChangesHandler =
+        Mockito.mock(JTreeStructureChangesEventHandler.class);
+    node.addStructureChangesHandler(structureChangesHandler, true);
+
+    final List<Object> data = Arrays.asList(new Object(), new Object(), new Object());
+    final List<Node<Object>> added = node.addNodes(data);
+
+    assertEquals(3, added.size());
+    assertEquals(3, node.getSubtreeLength());
+    for (int i = 0; i < data.size(); i++) {
+      assertEquals(data.get(i), added.get(i).getData());
+      assertEquals(node, added.get(i).getParent());
+    }
+    Mockito.verify(structureChangesHandler).handleAll(node, added,
+        TreeStructureChangeEvent.ADD_NODE);
+  }
+
+  @Test
+  public void addNodesWithNullDataTest() {
+    final Node<Object> node = new Node<>(new Object());
+
+    assertThrows(IllegalArgumentException.class, () -> node.addNodes(null));
+    assertThrows(IllegalArgumentException.class,
+        () -> node.addNodes(Arrays.asList(new Object(), null)));
+    assertEquals(0, node.getSubtreeLength());
+  }
+
   @Test
   public void addNodeWithNullDataTest() {
     final Node<Object> node = new Node<>(new Object());
@@ -182,6 +220,25 @@ public final class NodeTest {
         TreeStructureChangeEvent.ADD_NODE);
   }
 
+  @Test
+  public void addStructureChangeHandlerNotRecursevelyIgnoresLaterChildrenTest() {
+    final Node<Object> node = new Node<>(new Object());
+
+    @SuppressWarnings("unchecked")
+    final JTreeStructureChangesEventHandler<Object> structureChangesHandler =
+        Mockito.mock(JTreeStructureChangesEventHandler.class);
+
+    node.addStructureChangesHandler(structureChangesHandler, false);
+
+    final Node<Object> subNode = node.addNode(new Node<Object>(new Object()));
+    final Node<Object> subSubNode = subNode.addNode(new Node<Object>(new Object()));
+    subNode.removeNode(subSubNode);
+
+    Mockito.verify(structureChangesHandler).handle(node, subNode,
+        TreeStructureChangeEvent.ADD_NODE);
+    Mockito.verifyNoMoreInteractions(structureChangesHandler);
+  }
+
   @SuppressWarnings("unchecked")
   @Test
   public void removeStructureChangeHandlerNotRecursevelyTest() {
@@ -210,6 +267,65 @@ public final class NodeTest {
         Mockito.<Node<Object>>any(), Mockito.eq(TreeStructureChangeEvent.ADD_NODE));
   }
 
+  @SuppressWarnings("unchecked")
+  @Test
+  public void removeStructureChangeHandlerNotRecursevelyKeepsDescendantsTest() {
+    final Node<Object> node = new Node<>(new Object());
+    final Node<Object> subNode = node.addNode(new Object());
+
+    final JTreeStructureChangesEventHandler<Object> structureChangesHandler =
+        Mockito.mock(JTreeStructureChangesEventHandler.class);
+
+    node.addStructureChangesHandler(structureChangesHandler, true);
+    node.removeStructureChangesHandler(structureChangesHandler, false);
+
+    final Node<Object> subNode2 = node.addNode(new Object());
+    final Node<Object> subSubNode = subNode.addNode(new Object());
+
+    Mockito.verify(structureChangesHandler, Mockito.never()).handle(node, subNode2,
+        TreeStructureChangeEvent.ADD_NODE);
+    Mockito.verify(structureChangesHandler).handle(subNode, subSubNode,
+        TreeStructureChangeEvent.ADD_NODE);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void structureChangesHandlerOfDetachedNodeTest() {
+    final Node<Object> node = new Node<>(new Object());
+    final Node<Object> subNode = node.addNode(new Object());
+
+    final JTreeStructureChangesEventHandler<Object> structureChangesHandler =
+        Mockito.mock(JTreeStructureChangesEventHandler.class);
+    node.addStructureChangesHandler(structureChangesHandler, true);
+
+    node.removeNode(subNode);
+    final Node<Object> subSubNode = subNode.addNode(new Object());
+
+    Mockito.verify(structureChangesHandler).handle(node, subNode,
+        TreeStructureChangeEvent.REMOVE_NODE);
+    Mockito.verify(structureChangesHandler, Mockito.never()).handle(subNode, subSubNode,
+        TreeStructureChangeEvent.ADD_NODE);
+  }
+
+  @Test
+  public void removeStructureChangeHandlerWhileNotifyingTest() {
+    final Node<Object> node = new Node<>(new Object());
+    final AtomicInteger notifications = new AtomicInteger();
+
+    node.addStructureChangesHandler(new JTreeStructureChangesEventHandler<Object>() {
+      @Override
+      public void handle(final Node<Object> changedNode, final Node<Object> cause,
+          final TreeStructureChangeEvent event) {
+        notifications.incrementAndGet();
+        node.removeStructureChangesHandler(this, true);
+      }
+    }, true);
+
+    node.addNode(new Object()).addNode(new Object());
+
+    assertEquals(1, notifications.get());
+  }
+
   @Test
   public void findDataTest() {
     final Object data = new Object();
@@ -232,6 +348,77 @@ public final class NodeTest {
         node.findNodes(data::equals));
   }
 
+  @Test
+  public void findDataInDeepTreeTest() {
+    final Object data = new Object();
+    Node<Object> node = new Node<>(data);
+    for (int i = 0; i < 100_001; i++) {
+      node = new Node<>(new Object()).addNode(node).getParent();
+    }
+
+    assertEquals(new HashSet<>(Collections.singletonList(data)), node.findData(data::equals));
+    assertEquals(100_002, node.findNodes(d -> true).size());
+  }
+
+  @Test
+  public void findDataParallelTest() {
+    final Node<Integer> node = new Node<>(0);
+    Node<Integer> last = node;
+    for (int i = 1; i < 10_000; i++) {
+      last = last.addNode(i);
+      node.addNode(-i);
+    }
+
+    final ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      assertEquals(node.findData(d -> d % 3 == 0), node.findDataParallel(d -> d % 3 == 0, pool));
+      assertEquals(node.findNodes(d -> d > 0), node.findNodesParallel(d -> d > 0, pool));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void findDataParallelWithNullArgumentsTest() {
+    final Node<Object> node = new Node<>(new Object());
+
+    assertThrows(IllegalArgumentException.class,
+        () -> node.findDataParallel(null, ForkJoinPool.commonPool()));
+    assertThrows(IllegalArgumentException.class, () -> node.findNodesParallel(d -> true, null));
+  }
+
+  @Test
+  public void streamTest() {
+    final Node<Integer> node = new Node<>(0);
+    for (int i = 1; i <= 10; i++) {
+      node.addNode(i).addNode(i * 100).addNode(i * 1000);
+    }
+
+    assertEquals(node.findData(d -> true), node.stream().map(Node::getData).collect(
+        Collectors.toSet()));
+    assertEquals(31, node.stream().parallel().count());
+
+    final AtomicInteger visited = new AtomicInteger();
+    assertTrue(node.stream().peek(n -> visited.incrementAndGet()).anyMatch(n -> n.getData() > 0));
+    assertEquals(2, visited.get());
+  }
+
+  @Test
+  public void streamBreadthFirstTest() {
+    final Node<Integer> node = new Node<>(0);
+    for (int i = 1; i <= 10; i++) {
+      node.addNode(1).addNode(2).addNode(3);
+    }
+
+    final List<Integer> levels =
+        node.stream(TraversalOrder.BREADTH_FIRST).map(Node::getData).collect(Collectors.toList());
+
+    assertEquals(31, levels.size());
+    for (int i = 1; i < levels.size(); i++) {
+      assertTrue(levels.get(i - 1) <= levels.get(i));
+    }
+  }
+
   @Test
   public void findDataWithNullFilterTest() {
     final Node<Object> node = new Node<>(new Object());
@@ -268,4 +455,300 @@ public final class NodeTest {
 
     assertEquals(4, node.getSubtreeLength());
   }
+
+  @Test
+  public void getSubtreeLengthAfterRemoveTest() {
+    final Node<Object> node = new Node<>(new Object());
+    final Node<Object> subNode = node.addNode(new Object());
+    final Node<Object> subSubNode = subNode.addNode(new Object());
+    subSubNode.addNode(new Object());
+    subSubNode.addNode(new Object());
+
+    assertEquals(4, node.getSubtreeLength());
+    assertEquals(3, subNode.getSubtreeLength());
+
+    assertTrue(subNode.removeNode(subSubNode));
+    assertEquals(1, node.getSubtreeLength());
+    assertEquals(0, subNode.getSubtreeLength());
+    assertEquals(2, subSubNode.getSubtreeLength());
+    assertTrue(subSubNode.isRoot());
+
+    node.addNode(subSubNode);
+    assertEquals(4, node.getSubtreeLength());
+  }
+
+  @Test
+  public void addNodeWithAttachedNodeTest() {
+    final Node<Object> node = new Node<>(new Object());
+    final Node<Object> subNode = node.addNode(new Object());
+    final Node<Object> subSubNode = subNode.addNode(new Object());
+
+    assertThrows(IllegalArgumentException.class, () -> node.addNode(subSubNode));
+    assertThrows(IllegalArgumentException.class, () -> subSubNode.addNode(node));
+    assertThrows(IllegalArgumentException.class, () -> node.addNode(node));
+    assertEquals(2, node.getSubtreeLength());
+  }
+
+  @Test
+  public void addNodeWithSubtreeCapacityTest() {
+    final Node<Object> node = new Node<>(new Object());
+    node.setSubtreeCapacity(3);
+    final Node<Object> tenant = node.addNode(new Object());
+    tenant.setSubtreeCapacity(1);
+    tenant.addNode(new Object());
+
+    final IllegalStateException actualException =
+        assertThrows(IllegalStateException.class, () -> tenant.addNode(new Object()));
+    assertEquals("Subtree capacity exceeded.", actualException.getMessage());
+    assertEquals(1, tenant.getSubtreeLength());
+    assertEquals(2, node.getSubtreeLength());
+
+    final Node<Object> branch = new Node<>(new Object());
+    branch.addNode(new Object());
+    assertThrows(IllegalStateException.class, () -> node.addNode(branch));
+    assertTrue(branch.isRoot());
+    assertEquals(2, node.getSubtreeLength());
+
+    node.addNode(new Object());
+    assertEquals(3, node.getSubtreeLength());
+    assertThrows(IllegalStateException.class, () -> node.addNode(new Object()));
+
+    node.setSubtreeCapacity(Node.UNBOUNDED);
+    node.addNode(branch);
+    assertEquals(5, node.getSubtreeLength());
+  }
+
+  @Test
+  public void setSubtreeCapacityWithNegativeCapacityTest() {
+    final Node<Object> node = new Node<>(new Object());
+
+    assertThrows(IllegalArgumentException.class, () -> node.setSubtreeCapacity(-2));
+    assertEquals(Node.UNBOUNDED, node.getSubtreeCapacity());
+  }
+
+  @Test
+  public void childOrderTest() {
+    final Node<Integer> node = new Node<>(-1);
+    for (int i = 0; i < 100; i++) {
+      node.addNode(i);
+    }
+    for (int i = 0; i < 100; i += 2) {
+      assertTrue(node.removeNode(node.getChild(i / 2)));
+    }
+
+    assertEquals(50, node.getChildCount());
+    assertEquals(Integer.valueOf(1), node.getChild(0).getData());
+    assertEquals(Integer.valueOf(99), node.getChild(49).getData());
+    assertEquals(25, node.indexOf(node.getChild(25)));
+    assertEquals(
+        node.getSubtree().stream().map(Node::getData).collect(Collectors.toList()),
+        IntStream.range(0, 50).map(i -> 2 * i + 1).boxed()
+            .collect(Collectors.toList()));
+    assertThrows(IndexOutOfBoundsException.class, () -> node.getChild(50));
+  }
+
+  @Test
+  public void indexOfDetachedNodeTest() {
+    final Node<Object> node = new Node<>(new Object());
+    final Node<Object> child = node.addNode(new Object());
+    node.removeNode(child);
+
+    assertEquals(-1, node.indexOf(child));
+    assertEquals(-1, node.indexOf(new Node<>(new Object())));
+    assertFalse(node.removeNode(child));
+  }
+
+  @Test
+  public void removeManyChildrenTest() {
+    final int width = 1_000_000;
+    final Node<Object> node = new Node<>(new Object());
+    final List<Node<Object>> children =
+        node.addNodes(Collections.nCopies(width, new Object()));
+
+    for (Node<Object> child : children) {
+      assertTrue(node.removeNode(child));
+    }
+
+    assertEquals(0, node.getChildCount());
+    assertEquals(0, node.getSubtreeLength());
+    assertFalse(node.getSubtree().iterator().hasNext());
+  }
+
+  @Test
+  public void removeManyChildrenByPositionTest() {
+    final int width = 1_000_000;
+    final Node<Integer> node = new Node<>(-1);
+    node.addNodes(IntStream.range(0, width).boxed().collect(Collectors.toList()));
+
+    for (int i = 0; i < width; i++) {
+      if (i == width / 2) {
+        assertEquals(Integer.valueOf(i + 1), node.getChild(1).getData());
+        assertEquals(1, node.indexOf(node.getChild(1)));
+      }
+      assertEquals(Integer.valueOf(i), node.getChild(0).getData());
+      assertTrue(node.removeNode(node.getChild(0)));
+    }
+
+    assertEquals(0, node.getChildCount());
+    assertEquals(0, node.getSubtreeLength());
+  }
+
+  @Test
+  public void walkTest() {
+    final Node<Integer> node = new Node<>(0);
+    final Node<Integer> first = node.addNode(1);
+    first.addNode(2).addNode(3);
+    node.addNode(4).addNode(5);
+    node.addNode(6);
+
+    final List<Integer> visited = new ArrayList<>();
+    final List<Integer> depths = new ArrayList<>();
+    assertFalse(node.walk((n, depth) -> {
+      visited.add(n.getData());
+      depths.add(depth);
+      return n.getData() == 4 ? VisitResult.SKIP_SUBTREE : VisitResult.CONTINUE;
+    }));
+    assertEquals(Arrays.asList(0, 1, 2, 3, 4, 6), visited);
+    assertEquals(Arrays.asList(0, 1, 2, 3, 1, 1), depths);
+
+    visited.clear();
+    assertTrue(node.walk((n, depth) -> {
+      visited.add(n.getData());
+      return n.getData() == 2 ? VisitResult.TERMINATE : VisitResult.CONTINUE;
+    }));
+    assertEquals(Arrays.asList(0, 1, 2), visited);
+
+    assertThrows(IllegalArgumentException.class, () -> node.walk(null));
+  }
+
+  @Test
+  public void boundedFindTest() {
+    final Node<Integer> node = new Node<>(0);
+    final Node<Integer> pruned = node.addNode(-1);
+    pruned.addNode(10);
+    final Node<Integer> kept = node.addNode(1);
+    kept.addNode(20).addNode(30);
+    kept.addNode(40);
+
+    final AtomicInteger tested = new AtomicInteger();
+    assertEquals(new HashSet<>(Arrays.asList(0, 1, 20, 30, 40)), node.findData(d -> d >= 0, d -> {
+      tested.incrementAndGet();
+      return d >= 0;
+    }, Integer.MAX_VALUE, Integer.MAX_VALUE));
+    // 10 lies under a pruned branch and is never visited
+    assertEquals(6, tested.get());
+
+    assertEquals(Arrays.asList(0, 10, 1, 20, 40), new ArrayList<>(
+        node.findData(d -> d >= 0, d -> true, 2, Integer.MAX_VALUE)));
+    assertEquals(Arrays.asList(0, -1, 10), new ArrayList<>(
+        node.findData(d -> true, d -> true, Integer.MAX_VALUE, 3)));
+    assertEquals(Collections.singletonList(kept), new ArrayList<>(
+        node.findNodes(d -> d == 1, d -> true, 1, 1)));
+    assertEquals(Collections.emptySet(), node.findNodes(d -> true, d -> true, 5, 0));
+
+    assertThrows(IllegalArgumentException.class,
+        () -> node.findData(d -> true, null, 1, 1));
+    assertThrows(IllegalArgumentException.class,
+        () -> node.findNodes(d -> true, d -> true, -1, 1));
+    assertThrows(IllegalArgumentException.class,
+        () -> node.findNodes(d -> true, d -> true, 1, -1));
+  }
+
+  @Test
+  public void findTopKTest() {
+    final Node<Integer> node = new Node<>(0);
+    final SubtreeBuilder<Integer> builder = SubtreeBuilder.withRoot(1);
+    for (int i = 2; i < 20_000; i++) {
+      builder.addNode(i % 7 == 0 ? SubtreeBuilder.ROOT : i - 2, i);
+    }
+    builder.attachTo(node);
+
+    final List<Integer> expected = Arrays.asList(19_998, 19_996, 19_994, 19_992, 19_990);
+    assertEquals(expected, node.findTopK(d -> d % 2 == 0, Comparator.naturalOrder(), 5));
+    assertEquals(expected, node.findTopKParallel(d -> d % 2 == 0, Comparator.naturalOrder(), 5,
+        ForkJoinPool.commonPool()));
+    assertEquals(Arrays.asList(0, 2), node.findTopK(d -> d < 4 && d % 2 == 0,
+        Comparator.reverseOrder(), 5));
+    assertEquals(Collections.emptyList(), node.findTopK(d -> true, Comparator.naturalOrder(), 0));
+
+    assertThrows(IllegalArgumentException.class,
+        () -> node.findTopK(d -> true, Comparator.naturalOrder(), -1));
+    assertThrows(IllegalArgumentException.class, () -> node.findTopK(d -> true, null, 1));
+  }
+
+  @Test
+  public void moveToTest() {
+    final Node<Integer> root = new Node<>(0);
+    final Node<Integer> left = root.addNode(1);
+    final Node<Integer> right = root.addNode(2);
+    final Node<Integer> target = right.addNode(20);
+    final Node<Integer> branch = left.addNode(10);
+    branch.addNode(100).addNode(1000);
+
+    branch.moveTo(target);
+    assertEquals(target, branch.getParent());
+    assertEquals(0, left.getChildCount());
+    assertEquals(1, target.getChildCount());
+    assertEquals(branch, target.getChild(0));
+    assertEquals(0, left.getSubtreeLength());
+    assertEquals(4, right.getSubtreeLength());
+    assertEquals(6, root.getSubtreeLength());
+    assertEquals(1, right.findNodes(d -> d == 1000).size());
+
+    branch.moveTo(target);
+    assertEquals(target, branch.getParent());
+
+    left.setSubtreeCapacity(2);
+    assertThrows(IllegalStateException.class, () -> branch.moveTo(left));
+    assertEquals(target, branch.getParent());
+    assertEquals(4, right.getSubtreeLength());
+    assertEquals(0, left.getSubtreeLength());
+
+    assertThrows(IllegalArgumentException.class, () -> right.moveTo(branch.getChild(0)));
+    assertThrows(IllegalArgumentException.class, () -> branch.moveTo(branch));
+    assertThrows(IllegalArgumentException.class, () -> branch.moveTo(null));
+    assertThrows(IllegalStateException.class, () -> root.moveTo(new Node<>(3)));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void moveToNotifiesHandlersTest() {
+    final Node<Integer> root = new Node<>(0);
+    final Node<Integer> left = root.addNode(1);
+    final Node<Integer> right = root.addNode(2);
+    final Node<Integer> branch = left.addNode(10);
+    branch.addNode(100);
+
+    final JTreeStructureChangesEventHandler<Integer> both =
+        Mockito.mock(JTreeStructureChangesEventHandler.class);
+    final JTreeStructureChangesEventHandler<Integer> oldSide =
+        Mockito.mock(JTreeStructureChangesEventHandler.class);
+    final JTreeStructureChangesEventHandler<Integer> newSide =
+        Mockito.mock(JTreeStructureChangesEventHandler.class);
+    final JTreeStructureChangesEventHandler<Integer> moved =
+        Mockito.mock(JTreeStructureChangesEventHandler.class);
+    root.addStructureChangesHandler(both, true);
+    left.addStructureChangesHandler(oldSide, false);
+    right.addStructureChangesHandler(newSide, true);
+    branch.addStructureChangesHandler(moved, true);
+
+    branch.moveTo(right);
+
+    Mockito.verify(both).handleMove(left, right, branch);
+    Mockito.verify(both, Mockito.never()).handle(Mockito.any(), Mockito.any(), Mockito.any());
+    Mockito.verify(oldSide).handle(left, branch, TreeStructureChangeEvent.REMOVE_NODE);
+    Mockito.verify(oldSide, Mockito.never()).handleMove(Mockito.any(), Mockito.any(),
+        Mockito.any());
+    Mockito.verify(newSide).handle(right, branch, TreeStructureChangeEvent.ADD_NODE);
+    Mockito.verify(newSide, Mockito.never()).handleMove(Mockito.any(), Mockito.any(),
+        Mockito.any());
+    Mockito.verifyZeroInteractions(moved);
+
+    final List<TreeStructureChangeEvent> events = new ArrayList<>();
+    final JTreeStructureChangesEventHandler<Integer> fallback = (n, c, e) -> events.add(e);
+    root.addStructureChangesHandler(fallback, true);
+    branch.moveTo(left);
+    assertEquals(Arrays.asList(TreeStructureChangeEvent.REMOVE_NODE,
+        TreeStructureChangeEvent.ADD_NODE), events);
+  }
 }
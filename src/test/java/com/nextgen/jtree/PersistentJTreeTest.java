@@ -0,0 +1,176 @@
+package com.nextgen.jtree;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+public final class PersistentJTreeTest {
+
+  @Test
+  public void emptyTreeTest() {
+    final PersistentJTree<Object> tree = PersistentJTree.emptyTree();
+
+    assertNull(tree.getRoot());
+    assertEquals(0, tree.size());
+    assertThrows(IllegalStateException.class, () -> tree.findData(d -> true));
+    assertThrows(IllegalStateException.class, () -> tree.addNode(new Object()));
+
+    final PersistentJTree<Object> rooted = tree.addRoot(new Object());
+    assertEquals(1, rooted.size());
+    assertEquals(1, rooted.getVersion());
+    assertNull(tree.getRoot());
+    assertThrows(IllegalStateException.class, () -> rooted.addRoot(new Object()));
+  }
+
+  @Test
+  public void structuralSharingTest() {
+    final PersistentJTree<Integer> base =
+        PersistentJTree.treeWithRoot(0).addNode(1).addNode(2).addNode(3, 0).addNode(4, 1);
+
+    final PersistentJTree<Integer> updated = base.addNode(5, 0, 0);
+
+    assertEquals(5, base.size());
+    assertEquals(6, updated.size());
+    assertEquals(base.getVersion() + 1, updated.getVersion());
+    assertSame(base.getNode(1), updated.getNode(1));
+    assertEquals(Integer.valueOf(5), updated.getNode(0, 0, 0).getData());
+    assertEquals(0, base.getNode(0, 0).getChildCount());
+  }
+
+  @Test
+  public void removeNodeTest() {
+    final PersistentJTree<Integer> base =
+        PersistentJTree.treeWithRoot(0).addNode(1).addNode(2).addNode(3).addNode(4, 0);
+
+    final PersistentJTree<Integer> updated = base.removeNode(0);
+
+    assertEquals(3, updated.size());
+    assertEquals(Arrays.asList(2, 3),
+        Arrays.asList(updated.getNode(0).getData(), updated.getNode(1).getData()));
+    assertEquals(new HashSet<>(Arrays.asList(0, 1, 2, 3, 4)), base.findData(d -> true));
+    assertThrows(IllegalArgumentException.class, () -> base.removeNode());
+    assertThrows(IllegalArgumentException.class, () -> base.removeNode(3));
+  }
+
+  @Test
+  public void setDataTest() {
+    final PersistentJTree<Integer> base = PersistentJTree.treeWithRoot(0).addNode(1).addNode(2);
+
+    final PersistentJTree<Integer> updated = base.setData(10, 1);
+
+    assertEquals(new HashSet<>(Arrays.asList(0, 1, 10)), updated.findData(d -> true));
+    assertEquals(Integer.valueOf(2), base.getNode(1).getData());
+    assertSame(base.getNode(0), updated.getNode(0));
+  }
+
+  @Test
+  public void copyOfTest() {
+    final JTree<Integer> source = JTree.treeWithRoot(0);
+    source.getRoot().addNode(1).addNode(2);
+    source.getRoot().addNode(3);
+    source.getRoot().addNode(5);
+
+    final PersistentJTree<Integer> copy = PersistentJTree.copyOf(source);
+    source.getRoot().addNode(4);
+
+    assertEquals(5, copy.size());
+    assertEquals(4, copy.getRoot().getSubtreeLength());
+    assertEquals(Integer.valueOf(1), copy.getNode(0).getData());
+    assertEquals(Integer.valueOf(2), copy.getNode(0, 0).getData());
+    assertEquals(Integer.valueOf(3), copy.getNode(1).getData());
+    assertEquals(Integer.valueOf(5), copy.getNode(2).getData());
+    assertEquals(new HashSet<>(Arrays.asList(0, 1, 2, 3, 5)), copy.findData(d -> true));
+    assertEquals(0, PersistentJTree.copyOf(JTree.emptyTree()).size());
+  }
+
+  @Test
+  public void copyOfConcurrentlyModifiedTreeTest() throws InterruptedException {
+    final JTree<Integer> source = JTree.concurrentTreeWithRoot(0);
+    final Node<Integer> parent = source.getRoot().addNode(1);
+    parent.addNodes(Collections.nCopies(1000, 4));
+    final AtomicBoolean running = new AtomicBoolean(true);
+    final Thread writer = new Thread(() -> {
+      while (running.get()) {
+        final Node<Integer> child = parent.addNode(2);
+        child.addNode(3);
+        parent.removeNode(child);
+      }
+    });
+    writer.start();
+
+    try {
+      for (int i = 0; i < 2000; i++) {
+        final PersistentJTree<Integer> copy = PersistentJTree.copyOf(source);
+        assertTrue(copy.size() >= 1002 && copy.size() <= 1004);
+      }
+    } finally {
+      running.set(false);
+      writer.join();
+    }
+  }
+
+  @Test
+  public void findNodesTest() {
+    final PersistentJTree<Integer> tree =
+        PersistentJTree.treeWithRoot(0).addNode(1).addNode(2).addNode(3, 1);
+
+    assertEquals(Collections.singleton(tree.getNode(1, 0)), tree.findNodes(d -> d == 3));
+    assertEquals(Collections.emptySet(), tree.findNodes(d -> d > 3));
+  }
+
+  @Test
+  public void findParallelTest() {
+    final int width = 4 * ParallelTreeSearch.SEQUENTIAL_THRESHOLD;
+    PersistentJTree<Integer> tree = PersistentJTree.treeWithRoot(0);
+    for (int i = 0; i < 4; i++) {
+      tree = tree.addNode(i + 1);
+    }
+    for (int i = 0; i < width; i++) {
+      tree = tree.addNode(10 + i, i % 4);
+    }
+
+    assertEquals(tree.findData(d -> d % 3 == 0),
+        tree.findDataParallel(d -> d % 3 == 0, ForkJoinPool.commonPool()));
+    assertEquals(tree.findNodes(d -> d % 7 == 0),
+        tree.findNodesParallel(d -> d % 7 == 0, ForkJoinPool.commonPool()));
+    final PersistentJTree<Integer> searched = tree;
+    assertThrows(IllegalArgumentException.class,
+        () -> searched.findDataParallel(d -> true, null));
+  }
+
+  @Test
+  public void findParallelInDeepTreeTest() {
+    final int depth = 100_000;
+    // built bottom-up, so every addition updates a single ancestor
+    Node<Integer> top = new Node<>(depth - 1);
+    for (int i = depth - 2; i >= 0; i--) {
+      top = new Node<>(i).addNode(top).getParent();
+    }
+    final PersistentJTree<Integer> tree = PersistentJTree.copyOf(JTree.treeOf(top));
+
+    assertEquals(depth / 2, tree.findDataParallel(d -> d % 2 == 0, ForkJoinPool.commonPool())
+        .size());
+  }
+
+  @Test
+  public void findTopKTest() {
+    PersistentJTree<Integer> tree = PersistentJTree.treeWithRoot(0);
+    for (int i = 1; i < 3000; i++) {
+      tree = tree.addNode(i, i % 2 == 1 ? new int[0] : new int[] {0});
+    }
+
+    assertEquals(Arrays.asList(2999, 2998),
+        tree.findTopK(d -> true, Comparator.naturalOrder(), 2));
+    assertEquals(Arrays.asList(0, 3), tree.findTopKParallel(d -> d % 3 == 0,
+        Comparator.reverseOrder(), 2, ForkJoinPool.commonPool()));
+  }
+}
@@ -0,0 +1,81 @@
+package com.nextgen.jtree;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.function.Predicate;
+import org.junit.jupiter.api.Test;
+
+public final class QueryCacheTest {
+
+  @Test
+  public void hitAndMissTest() {
+    final JTree<Integer> tree = JTree.treeWithRoot(0);
+    tree.getRoot().addNode(1).addNode(2);
+    final QueryCache<Integer> cache = QueryCache.of(tree, 10);
+    final Predicate<Integer> even = d -> d % 2 == 0;
+
+    assertEquals(new HashSet<>(Arrays.asList(0, 2)), cache.findData(even));
+    assertSame(cache.findData(even), cache.findData(even));
+    assertEquals(2, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+
+    // same filter searching for nodes is a different query
+    assertEquals(2, cache.findNodes(even).size());
+    assertEquals(2, cache.getMissCount());
+    assertEquals(2, cache.size());
+
+    assertThrows(IllegalArgumentException.class, () -> cache.findData(null));
+  }
+
+  @Test
+  public void selectiveInvalidationTest() {
+    final JTree<Integer> tree = JTree.treeWithRoot(0);
+    final Node<Integer> left = tree.getRoot().addNode(1);
+    final Node<Integer> right = tree.getRoot().addNode(2);
+    final Node<Integer> leftChild = left.addNode(3);
+    final QueryCache<Integer> cache = QueryCache.of(tree, 10);
+
+    cache.findData(tree.getRoot(), "all", d -> true);
+    cache.findData(left, "all", d -> true);
+    cache.findData(right, "all", d -> true);
+    cache.findData(leftChild, "all", d -> true);
+    assertEquals(4, cache.size());
+
+    // modification under right invalidates results of right and the root only
+    right.addNode(4);
+    assertEquals(2, cache.size());
+    assertEquals(new HashSet<>(Arrays.asList(2, 4)), cache.findData(right, "all", d -> true));
+    assertEquals(new HashSet<>(Arrays.asList(1, 3)), cache.findData(left, "all", d -> false));
+    assertEquals(1, cache.getHitCount());
+
+    // removal invalidates results of removed nodes too
+    tree.getRoot().removeNode(left);
+    assertEquals(1, cache.size());
+    assertEquals(new HashSet<>(Arrays.asList(0, 2, 4)),
+        cache.findData(tree.getRoot(), "all", d -> true));
+  }
+
+  @Test
+  public void evictionTest() {
+    final JTree<Integer> tree = JTree.treeWithRoot(0);
+    final QueryCache<Integer> cache = QueryCache.of(tree, 2);
+
+    cache.findData(tree.getRoot(), "a", d -> true);
+    cache.findData(tree.getRoot(), "b", d -> true);
+    cache.findData(tree.getRoot(), "a", d -> true);
+    cache.findData(tree.getRoot(), "c", d -> true);
+
+    assertEquals(2, cache.size());
+    assertEquals(1, cache.getEvictionCount());
+    // "b" was the least recently used
+    assertEquals(Collections.singleton(0), cache.findData(tree.getRoot(), "a", d -> false));
+    assertEquals(Collections.emptySet(), cache.findData(tree.getRoot(), "b", d -> false));
+
+    cache.close();
+    assertEquals(0, cache.size());
+  }
+}
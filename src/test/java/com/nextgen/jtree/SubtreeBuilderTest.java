@@ -0,0 +1,89 @@
+package com.nextgen.jtree;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.Arrays;
+import java.util.HashSet;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import com.nextgen.jtree.JTreeStructureChangesEventHandler.TreeStructureChangeEvent;
+
+public final class SubtreeBuilderTest {
+
+  @Test
+  public void buildTest() {
+    final SubtreeBuilder<Integer> builder = SubtreeBuilder.withRoot(0, 2);
+    final int first = builder.addNode(SubtreeBuilder.ROOT, 1);
+    builder.addNode(SubtreeBuilder.ROOT, 2);
+    builder.addNode(builder.addNode(first, 3), 4);
+
+    assertEquals(5, builder.size());
+
+    final Node<Integer> root = builder.build();
+
+    assertTrue(root.isRoot());
+    assertEquals(4, root.getSubtreeLength());
+    assertEquals(new HashSet<>(Arrays.asList(0, 1, 2, 3, 4)), root.findData(d -> true));
+
+    final Node<Integer> firstNode = root.findNodes(d -> d == 1).iterator().next();
+    assertEquals(root, firstNode.getParent());
+    assertEquals(2, firstNode.getSubtreeLength());
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void attachToTest() {
+    final Node<Object> node = new Node<>(new Object());
+    final JTreeStructureChangesEventHandler<Object> structureChangesHandler =
+        Mockito.mock(JTreeStructureChangesEventHandler.class);
+    node.addStructureChangesHandler(structureChangesHandler, true);
+
+    final SubtreeBuilder<Object> builder = SubtreeBuilder.withRoot(new Object());
+    for (int i = 0; i < 1000; i++) {
+      builder.addNode(SubtreeBuilder.ROOT, new Object());
+    }
+    final Node<Object> branch = builder.attachTo(node);
+
+    assertEquals(1001, node.getSubtreeLength());
+    Mockito.verify(structureChangesHandler).handle(node, branch,
+        TreeStructureChangeEvent.ADD_NODE);
+    Mockito.verifyNoMoreInteractions(structureChangesHandler);
+  }
+
+  @Test
+  public void attachToRejectedByCapacityTest() {
+    final Node<Object> node = new Node<>(new Object());
+    node.setSubtreeCapacity(2);
+
+    final SubtreeBuilder<Object> builder = SubtreeBuilder.withRoot(new Object());
+    builder.addNode(builder.addNode(SubtreeBuilder.ROOT, new Object()), new Object());
+
+    assertThrows(IllegalStateException.class, () -> builder.attachTo(node));
+    assertEquals(0, node.getSubtreeLength());
+
+    node.setSubtreeCapacity(Node.UNBOUNDED);
+    builder.attachTo(node);
+    assertEquals(3, node.getSubtreeLength());
+    assertThrows(IllegalStateException.class, () -> builder.attachTo(node));
+  }
+
+  @Test
+  public void buildTwiceTest() {
+    final SubtreeBuilder<Object> builder = SubtreeBuilder.withRoot(new Object());
+    builder.build();
+
+    assertThrows(IllegalStateException.class, () -> builder.build());
+    assertThrows(IllegalStateException.class,
+        () -> builder.addNode(SubtreeBuilder.ROOT, new Object()));
+  }
+
+  @Test
+  public void addNodeWithInvalidArgumentsTest() {
+    final SubtreeBuilder<Object> builder = SubtreeBuilder.withRoot(new Object());
+
+    assertThrows(IllegalArgumentException.class, () -> SubtreeBuilder.withRoot(null));
+    assertThrows(IllegalArgumentException.class, () -> builder.addNode(SubtreeBuilder.ROOT, null));
+    assertThrows(IllegalArgumentException.class, () -> builder.addNode(1, new Object()));
+  }
+}